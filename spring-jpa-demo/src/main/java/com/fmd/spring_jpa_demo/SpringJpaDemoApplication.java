@@ -3,13 +3,15 @@ package com.fmd.spring_jpa_demo;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Spring JPA Demo.
  * <p>
- * Starts the Spring Boot application.
+ * Starts the Spring Boot application and enables scheduling for background refresh tasks.
  */
 @Slf4j
+@EnableScheduling
 @SpringBootApplication
 public class SpringJpaDemoApplication {
 
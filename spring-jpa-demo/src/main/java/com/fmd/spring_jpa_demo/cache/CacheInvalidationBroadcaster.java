@@ -0,0 +1,24 @@
+package com.fmd.spring_jpa_demo.cache;
+
+/**
+ * Tells the other replicas of the service that students changed, so they evict them from their second-level cache.
+ * <p>
+ * Each replica keeps its own in-process cache, and Hibernate only evicts the entries of the replica that wrote.
+ * Implementations publish the invalidation over a channel shared by the replicas, such as a message broker, and
+ * on reception call {@link StudentCache#evict(StudentCacheInvalidation)} on every replica but the sender.
+ * <p>
+ * Declaring a bean of this type replaces the default {@link DiscoveryCacheInvalidationBroadcaster}, which posts
+ * invalidations directly to the replicas registered in service discovery.
+ *
+ * @author Shailesh Halor
+ */
+@FunctionalInterface
+public interface CacheInvalidationBroadcaster {
+
+    /**
+     * Publishes an invalidation to the other replicas, once the changes are committed.
+     *
+     * @param invalidation the changed students and addresses
+     */
+    void broadcast(StudentCacheInvalidation invalidation);
+}
@@ -0,0 +1,106 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CacheInvalidationBroadcaster} posting each invalidation to the other replicas registered in service
+ * discovery, which evict it through {@link StudentCacheInvalidationController}.
+ * <p>
+ * The replicas are looked up on each broadcast, so replicas started or stopped since are taken into account. This
+ * replica is recognized by its registration and skipped. Requests are sent off the calling thread, one per replica
+ * with short timeouts, and authenticated with the shared invalidation secret. A replica that cannot be reached is
+ * logged and skipped: it keeps its stale entries until they expire, so the time to live bounds staleness.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+public class DiscoveryCacheInvalidationBroadcaster implements CacheInvalidationBroadcaster {
+
+    private final DiscoveryClient discoveryClient;
+    private final Registration registration;
+    private final Executor executor;
+    private final RestClient restClient;
+    private final String serviceId;
+    private final String path;
+    private final String authorization;
+
+    /**
+     * Creates the broadcaster.
+     *
+     * @param discoveryClient the client looking up the replicas
+     * @param registration    the registration of this replica, or null if it is not registered
+     * @param executor        the executor sending the requests
+     * @param serviceId       the service ID the replicas are registered with
+     * @param contextPath     the servlet context path shared by the replicas
+     * @param secret          the secret shared by the replicas
+     * @param timeout         the connect and read timeout of each request
+     */
+    public DiscoveryCacheInvalidationBroadcaster(DiscoveryClient discoveryClient,
+                                                 Registration registration,
+                                                 Executor executor,
+                                                 String serviceId,
+                                                 String contextPath,
+                                                 String secret,
+                                                 Duration timeout) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.executor = executor;
+        this.serviceId = serviceId;
+        this.path = contextPath + StudentCacheInvalidationController.PATH;
+        this.authorization = StudentCacheInvalidationController.AUTHORIZATION_SCHEME + secret;
+        var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    /**
+     * Posts the invalidation to every other registered replica, asynchronously.
+     *
+     * @param invalidation the changed students and addresses
+     */
+    @Override
+    public void broadcast(StudentCacheInvalidation invalidation) {
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            if (registration != null && registration.getInstanceId() != null
+                    && registration.getInstanceId().equals(instance.getInstanceId())) {
+                continue;
+            }
+            executor.execute(() -> send(instance, invalidation));
+        }
+    }
+
+    /**
+     * Posts the invalidation to a replica, logging a failure.
+     *
+     * @param instance     the replica
+     * @param invalidation the changed students and addresses
+     */
+    private void send(ServiceInstance instance, StudentCacheInvalidation invalidation) {
+        var uri = instance.getUri() + path;
+        try {
+            restClient.post()
+                    .uri(uri)
+                    .header(HttpHeaders.AUTHORIZATION, authorization)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(invalidation)
+                    .retrieve()
+                    .toBodilessEntity();
+            log.debug("Sent cache invalidation of students {} to {}", invalidation.studentIds(), uri);
+        } catch (RestClientException e) {
+            log.warn("Failed to send cache invalidation of students {} to {}, its entries expire with their ttl: {}",
+                    invalidation.studentIds(), uri, e.getMessage());
+        }
+    }
+}
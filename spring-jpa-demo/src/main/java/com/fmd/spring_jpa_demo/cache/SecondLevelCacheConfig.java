@@ -0,0 +1,159 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Executor;
+
+/**
+ * Enables the Hibernate second-level cache for students, their address collections and addresses, backed by
+ * an in-process Caffeine JCache provider with bounded size and time to live.
+ * <p>
+ * The cache is disabled by default, entities are then always read from the database. When enabled, student reads
+ * by ID go through the cache, see {@link StudentCache}, and hit and miss counts of each region are published as
+ * metrics, see {@link SecondLevelCacheMetrics}.
+ * <p>
+ * Replicas evict each other's changed entries: each change is posted to the other replicas registered in service
+ * discovery, see {@link DiscoveryCacheInvalidationBroadcaster}, authenticated by a secret they share, which must
+ * be set when the cache is enabled. Declaring another {@link CacheInvalidationBroadcaster} bean replaces it.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.cache.second-level.enabled=true
+ *     com.fmd.spring-jpa-demo.cache.second-level.max-size=10000
+ *     com.fmd.spring-jpa-demo.cache.second-level.ttl=10m
+ *     com.fmd.spring-jpa-demo.cache.second-level.invalidation.secret=${CACHE_INVALIDATION_SECRET}
+ *     com.fmd.spring-jpa-demo.cache.second-level.invalidation.timeout=2s
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.cache.second-level", name = "enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+
+    /**
+     * Cache regions declared by the entities.
+     */
+    static final List<String> REGIONS = List.of(Student.CACHE_REGION, Student.ADDRESSES_CACHE_REGION, Address.CACHE_REGION);
+
+    /**
+     * Provides the JCache manager holding the cache regions, each bounded in size and expiring after write.
+     *
+     * @param maxSize maximum number of entries per region
+     * @param ttl     time to live of an entry after it is written
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(
+            @Value("${com.fmd.spring-jpa-demo.cache.second-level.max-size:10000}") long maxSize,
+            @Value("${com.fmd.spring-jpa-demo.cache.second-level.ttl:10m}") Duration ttl) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var cacheManager = provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            if (cacheManager.getCache(region) == null) {
+                var configuration = new CaffeineConfiguration<>();
+                configuration.setMaximumSize(OptionalLong.of(maxSize));
+                configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+                cacheManager.createCache(region, configuration);
+            }
+        }
+        log.info("Second-level cache enabled for regions {} with max size {} and ttl {}", REGIONS, maxSize, ttl);
+        return cacheManager;
+    }
+
+    /**
+     * Configures Hibernate to use the cache regions, and to collect the statistics published as metrics.
+     * <p>
+     * Addresses are added and removed through their owning side, without touching the student's address list, so
+     * Hibernate is told to evict the cached address collection of the student of any inserted, updated or deleted
+     * address.
+     *
+     * @param secondLevelCacheManager the JCache manager holding the cache regions
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernateProperties(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Provides the entry point to the cache, telling the other replicas about changes through the declared
+     * {@link CacheInvalidationBroadcaster}, or by default through the replicas registered in service discovery.
+     *
+     * @param entityManagerFactory  the entity manager factory
+     * @param broadcasterProvider   provider of the declared broadcaster, if any
+     * @param discoveryClient       the client looking up the other replicas
+     * @param registrationProvider  provider of the registration of this replica, absent if it is not registered
+     * @param executor              the executor sending invalidations to the other replicas
+     * @param serviceId             the service ID the replicas are registered with
+     * @param contextPath           the servlet context path shared by the replicas
+     * @param secret                the secret authenticating invalidations between replicas
+     * @param timeout               the timeout of each invalidation request
+     * @return the StudentCache instance
+     * @throws IllegalStateException if no broadcaster is declared and the secret is not set
+     */
+    @Bean
+    public StudentCache studentCache(
+            EntityManagerFactory entityManagerFactory,
+            ObjectProvider<CacheInvalidationBroadcaster> broadcasterProvider,
+            DiscoveryClient discoveryClient,
+            ObjectProvider<Registration> registrationProvider,
+            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${server.servlet.context-path:}") String contextPath,
+            @Value("${com.fmd.spring-jpa-demo.cache.second-level.invalidation.secret:}") String secret,
+            @Value("${com.fmd.spring-jpa-demo.cache.second-level.invalidation.timeout:2s}") Duration timeout) {
+        var broadcaster = broadcasterProvider.getIfAvailable(() -> {
+            if (!StringUtils.hasText(secret)) {
+                throw new IllegalStateException("com.fmd.spring-jpa-demo.cache.second-level.invalidation.secret must "
+                        + "be set when the second-level cache is enabled, so replicas can evict each other's entries");
+            }
+            log.info("Second-level cache invalidations are sent to the other replicas of {}", serviceId);
+            return new DiscoveryCacheInvalidationBroadcaster(discoveryClient, registrationProvider.getIfAvailable(),
+                    executor, serviceId, contextPath, secret, timeout);
+        });
+        return new StudentCache(entityManagerFactory, broadcaster);
+    }
+
+    /**
+     * Provides the metrics of the cache regions.
+     *
+     * @param entityManagerFactory the entity manager factory
+     * @return the SecondLevelCacheMetrics instance
+     */
+    @Bean
+    public SecondLevelCacheMetrics secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheMetrics(entityManagerFactory.unwrap(SessionFactory.class), REGIONS);
+    }
+}
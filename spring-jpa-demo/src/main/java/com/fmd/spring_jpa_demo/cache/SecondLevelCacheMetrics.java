@@ -0,0 +1,73 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the Hibernate statistics of the second-level cache regions as Micrometer counters.
+ * <p>
+ * Each region gets {@code hibernate.second.level.cache.requests} counters tagged with {@code result=hit} and
+ * {@code result=miss}, from which the hit ratio follows, and a {@code hibernate.second.level.cache.puts} counter.
+ * They are available on the metrics actuator endpoint, for example:
+ * <pre>
+ *     GET /actuator/metrics/hibernate.second.level.cache.requests?tag=region:student&amp;tag=result:hit
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private static final String REQUESTS = "hibernate.second.level.cache.requests";
+
+    private final SessionFactory sessionFactory;
+    private final List<String> regions;
+
+    /**
+     * Registers the counters of each region.
+     *
+     * @param registry the registry to register the counters with
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        var statistics = sessionFactory.getStatistics();
+        for (String region : regions) {
+            counter(REQUESTS, "Requests to the second-level cache region", statistics, region,
+                    CacheRegionStatistics::getHitCount).tag("result", "hit").register(registry);
+            counter(REQUESTS, "Requests to the second-level cache region", statistics, region,
+                    CacheRegionStatistics::getMissCount).tag("result", "miss").register(registry);
+            counter("hibernate.second.level.cache.puts", "Entries put into the second-level cache region",
+                    statistics, region, CacheRegionStatistics::getPutCount).register(registry);
+        }
+    }
+
+    /**
+     * Prepares a counter reading a statistic of a region.
+     *
+     * @param name        the counter name
+     * @param description the counter description
+     * @param statistics  the Hibernate statistics
+     * @param region      the region name tag
+     * @param count       the statistic of the region
+     * @return the counter builder
+     */
+    private static FunctionCounter.Builder<Statistics> counter(String name, String description, Statistics statistics,
+                                                               String region, ToLongFunction<CacheRegionStatistics> count) {
+        return FunctionCounter.builder(name, statistics, s -> {
+                    // No region statistics exist when the second-level cache is disabled
+                    var regionStatistics = s.getDomainDataRegionStatistics(region);
+                    return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+                })
+                .description(description)
+                .tag("region", region);
+    }
+}
@@ -0,0 +1,52 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+
+/**
+ * Entry point to the second-level cache of students and addresses, available when it is enabled.
+ * <p>
+ * Hibernate evicts the entries changed by this replica on commit. The targeted statements, such as the set-based
+ * deletes and merge patches, evict only the entries they change, see
+ * {@link com.fmd.spring_jpa_demo.repository.StudentStatementRepository}. The other replicas are told through the
+ * {@link CacheInvalidationBroadcaster} and evict the changed entries with {@link #evict(StudentCacheInvalidation)}.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StudentCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBroadcaster cacheInvalidationBroadcaster;
+
+    /**
+     * Tells the other replicas that students changed, to be called once the changes are committed.
+     *
+     * @param invalidation the changed students and addresses
+     */
+    public void invalidate(StudentCacheInvalidation invalidation) {
+        cacheInvalidationBroadcaster.broadcast(invalidation);
+    }
+
+    /**
+     * Evicts changed students and addresses from the cache of this replica, on reception of an invalidation
+     * broadcast by another replica.
+     *
+     * @param invalidation the changed students and addresses
+     */
+    public void evict(StudentCacheInvalidation invalidation) {
+        var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        invalidation.studentIds().forEach(id -> {
+            cache.evictEntityData(Student.class, id);
+            cache.evictCollectionData(Student.ADDRESSES_ROLE, id);
+        });
+        invalidation.addressIds().forEach(id -> cache.evictEntityData(Address.class, id));
+        log.debug("Evicted students {} and addresses {} from the second-level cache",
+                invalidation.studentIds(), invalidation.addressIds());
+    }
+}
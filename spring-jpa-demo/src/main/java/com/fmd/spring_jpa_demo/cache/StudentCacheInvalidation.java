@@ -0,0 +1,30 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import java.util.Set;
+
+/**
+ * Students and addresses changed by a replica, to be evicted from the second-level cache of the other replicas.
+ *
+ * @param studentIds the IDs of the changed or deleted students, their address collections are evicted too
+ * @param addressIds the IDs of the changed or deleted addresses
+ */
+public record StudentCacheInvalidation(Set<Integer> studentIds, Set<Integer> addressIds) {
+
+    /**
+     * Creates the invalidation, missing ID sets are empty.
+     */
+    public StudentCacheInvalidation {
+        studentIds = studentIds == null ? Set.of() : studentIds;
+        addressIds = addressIds == null ? Set.of() : addressIds;
+    }
+
+    /**
+     * Creates the invalidation of changed students, without changed addresses.
+     *
+     * @param studentIds the IDs of the changed or deleted students
+     * @return the invalidation
+     */
+    public static StudentCacheInvalidation ofStudents(Set<Integer> studentIds) {
+        return new StudentCacheInvalidation(studentIds, Set.of());
+    }
+}
@@ -0,0 +1,82 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authorization.AuthorizationDeniedException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.MessageDigest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Receives the cache invalidations broadcast by the other replicas, see {@link DiscoveryCacheInvalidationBroadcaster},
+ * and evicts them from the second-level cache of this replica.
+ * <p>
+ * Requests are authenticated by the secret shared by the replicas instead of a user token, sent in the
+ * {@code Authorization} header with the {@code Replica} scheme:
+ * <pre>
+ *     POST /internal/cache/student/invalidations
+ *     Authorization: Replica &lt;secret&gt;
+ *     {"studentIds": [12], "addressIds": [34, 35]}
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.cache.second-level", name = "enabled", havingValue = "true")
+public class StudentCacheInvalidationController {
+
+    /**
+     * Path of the endpoint, relative to the context path.
+     */
+    static final String PATH = "/internal/cache/student/invalidations";
+
+    /**
+     * Scheme of the {@code Authorization} header, followed by the secret.
+     */
+    static final String AUTHORIZATION_SCHEME = "Replica ";
+
+    private final StudentCache studentCache;
+    private final byte[] authorization;
+
+    /**
+     * Creates the controller.
+     *
+     * @param studentCache the second-level cache entry point
+     * @param secret       the secret shared by the replicas
+     */
+    public StudentCacheInvalidationController(
+            StudentCache studentCache,
+            @Value("${com.fmd.spring-jpa-demo.cache.second-level.invalidation.secret:}") String secret) {
+        this.studentCache = studentCache;
+        this.authorization = (AUTHORIZATION_SCHEME + secret).getBytes(UTF_8);
+    }
+
+    /**
+     * Evicts the students and addresses changed by another replica.
+     *
+     * @param authorization the {@code Authorization} header carrying the shared secret
+     * @param invalidation  the changed students and addresses
+     * @return no content
+     * @throws AuthorizationDeniedException if the secret is missing or wrong
+     */
+    @PostMapping(PATH)
+    public ResponseEntity<Void> evict(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                      @RequestBody StudentCacheInvalidation invalidation) {
+        // Constant time comparison, so the secret cannot be guessed from response times
+        if (authorization == null || !MessageDigest.isEqual(this.authorization, authorization.getBytes(UTF_8))) {
+            log.warn("Rejected cache invalidation with a missing or wrong secret");
+            throw new AuthorizationDeniedException("Invalid cache invalidation secret");
+        }
+        studentCache.evict(invalidation);
+        return ResponseEntity.noContent().build();
+    }
+}
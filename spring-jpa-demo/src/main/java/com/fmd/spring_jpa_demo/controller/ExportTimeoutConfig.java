@@ -0,0 +1,45 @@
+package com.fmd.spring_jpa_demo.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Web MVC configuration of the timeout of the streamed exports, see {@link ExportTimeoutInterceptor}.
+ * <p>
+ * Exports of many students outlive the default async request timeout, 30 seconds in most containers, which still
+ * applies to every other async request. Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.student.export.timeout=30m
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Configuration
+public class ExportTimeoutConfig implements WebMvcConfigurer {
+
+    private final Duration timeout;
+
+    /**
+     * Creates the configuration.
+     *
+     * @param timeout the timeout of the streamed exports
+     */
+    public ExportTimeoutConfig(@Value("${com.fmd.spring-jpa-demo.student.export.timeout:30m}") Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Registers the interceptor applying the export timeout.
+     *
+     * @param configurer the async support configurer
+     */
+    @Override
+    public void configureAsyncSupport(@NonNull AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ExportTimeoutInterceptor(timeout));
+    }
+}
@@ -0,0 +1,66 @@
+package com.fmd.spring_jpa_demo.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Async interceptor giving the streamed exports their own timeout, leaving the timeout of the other async requests
+ * to the default.
+ * <p>
+ * A {@code StreamingResponseBody} carries no timeout of its own, so the export handler marks its request with
+ * {@link #markExport(WebRequest)} and the timeout is applied to the marked requests before their async processing
+ * starts.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+class ExportTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    /**
+     * Request attribute marking a streamed export.
+     */
+    private static final String EXPORT_ATTRIBUTE = ExportTimeoutInterceptor.class.getName() + ".export";
+
+    private final Duration timeout;
+
+    /**
+     * Creates the interceptor.
+     *
+     * @param timeout the timeout of the streamed exports
+     */
+    ExportTimeoutInterceptor(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Marks the current request as a streamed export, to be called by its handler.
+     *
+     * @param request the current request
+     */
+    static void markExport(WebRequest request) {
+        request.setAttribute(EXPORT_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Sets the export timeout on a marked request, before its async processing starts.
+     *
+     * @param request the async request
+     * @param task    the task writing the export
+     */
+    @Override
+    public <T> void beforeConcurrentHandling(@NonNull NativeWebRequest request, @NonNull Callable<T> task) {
+        if (request.getAttribute(EXPORT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null
+                && request instanceof AsyncWebRequest asyncWebRequest) {
+            log.debug("Export async timeout set to {}", timeout);
+            asyncWebRequest.setTimeout(timeout.toMillis());
+        }
+    }
+}
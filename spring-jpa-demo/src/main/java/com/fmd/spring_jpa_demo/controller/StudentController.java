@@ -1,17 +1,37 @@
 package com.fmd.spring_jpa_demo.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fmd.spring_jpa_demo.dto.BulkCreateResponse;
+import com.fmd.spring_jpa_demo.dto.BulkImportResponse;
+import com.fmd.spring_jpa_demo.dto.CursorPage;
+import com.fmd.spring_jpa_demo.dto.ExportFormat;
+import com.fmd.spring_jpa_demo.dto.KeysetPageRequest;
 import com.fmd.spring_jpa_demo.dto.PagingAndSortingRequest;
 import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
 import com.fmd.spring_jpa_demo.service.StudentService;
+import com.fmd.spring_jpa_demo.util.ETagUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * REST controller for managing Student resources.
@@ -22,6 +42,21 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/v1/student")
 public class StudentController {
 
+    /**
+     * Response header carrying the approximate total number of students.
+     */
+    public static final String APPROXIMATE_TOTAL_HEADER = "X-Approximate-Total-Count";
+
+    /**
+     * Media type of JSON Merge Patch documents (RFC 7396).
+     */
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    /**
+     * Content coding of gzip compressed exports.
+     */
+    private static final String GZIP = "gzip";
+
     private final StudentService studentService;
 
     /**
@@ -38,14 +73,64 @@ public class StudentController {
         return saved;
     }
 
+    /**
+     * Creates students in bulk. Each student is validated and created independently, the response reports
+     * the ID of each created student and the reason of each failure.
+     * <p>
+     * The request body is limited to {@code request.body.sanitization.max-size}, 10MB by default or about 40,000
+     * students with two addresses each, larger bodies are rejected with 413. Clients send larger sets in batches
+     * below that limit, or stream them as NDJSON to {@link #importStudents}.
+     *
+     * @param studentDTOs the student data transfer objects
+     * @return the number of students created and failed, and the outcome of each student in request order
+     */
+    @PostMapping("/bulk")
+    public BulkCreateResponse saveStudents(@RequestBody List<StudentDTO> studentDTOs) {
+        log.info("Saving {} Students in bulk", studentDTOs.size());
+        var response = studentService.saveStudents(studentDTOs);
+        log.info("Bulk save created {} students, {} failed", response.created(), response.failed());
+        return response;
+    }
+
+    /**
+     * Imports students from a newline delimited JSON document, one student per line. The document is read and
+     * committed in chunks as it is uploaded, so it can be larger than the memory. Failed lines are reported by
+     * line number, and the import stops once more than {@code maxErrors} lines failed.
+     * An import that did not complete is resumed by uploading the same document with {@code skip} set to the
+     * committed lines of the response. With an {@code importId} chosen by the client, the committed lines are
+     * recorded instead, and uploading the same document with the same ID resumes the import, even when the
+     * upload broke before a response was received.
+     *
+     * @param body      the NDJSON document
+     * @param skip      the number of leading lines to skip, 0 by default, not allowed with an import ID
+     * @param maxErrors the number of failed lines after which the import stops, optional
+     * @param importId  the ID of the import, up to 64 letters, digits, '.', '_' or '-', optional
+     * @return the number of lines read, created and failed, the committed lines and the failed lines
+     * @throws IOException if reading the document fails
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BulkImportResponse importStudents(InputStream body,
+                                             @RequestParam(defaultValue = "0") int skip,
+                                             @RequestParam(required = false) Integer maxErrors,
+                                             @RequestParam(required = false) String importId) throws IOException {
+        log.info("Import students [{}] skipping {} lines", importId, skip);
+        var response = studentService.importStudents(body, skip, maxErrors, importId);
+        log.info("Import created {} students, {} failed, completed [{}]",
+                response.created(), response.failed(), response.completed());
+        return response;
+    }
+
     /**
      * Retrieves all students with pagination and sorting.
+     * The response carries an ETag derived from the versions of the students of the page, a request with a matching
+     * {@code If-None-Match} is answered with 304 Not Modified before any student is loaded.
      *
      * @param pageRequestDto the paging and sorting request DTO
-     * @return a page of student DTOs
+     * @param webRequest     the web request, carrying the conditional headers
+     * @return a page of student DTOs, or null when not modified
      */
     @GetMapping
-    public Page<StudentDTO> getAllStudent(@ModelAttribute PagingAndSortingRequest pageRequestDto) {
+    public Page<StudentDTO> getAllStudent(@ModelAttribute PagingAndSortingRequest pageRequestDto, WebRequest webRequest) {
 
         log.info("Get All Students with offset [{}], page size [{}] and sort by [{}] with direction [{}]",
                 pageRequestDto.offset(), pageRequestDto.pageSize(), pageRequestDto.sortBy(), pageRequestDto.direction());
@@ -53,22 +138,152 @@ public class StudentController {
         var sort = Sort.by(pageRequestDto.direction(), pageRequestDto.sortBy());
         var pageRequest = PageRequest.of(pageRequestDto.offset(), pageRequestDto.pageSize(), sort);
 
-        var page = studentService.getAllStudent(pageRequest);
+        // Validate the client's copy against the versions of the page, the response is then already complete.
+        // No Last-Modified is sent, removing a student from the page would not advance it.
+        var versions = studentService.getStudentVersions(pageRequest);
+        if (webRequest.checkNotModified(ETagUtil.pageETag(versions))) {
+            log.info("Students page not modified");
+            return null;
+        }
+
+        var page = studentService.getStudents(versions);
 
         log.info("Fetched {} students", page.getTotalElements());
         return page;
     }
 
+    /**
+     * Retrieves students with pagination and sorting, without counting the total number of students.
+     * An approximate total, refreshed periodically, is returned in the {@value #APPROXIMATE_TOTAL_HEADER} header
+     * when requested, unless the students could not be counted yet.
+     *
+     * @param pageRequestDto   the paging and sorting request DTO
+     * @param approximateTotal whether to return the approximate total number of students
+     * @return a slice of student DTOs
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<Slice<StudentDTO>> getStudentSlice(@ModelAttribute PagingAndSortingRequest pageRequestDto,
+                                                             @RequestParam(defaultValue = "false") boolean approximateTotal) {
+
+        log.info("Get Student slice with offset [{}], page size [{}] and sort by [{}] with direction [{}]",
+                pageRequestDto.offset(), pageRequestDto.pageSize(), pageRequestDto.sortBy(), pageRequestDto.direction());
+
+        var sort = Sort.by(pageRequestDto.direction(), pageRequestDto.sortBy());
+        var pageRequest = PageRequest.of(pageRequestDto.offset(), pageRequestDto.pageSize(), sort);
+
+        var slice = studentService.getStudentSlice(pageRequest);
+
+        log.info("Fetched {} students, has next [{}]", slice.getNumberOfElements(), slice.hasNext());
+        var response = ResponseEntity.ok();
+        if (approximateTotal) {
+            studentService.getApproximateStudentCount()
+                    .ifPresent(count -> response.header(APPROXIMATE_TOTAL_HEADER, String.valueOf(count)));
+        }
+        return response.body(slice);
+    }
+
+    /**
+     * Retrieves students with keyset (cursor) pagination and sorting.
+     * Unlike offset pagination, the cost of a page does not grow with its depth.
+     *
+     * @param pageRequest the keyset page request, pass the nextCursor of the previous page to continue
+     * @return a page of student DTOs with the cursor of the next page
+     */
+    @GetMapping("/keyset")
+    public CursorPage<StudentDTO> getStudentsByKeyset(@Valid @ModelAttribute KeysetPageRequest pageRequest) {
+
+        log.info("Get Students with keyset page size [{}] and sort by [{}] with direction [{}]",
+                pageRequest.pageSize(), pageRequest.sortBy(), pageRequest.direction());
+
+        var page = studentService.getStudentsByKeyset(pageRequest);
+
+        log.info("Fetched {} students, has next [{}]", page.size(), page.hasNext());
+        return page;
+    }
+
+    /**
+     * Searches students by case-sensitive prefixes of their first name, last name, and the city and zipcode of one
+     * of their addresses, with keyset (cursor) pagination. All given criteria must match, each is served by an index.
+     *
+     * @param criteria    the search criteria
+     * @param pageRequest the keyset page request, pass the nextCursor of the previous page with the same criteria
+     * @return a page of matching student DTOs with the cursor of the next page
+     */
+    @GetMapping("/search")
+    public CursorPage<StudentDTO> searchStudents(@Valid @ModelAttribute StudentSearchCriteria criteria,
+                                                 @Valid @ModelAttribute KeysetPageRequest pageRequest) {
+
+        log.info("Search Students matching {} with keyset page size [{}] and sort by [{}] with direction [{}]",
+                criteria, pageRequest.pageSize(), pageRequest.sortBy(), pageRequest.direction());
+
+        var page = studentService.searchStudents(criteria, pageRequest);
+
+        log.info("Found {} students, has next [{}]", page.size(), page.hasNext());
+        return page;
+    }
+
+    /**
+     * Exports all students with their addresses, ordered by ID, as newline delimited JSON or CSV.
+     * The students are streamed from a database cursor to the response, so memory use does not depend on their
+     * number. The response is gzip compressed when the client accepts it. The export runs with its own async
+     * timeout, {@code com.fmd.spring-jpa-demo.student.export.timeout}, see {@link ExportTimeoutInterceptor}.
+     *
+     * @param format         the export format, NDJSON by default
+     * @param acceptEncoding the content codings accepted by the client, optional
+     * @param webRequest     the web request, marked as export
+     * @return the streamed export
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
+        log.info("Export students as {}", format);
+        ExportTimeoutInterceptor.markExport(webRequest);
+        var gzip = acceptsGzip(acceptEncoding);
+        // Written on an async thread once the headers are committed, errors can only abort the response
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                var gzipOutputStream = new GZIPOutputStream(outputStream);
+                var count = studentService.exportStudents(format, gzipOutputStream);
+                gzipOutputStream.finish();
+                log.info("Exported {} students as gzip compressed {}", count, format);
+            } else {
+                var count = studentService.exportStudents(format, outputStream);
+                log.info("Exported {} students as {}", count, format);
+            }
+        };
+        var response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("students." + format.getExtension()).build().toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(body);
+    }
+
     /**
      * Retrieves a student by ID.
+     * The response carries an ETag and a Last-Modified header derived from the version of the student, a request
+     * with a matching {@code If-None-Match}, or {@code If-Modified-Since}, is answered with 304 Not Modified
+     * before the student is loaded.
      *
-     * @param id the student ID
-     * @return the student DTO or 404 if not found
+     * @param id         the student ID
+     * @param webRequest the web request, carrying the conditional headers
+     * @return the student DTO, 404 if not found, or null when not modified
      */
     @GetMapping("/{id}")
-    public ResponseEntity<StudentDTO> getStudentById(@PathVariable int id) {
+    public ResponseEntity<StudentDTO> getStudentById(@PathVariable int id, WebRequest webRequest) {
         log.info("Find student by ID : {}", id);
         // Let StudentNotFoundException propagate to GlobalExceptionHandler
+        var version = studentService.getStudentVersion(id);
+        // The version is read before the student, so the tag sent with the body is never newer than the body
+        if (webRequest.checkNotModified(ETagUtil.studentETag(version), version.modifiedAt().getTime())) {
+            log.info("Student not modified for ID: {}", id);
+            return null;
+        }
         var studentDTO = studentService.getStudentById(id);
         log.info("Student found for ID: {}", id);
         return ResponseEntity.ok(studentDTO);
@@ -76,18 +291,50 @@ public class StudentController {
 
     /**
      * Updates a student by ID.
+     * With an {@code If-Match} header carrying the ETag of the student, the update is applied only if the student
+     * has not changed since, with a single conditional statement instead of reading the student first.
      *
      * @param studentDTO the student data transfer object
      * @param id         the student ID
-     * @return the updated student DTO or 404 if not found
+     * @param ifMatch    the ETags the student must match, optional
+     * @return the updated student DTO with its new ETag, 404 if not found or 412 if the student changed
      */
     @PutMapping("/{id}")
     public ResponseEntity<StudentDTO> updateStudent(@Valid @RequestBody StudentDTO studentDTO,
-                                                    @PathVariable int id) {
+                                                    @PathVariable int id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                    String ifMatch) {
         log.info("Update student by ID : {}", id);
-        var updatedStudentDTO = studentService.updateStudent(id, studentDTO);
+        var updatedStudentDTO = studentService.updateStudent(id, studentDTO, ETagUtil.parseVersions(ifMatch));
         log.info("Student updated: {}", updatedStudentDTO);
-        return ResponseEntity.ok(updatedStudentDTO);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.studentETag(updatedStudentDTO.version()))
+                .body(updatedStudentDTO);
+    }
+
+    /**
+     * Partially updates a student by ID with a JSON Merge Patch document. Members absent from the patch are left
+     * unchanged. An address array replaces the addresses: listed IDs are kept and replaced, elements without ID
+     * are added, and unlisted addresses are removed.
+     *
+     * With an {@code If-Match} header the patch is applied only if the student has not changed since.
+     *
+     * @param patch   the merge patch document
+     * @param id      the student ID
+     * @param ifMatch the ETags the student must match, optional
+     * @return the patched student DTO with its new ETag, 400 if the patch is invalid, 404 if not found
+     * or 412 if the student changed
+     */
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<StudentDTO> patchStudent(@RequestBody JsonNode patch, @PathVariable int id,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                   String ifMatch) {
+        log.info("Patch student by ID : {}", id);
+        var patchedStudentDTO = studentService.patchStudent(id, patch, ETagUtil.parseVersions(ifMatch));
+        log.info("Student patched: {}", patchedStudentDTO);
+        return ResponseEntity.ok()
+                .eTag(ETagUtil.studentETag(patchedStudentDTO.version()))
+                .body(patchedStudentDTO);
     }
 
     /**
@@ -106,4 +353,44 @@ public class StudentController {
         log.info("Student deleted with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Deletes students by ID in bulk, without loading them.
+     * This method is only accessible to users with the "Admin" role.
+     *
+     * @param ids the student IDs, IDs of missing students are ignored
+     * @return the IDs of the students actually deleted
+     */
+    @PreAuthorize("hasAuthority('Admin')")
+    @PostMapping("/bulk/delete")
+    public List<Integer> deleteStudentsByIds(@RequestBody List<Integer> ids) {
+        log.info("Delete {} students in bulk", ids.size());
+        var deleted = studentService.deleteStudents(ids);
+        log.info("Deleted {} students", deleted.size());
+        return deleted;
+    }
+
+    /**
+     * Checks whether the client accepts gzip compressed content, that is lists it without a zero quality value.
+     *
+     * @param acceptEncoding the Accept-Encoding header, may be null
+     * @return true if gzip is accepted
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            var parameters = coding.split(";");
+            if (GZIP.equals(parameters[0].trim().toLowerCase(Locale.ROOT))) {
+                for (int i = 1; i < parameters.length; i++) {
+                    if (parameters[i].replace(" ", "").matches("q=0(\\.0{0,3})?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,24 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.List;
+
+/**
+ * Response of a bulk create request.
+ *
+ * @param created the number of students created
+ * @param failed  the number of students that failed
+ * @param items   the outcome of each student, in request order
+ */
+public record BulkCreateResponse(int created, int failed, List<BulkItemResult> items) {
+
+    /**
+     * Creates the response from the outcome of each student.
+     *
+     * @param items the outcome of each student, in request order
+     * @return the response
+     */
+    public static BulkCreateResponse of(List<BulkItemResult> items) {
+        int created = (int) items.stream().filter(item -> item.status() == BulkItemResult.Status.CREATED).count();
+        return new BulkCreateResponse(created, items.size() - created, items);
+    }
+}
@@ -0,0 +1,18 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.List;
+
+/**
+ * Response of a student import.
+ *
+ * @param lines          the number of lines read, skipped lines excluded
+ * @param created        the number of students created
+ * @param failed         the number of lines that failed
+ * @param committedLines the number of lines of the file, skipped lines included, whose outcome is committed;
+ *                       pass it as {@code skip} to resume an import that did not complete
+ * @param completed      whether the whole file was imported, false if the import stopped at the error cap
+ * @param errors         the outcome of the first failed lines, by line number, up to the configured maximum
+ */
+public record BulkImportResponse(int lines, int created, int failed, int committedLines, boolean completed,
+                                 List<BulkItemResult> errors) {
+}
@@ -0,0 +1,42 @@
+package com.fmd.spring_jpa_demo.dto;
+
+/**
+ * Outcome of one student of a bulk create request or of a student import.
+ *
+ * @param index  the position of the student in the request, or its line number in an import
+ * @param id     the ID of the created student, null if it failed
+ * @param status whether the student was created
+ * @param error  the reason of the failure, null if it was created
+ */
+public record BulkItemResult(int index, Integer id, Status status, String error) {
+
+    /**
+     * Status of a bulk item.
+     */
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    /**
+     * Creates the result of a created student.
+     *
+     * @param index the position of the student in the request
+     * @param id    the ID of the created student
+     * @return the result
+     */
+    public static BulkItemResult created(int index, int id) {
+        return new BulkItemResult(index, id, Status.CREATED, null);
+    }
+
+    /**
+     * Creates the result of a failed student.
+     *
+     * @param index the position of the student in the request, or its line number in an import
+     * @param error the reason of the failure
+     * @return the result
+     */
+    public static BulkItemResult failed(int index, String error) {
+        return new BulkItemResult(index, null, Status.FAILED, error);
+    }
+}
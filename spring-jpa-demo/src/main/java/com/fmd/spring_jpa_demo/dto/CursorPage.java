@@ -0,0 +1,15 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.List;
+
+/**
+ * A page of results of a keyset (cursor) paginated listing.
+ *
+ * @param content    the results of the page
+ * @param size       the number of results in the page
+ * @param hasNext    whether more results follow
+ * @param nextCursor the opaque cursor to request the next page with, null on the last page
+ * @param <T>        the type of the results
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+}
@@ -0,0 +1,35 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats of the student export.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+
+    /**
+     * Newline delimited JSON, one student with its addresses per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+
+    /**
+     * Comma separated values (RFC 4180) with a header line, one line per address, or per student without address.
+     */
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    /**
+     * Media type of the exported content.
+     */
+    private final MediaType mediaType;
+
+    /**
+     * File name extension of the exported content.
+     */
+    private final String extension;
+}
@@ -0,0 +1,73 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.exception.InvalidPageRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of the last row of a keyset paginated page, exchanged with clients as an opaque cursor.
+ * <p>
+ * The cursor is the Base64url encoded JSON of this record. It carries the sort property and direction it was
+ * issued for, and the fingerprint of the search criteria, so it cannot be replayed against a different ordering or
+ * search. Date keys are encoded as epoch milliseconds.
+ *
+ * @param sortBy    the sort property
+ * @param direction the sort direction
+ * @param key       the sort key of the last row, as a String, number or epoch milliseconds
+ * @param id        the ID of the last row, the tie-breaker for equal sort keys
+ * @param criteria  the fingerprint of the search criteria, see {@link StudentSearchCriteria#fingerprint()}, null
+ *                  without criteria
+ */
+public record KeysetCursor(String sortBy, Sort.Direction direction, Object key, int id, String criteria) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Creates a cursor, converting Date keys to epoch milliseconds.
+     *
+     * @param sortBy    the sort property
+     * @param direction the sort direction
+     * @param key       the sort key of the last row
+     * @param id        the ID of the last row
+     * @param criteria  the fingerprint of the search criteria, null without criteria
+     */
+    public KeysetCursor {
+        key = key instanceof Date date ? date.getTime() : key;
+    }
+
+    /**
+     * Encodes the cursor into its opaque form.
+     *
+     * @return the Base64url encoded cursor
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor received from a client.
+     *
+     * @param cursor the Base64url encoded cursor
+     * @return the decoded cursor
+     * @throws InvalidPageRequestException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            var decoded = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KeysetCursor.class);
+            if (decoded.sortBy() == null || decoded.direction() == null || decoded.key() == null) {
+                throw new InvalidPageRequestException("Invalid cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidPageRequestException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.data.domain.Sort;
+
+/**
+ * DTO for keyset (cursor) pagination request parameters.
+ *
+ * @param cursor    the continuation cursor returned with the previous page, null for the first page
+ * @param pageSize  the maximum number of students per page
+ * @param sortBy    the property to sort by, must match the one the cursor was issued for
+ * @param direction the sort direction, must match the one the cursor was issued for
+ */
+public record KeysetPageRequest(
+        String cursor,
+        @Min(value = 1, message = "Page size must be at least 1")
+        @Max(value = 1000, message = "Page size must be at most 1000")
+        Integer pageSize,
+        String sortBy,
+        Sort.Direction direction
+) {
+    /**
+     * Applies the default values for missing parameters.
+     */
+    public KeysetPageRequest {
+        pageSize = pageSize == null ? 10 : pageSize;
+        sortBy = sortBy == null ? "id" : sortBy;
+        direction = direction == null ? Sort.Direction.ASC : direction;
+    }
+}
@@ -0,0 +1,38 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of a student joined with one of its addresses, one row per address.
+ * <p>
+ * Selected with a JPQL constructor expression, so no managed entity is created for it.
+ * The address columns are null for a student without addresses.
+ *
+ * @param studentId         the student ID
+ * @param firstName         the first name of the student
+ * @param lastName          the last name of the student
+ * @param studentCreatedAt  the creation timestamp of the student
+ * @param studentModifiedAt the last modification timestamp of the student
+ * @param studentVersion    the version of the student
+ * @param addressId         the address ID, null if the student has no address
+ * @param area              the area of the address
+ * @param city              the city of the address
+ * @param zipcode           the zipcode of the address
+ * @param addressCreatedAt  the creation timestamp of the address
+ * @param addressModifiedAt the last modification timestamp of the address
+ */
+public record StudentAddressRow(
+        Integer studentId,
+        String firstName,
+        String lastName,
+        Date studentCreatedAt,
+        Date studentModifiedAt,
+        Long studentVersion,
+        Integer addressId,
+        String area,
+        String city,
+        String zipcode,
+        Date addressCreatedAt,
+        Date addressModifiedAt
+) {
+}
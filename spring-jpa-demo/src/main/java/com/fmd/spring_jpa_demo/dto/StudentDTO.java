@@ -1,6 +1,7 @@
 package com.fmd.spring_jpa_demo.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -30,12 +31,15 @@ public record StudentDTO(
         @JsonProperty("address")
         @NotNull(message = "Address list must not be null")
         @Size(min = 1, message = "At least one address is required")
-        List<@NotNull AddressDTO> addressDTOList,
+        List<@NotNull @Valid AddressDTO> addressDTOList,
 
         @JsonProperty("createdAt")
         Date createdAt,
 
         @JsonProperty("modifiedAt")
-        Date modifiedAt
+        Date modifiedAt,
+
+        @JsonProperty("version")
+        long version
 ) {
 }
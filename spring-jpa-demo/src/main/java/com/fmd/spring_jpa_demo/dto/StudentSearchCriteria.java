@@ -0,0 +1,54 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import jakarta.validation.constraints.Size;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * DTO for student search criteria. Each given criterion is a case-sensitive prefix, and all given criteria must
+ * match. City and zipcode must match the same address of the student.
+ *
+ * @param firstName the prefix of the first name, null to match any
+ * @param lastName  the prefix of the last name, null to match any
+ * @param city      the prefix of the city of an address, null to match any
+ * @param zipcode   the prefix of the zipcode of an address, null to match any
+ */
+public record StudentSearchCriteria(
+        @Size(max = 100, message = "First name must be at most 100 characters")
+        String firstName,
+        @Size(max = 100, message = "Last name must be at most 100 characters")
+        String lastName,
+        @Size(max = 100, message = "City must be at most 100 characters")
+        String city,
+        @Size(max = 20, message = "Zipcode must be at most 20 characters")
+        String zipcode
+) {
+
+    /**
+     * Computes a fingerprint of the criteria, carried by search cursors so that they are only accepted with the
+     * criteria they were issued for. Blank criteria are ignored, as by the search.
+     *
+     * @return the Base64url encoded SHA-256 hash of the criteria, or null if all criteria are blank
+     */
+    public String fingerprint() {
+        if (!StringUtils.hasText(firstName) && !StringUtils.hasText(lastName)
+                && !StringUtils.hasText(city) && !StringUtils.hasText(zipcode)) {
+            return null;
+        }
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (String criterion : new String[]{firstName, lastName, city, zipcode}) {
+                // Length prefixed, so that no two different criteria hash the same input
+                var value = StringUtils.hasText(criterion) ? criterion : "";
+                digest.update((value.length() + ":" + value).getBytes(StandardCharsets.UTF_8));
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
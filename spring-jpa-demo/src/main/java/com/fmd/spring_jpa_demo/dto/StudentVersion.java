@@ -0,0 +1,14 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.Date;
+
+/**
+ * Read-only projection of the identity and last modification of a student, used to validate cached responses
+ * without loading the student or its addresses.
+ *
+ * @param id         the student ID
+ * @param version    the version of the student, incremented on any change of its addresses too
+ * @param modifiedAt the last modification timestamp of the student
+ */
+public record StudentVersion(int id, long version, Date modifiedAt) {
+}
@@ -1,22 +1,71 @@
 package com.fmd.spring_jpa_demo.dto.mapper;
 
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentAddressRow;
 import com.fmd.spring_jpa_demo.dto.StudentDTO;
 import com.fmd.spring_jpa_demo.entity.Student;
+import org.mapstruct.AfterMapping;
+import org.mapstruct.Builder;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = AddressMapper.class)
+// Mapping through setters rather than the Lombok builder, so that the addresses are linked after mapping
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, uses = AddressMapper.class,
+        builder = @Builder(disableBuilder = true))
 public interface StudentMapper {
 
     @Mapping(source = "addressDTOList", target = "addressList")
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "modifiedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Student toEntity(StudentDTO studentDTO);
 
     @Mapping(source = "addressList", target = "addressDTOList")
     StudentDTO toDTO(Student student);
 
     List<StudentDTO> toDTO(List<Student> studentList);
+
+    /**
+     * Links the mapped addresses back to their student, as the owning side of the relationship sets the foreign key.
+     *
+     * @param student the mapped student
+     */
+    @AfterMapping
+    default void linkAddresses(@MappingTarget Student student) {
+        if (student.getAddressList() != null) {
+            student.getAddressList().forEach(address -> address.setStudent(student));
+        }
+    }
+
+    /**
+     * Assembles student DTOs from projection rows of students joined with their addresses.
+     *
+     * @param rows the rows, grouped by student
+     * @return the student DTOs in the order of the rows, by student ID
+     */
+    default Map<Integer, StudentDTO> fromRows(List<StudentAddressRow> rows) {
+        Map<Integer, List<AddressDTO>> addressesByStudent = new LinkedHashMap<>();
+        Map<Integer, StudentAddressRow> firstRowByStudent = new LinkedHashMap<>();
+        for (StudentAddressRow row : rows) {
+            firstRowByStudent.putIfAbsent(row.studentId(), row);
+            var addresses = addressesByStudent.computeIfAbsent(row.studentId(), id -> new ArrayList<>());
+            if (row.addressId() != null) {
+                addresses.add(new AddressDTO(row.addressId(), row.area(), row.city(), row.zipcode(),
+                        row.addressCreatedAt(), row.addressModifiedAt()));
+            }
+        }
+        Map<Integer, StudentDTO> students = new LinkedHashMap<>();
+        firstRowByStudent.forEach((id, row) -> students.put(id, new StudentDTO(id, row.firstName(), row.lastName(),
+                addressesByStudent.get(id), row.studentCreatedAt(), row.studentModifiedAt(), row.studentVersion())));
+        return students;
+    }
     List<Student> toEntity(List<StudentDTO> studentDTOList);
 }
@@ -2,6 +2,8 @@ package com.fmd.spring_jpa_demo.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 /**
@@ -15,9 +17,22 @@ import org.hibernate.annotations.DynamicUpdate;
 @Entity
 @DynamicUpdate
 @Builder
-@Table(name = "address")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Address.CACHE_REGION)
+@Table(name = "address", indexes = {
+        // Foreign key index, for loading and deleting the addresses of a student
+        @Index(name = "idx_address_student_id", columnList = "student_id"),
+        // Prefix search on city and zipcode, resolving the matching students from the index alone
+        @Index(name = "idx_address_city_student_id", columnList = "city, student_id"),
+        @Index(name = "idx_address_zipcode_student_id", columnList = "zipcode, student_id")
+})
 public class Address extends Base {
 
+    /**
+     * Second-level cache region of addresses.
+     */
+    public static final String CACHE_REGION = "address";
+
     /**
      * The area of the address.
      */
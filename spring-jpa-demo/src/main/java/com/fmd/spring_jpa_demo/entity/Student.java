@@ -3,6 +3,8 @@ package com.fmd.spring_jpa_demo.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 
 import java.util.List;
@@ -19,9 +21,32 @@ import java.util.List;
 @DynamicUpdate
 @Builder
 @Slf4j
-@Table(name = "student")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Student.CACHE_REGION)
+@Table(name = "student", indexes = {
+        // Composite indexes backing keyset pagination on each supported sort property, and name prefix search
+        @Index(name = "idx_student_first_name_id", columnList = "first_name, id"),
+        @Index(name = "idx_student_last_name_id", columnList = "last_name, id"),
+        @Index(name = "idx_student_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_student_modified_at_id", columnList = "modified_at, id")
+})
 public class Student extends Base {
 
+    /**
+     * Second-level cache region of students.
+     */
+    public static final String CACHE_REGION = "student";
+
+    /**
+     * Second-level cache region of the address IDs of each student.
+     */
+    public static final String ADDRESSES_CACHE_REGION = "student.addresses";
+
+    /**
+     * Role of the address collection, identifying it in the second-level cache.
+     */
+    public static final String ADDRESSES_ROLE = "com.fmd.spring_jpa_demo.entity.Student.addressList";
+
     /**
      * The first name of the student.
      */
@@ -35,6 +60,7 @@ public class Student extends Base {
      * List of addresses associated with the student.
      */
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER, mappedBy = "student", orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ADDRESSES_CACHE_REGION)
     private List<Address> addressList;
 
     /**
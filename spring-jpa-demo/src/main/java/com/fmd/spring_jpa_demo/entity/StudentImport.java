@@ -0,0 +1,55 @@
+package com.fmd.spring_jpa_demo.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Entity recording the progress of a student import identified by the client, so an interrupted upload can be
+ * resumed without creating its students twice.
+ * <p>
+ * The committed lines are advanced in the same transaction as the students of each chunk, so they always match
+ * the students actually created.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Builder
+@Table(name = "student_import")
+public class StudentImport {
+
+    /**
+     * The import ID chosen by the client.
+     */
+    @Id
+    @Column(name = "id", nullable = false, length = 64)
+    private String id;
+
+    /**
+     * The number of lines of the document whose outcome is committed.
+     */
+    @Column(name = "committed_lines", nullable = false)
+    private int committedLines;
+
+    /**
+     * Whether the whole document was imported.
+     */
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    /**
+     * The creation timestamp.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    /**
+     * The timestamp of the last committed progress.
+     */
+    @Column(name = "modified_at", nullable = false)
+    private Date modifiedAt;
+}
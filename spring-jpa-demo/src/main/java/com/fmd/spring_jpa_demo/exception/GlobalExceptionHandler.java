@@ -1,7 +1,11 @@
 package com.fmd.spring_jpa_demo.exception;
 
+import com.fmd.spring_jpa_demo.filter.RequestBodyTooLargeException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.validation.FieldError;
@@ -57,6 +61,26 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, BAD_REQUEST);
     }
 
+    /**
+     * Handles constraint violations raised by programmatic validation and returns a 400 error response with
+     * property error details.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 400 status
+     */
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ApiError> handleConstraintViolation(ConstraintViolationException ex, WebRequest request) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<?> violation : ex.getConstraintViolations()) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        String message = "Validation failed: " + errors;
+        log.warn("Validation error: {} | Path: {}", message, request.getDescription(false));
+        ApiError error = new ApiError(BAD_REQUEST, message, request.getDescription(false));
+        return new ResponseEntity<>(error, BAD_REQUEST);
+    }
+
     /**
      * Handles StudentNotFoundException and returns a 404 error response with a custom message.
      *
@@ -71,6 +95,79 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, NOT_FOUND);
     }
 
+    /**
+     * Handles InvalidPageRequestException and returns a 400 error response with a custom message.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 400 status
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidPageRequest(InvalidPageRequestException ex, WebRequest request) {
+        log.warn("Invalid page request: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(BAD_REQUEST, ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(error, BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidPatchException and returns a 400 error response with a custom message.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 400 status
+     */
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<ApiError> handleInvalidPatch(InvalidPatchException ex, WebRequest request) {
+        log.warn("Invalid patch: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(BAD_REQUEST, ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(error, BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidImportRequestException and returns a 400 error response with a custom message.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 400 status
+     */
+    @ExceptionHandler(InvalidImportRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidImportRequest(InvalidImportRequestException ex, WebRequest request) {
+        log.warn("Invalid import request: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(BAD_REQUEST, ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(error, BAD_REQUEST);
+    }
+
+    /**
+     * Handles PreconditionFailedException, raised when a conditional update does not match the current version,
+     * and returns a 412 error response.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 412 status
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex, WebRequest request) {
+        log.warn("Precondition failed: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(PRECONDITION_FAILED, ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(error, PRECONDITION_FAILED);
+    }
+
+    /**
+     * Handles OptimisticLockingFailureException, raised when an entity changed concurrently between its read and its
+     * update, and returns a 409 error response.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 409 status
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        log.warn("Concurrent modification: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(CONFLICT, "The resource was modified concurrently, retry with its current version",
+                request.getDescription(false));
+        return new ResponseEntity<>(error, CONFLICT);
+    }
+
     /**
      * Handles AuthorizationDeniedException and returns a 403 error response with a custom message.
      *
@@ -85,6 +182,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, FORBIDDEN);
     }
 
+    /**
+     * Handles RequestBodyTooLargeException, raised while a body sanitized as it is read exceeds the maximum size,
+     * and returns a 413 error response.
+     *
+     * @param ex      the exception
+     * @param request the web request
+     * @return ResponseEntity with ApiError and 413 status
+     */
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    public ResponseEntity<ApiError> handleRequestBodyTooLarge(RequestBodyTooLargeException ex, WebRequest request) {
+        log.warn("Request body too large: {} | Path: {}", ex.getMessage(), request.getDescription(false));
+        ApiError error = new ApiError(PAYLOAD_TOO_LARGE, ex.getMessage(), request.getDescription(false));
+        return new ResponseEntity<>(error, PAYLOAD_TOO_LARGE);
+    }
+
     /**
      * Handles all other exceptions and returns a 500 error response.
      *
@@ -0,0 +1,10 @@
+package com.fmd.spring_jpa_demo.exception;
+
+import lombok.experimental.StandardException;
+
+/**
+ * Exception thrown when the parameters of a student import are invalid.
+ */
+@StandardException
+public class InvalidImportRequestException extends RuntimeException {
+}
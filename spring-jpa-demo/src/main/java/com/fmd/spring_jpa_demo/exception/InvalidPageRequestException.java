@@ -0,0 +1,10 @@
+package com.fmd.spring_jpa_demo.exception;
+
+import lombok.experimental.StandardException;
+
+/**
+ * Exception thrown when a listing request has an unsupported sort property or an invalid continuation cursor.
+ */
+@StandardException
+public class InvalidPageRequestException extends RuntimeException {
+}
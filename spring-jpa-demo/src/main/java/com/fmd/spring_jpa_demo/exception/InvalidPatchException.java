@@ -0,0 +1,10 @@
+package com.fmd.spring_jpa_demo.exception;
+
+import lombok.experimental.StandardException;
+
+/**
+ * Exception thrown when a merge patch document is malformed or changes a member that cannot be patched.
+ */
+@StandardException
+public class InvalidPatchException extends RuntimeException {
+}
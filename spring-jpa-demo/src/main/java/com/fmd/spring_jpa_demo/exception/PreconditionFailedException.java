@@ -0,0 +1,10 @@
+package com.fmd.spring_jpa_demo.exception;
+
+import lombok.experimental.StandardException;
+
+/**
+ * Exception thrown when a conditional update does not match the current version of the student.
+ */
+@StandardException
+public class PreconditionFailedException extends RuntimeException {
+}
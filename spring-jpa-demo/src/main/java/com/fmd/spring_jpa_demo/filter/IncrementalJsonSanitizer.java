@@ -0,0 +1,221 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.copySanitizedToken;
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.createGenerator;
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.createNonBlockingParser;
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.mayContainControlCharacters;
+
+/**
+ * Sanitizes a JSON body fed in chunks as they arrive, using Jackson's non-blocking parser.
+ * <p>
+ * Sanitization semantics are the same as {@link com.fmd.spring_jpa_demo.util.SanitizerUtil#sanitizeJson(byte[])}:
+ * a body without escape sequences or DEL characters is never parsed, and a malformed body is returned unchanged.
+ * Parsing starts with the first chunk that may need sanitizing, so no chunk is ever waited on and the body is
+ * sanitized by the time its last chunk has been fed. The raw body is kept for the fallback. Both the raw and the
+ * sanitized body are held in {@link SpillableBuffer}s, so at most twice the in-memory threshold is held in memory
+ * and larger bodies are spilled to temporary files, deleted when the sanitizer is closed.
+ * </p>
+ * <p>
+ * Not thread-safe, chunks must be fed by one thread at a time as guaranteed by the servlet read callbacks.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+class IncrementalJsonSanitizer implements Closeable {
+
+    /**
+     * Size of the chunks in which a spilled raw body is fed to the parser.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    private final long inMemoryThreshold;
+    private final long maxSize;
+    private final SpillableBuffer raw;
+    private SpillableBuffer sanitized;
+    private JsonParser parser;
+    private JsonGenerator generator;
+    private int depth;
+    private boolean rootComplete;
+    private boolean failed;
+
+    /**
+     * Creates a sanitizer for a single body.
+     *
+     * @param inMemoryThreshold maximum size in bytes of each copy of the body kept in memory
+     * @param maxSize           maximum accepted body size in bytes
+     */
+    IncrementalJsonSanitizer(long inMemoryThreshold, long maxSize) {
+        this.inMemoryThreshold = inMemoryThreshold;
+        this.maxSize = maxSize;
+        this.raw = new SpillableBuffer(inMemoryThreshold);
+    }
+
+    /**
+     * Feeds the next chunk of the body, sanitizing every complete token it holds.
+     *
+     * @param chunk  the buffer holding the chunk, it may be reused once this method returns
+     * @param offset the index of the first byte of the chunk
+     * @param length the number of bytes in the chunk
+     * @throws RequestBodyTooLargeException if the body exceeds the maximum size
+     * @throws IOException                  if a spilled body cannot be written or read
+     */
+    void feed(byte[] chunk, int offset, int length) throws IOException {
+        if (raw.size() + (long) length > maxSize) {
+            throw new RequestBodyTooLargeException("Request body exceeds the maximum size of " + maxSize + " bytes");
+        }
+        raw.write(chunk, offset, length);
+        if (failed || rootComplete) {
+            return;
+        }
+        if (parser == null) {
+            if (!mayContainControlCharacters(chunk, offset, length)) {
+                return;
+            }
+            // First chunk that may need sanitizing, start parsing from the beginning of the body
+            start();
+            if (parser == null) {
+                return;
+            }
+            feedRaw();
+        } else {
+            feedParser(chunk, offset, length);
+        }
+    }
+
+    /**
+     * Completes the body once its last chunk has been fed.
+     *
+     * @return the sanitized body, or the raw body if nothing needed sanitizing or the body is not valid JSON,
+     * owned by this sanitizer
+     */
+    SpillableBuffer finish() {
+        if (parser == null || failed) {
+            return raw();
+        }
+        if (!rootComplete) {
+            try {
+                ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).endOfInput();
+                drain();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+        if (failed || !rootComplete) {
+            log.trace("Incomplete JSON body. Returning original JSON.");
+            return raw();
+        }
+        try {
+            generator.close();
+            parser.close();
+        } catch (IOException e) {
+            fail(e);
+            return raw();
+        }
+        log.trace("Sanitized request body of {} bytes as it arrived", raw.size());
+        // The raw body is no longer needed for the fallback
+        raw.close();
+        return sanitized;
+    }
+
+    /**
+     * Returns the raw body, releasing the sanitized one.
+     *
+     * @return the raw body
+     */
+    private SpillableBuffer raw() {
+        if (sanitized != null) {
+            sanitized.close();
+        }
+        return raw;
+    }
+
+    /**
+     * Deletes the temporary files of spilled bodies.
+     */
+    @Override
+    public void close() {
+        raw.close();
+        if (sanitized != null) {
+            sanitized.close();
+        }
+    }
+
+    /**
+     * Creates the parser and generator when the body turns out to need sanitizing.
+     */
+    private void start() {
+        try {
+            this.sanitized = new SpillableBuffer(inMemoryThreshold);
+            this.parser = createNonBlockingParser();
+            this.generator = createGenerator(sanitized.outputStream());
+        } catch (IOException e) {
+            this.parser = null;
+            fail(e);
+        }
+    }
+
+    /**
+     * Replays the raw body fed so far to the parser, in chunks if it was spilled to disk.
+     *
+     * @throws IOException if a spilled body cannot be read
+     */
+    private void feedRaw() throws IOException {
+        try (var input = raw.openInputStream()) {
+            var chunk = new byte[CHUNK_SIZE];
+            int read;
+            while (!failed && !rootComplete && (read = input.read(chunk)) != -1) {
+                feedParser(chunk, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Hands bytes to the non-blocking parser and drains the tokens they complete.
+     *
+     * @param buffer the buffer holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     */
+    private void feedParser(byte[] buffer, int offset, int length) {
+        try {
+            ((ByteArrayFeeder) parser.getNonBlockingInputFeeder()).feedInput(buffer, offset, offset + length);
+            drain();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Copies all tokens available so far, stopping after the root value like the blocking sanitizer.
+     * The parser has consumed the whole fed buffer when this returns without completing the root.
+     *
+     * @throws IOException if the input is not valid JSON or writing fails
+     */
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!rootComplete && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            depth = copySanitizedToken(parser, generator, token, depth);
+            rootComplete = depth == 0;
+        }
+    }
+
+    /**
+     * Switches to the fallback of returning the raw body.
+     *
+     * @param e the parsing error
+     */
+    private void fail(IOException e) {
+        log.trace("Failed to parse JSON for sanitization. Returning original JSON. Error: {}", e.getMessage());
+        this.failed = true;
+    }
+}
@@ -0,0 +1,282 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * HttpServletRequestWrapper that sanitizes the JSON request body lazily, as it is read.
+ * <p>
+ * Unlike {@link SanitizedRequestWrapper} nothing is read when the wrapper is created. The body is read and
+ * sanitized by {@link IncrementalJsonSanitizer} on the first access to the input stream, either:
+ * </p>
+ * <ul>
+ *     <li>by blocking reads, as done by Spring MVC before invoking a controller, including async ones returning
+ *     a {@code DeferredResult} or {@code CompletableFuture}, or</li>
+ *     <li>through the Servlet 3.1 {@link ReadListener} contract: each chunk the container signals is sanitized
+ *     as it arrives without blocking the thread, and the listener is notified once the sanitized body is complete.</li>
+ * </ul>
+ * <p>
+ * The sanitized body is released as a whole, so that a malformed body can still be passed on unchanged.
+ * Bodies larger than the maximum size fail with a {@link RequestBodyTooLargeException}, thrown by the blocking
+ * reads or passed to {@link ReadListener#onError(Throwable)}. As with {@link SanitizedRequestWrapper}, bodies larger
+ * than the in-memory threshold are spilled to temporary files, deleted when the wrapper is closed.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+public class NonBlockingSanitizedRequestWrapper extends HttpServletRequestWrapper implements Closeable {
+
+    /**
+     * Size of the chunks read from the original body.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    private final long inMemoryThreshold;
+    private final long maxSize;
+    private SanitizingInputStream inputStream;
+
+    /**
+     * Wraps the request without reading its body.
+     *
+     * @param request           the original HttpServletRequest
+     * @param inMemoryThreshold maximum body size in bytes kept in memory, larger bodies are spilled to disk
+     * @param maxSize           maximum accepted body size in bytes
+     */
+    public NonBlockingSanitizedRequestWrapper(HttpServletRequest request, long inMemoryThreshold, long maxSize) {
+        super(request);
+        this.inMemoryThreshold = inMemoryThreshold;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the length of the sanitized request body once it has been read, which may differ from the original one.
+     *
+     * @return the sanitized body length in bytes, -1 until the body has been read or if too large for an int
+     */
+    @Override
+    public int getContentLength() {
+        long length = getContentLengthLong();
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    /**
+     * Returns the length of the sanitized request body once it has been read, which may differ from the original one.
+     *
+     * @return the sanitized body length in bytes, -1 until the body has been read
+     */
+    @Override
+    public long getContentLengthLong() {
+        return inputStream != null && inputStream.body != null ? inputStream.body.size() : -1;
+    }
+
+    /**
+     * Returns the ServletInputStream sanitizing the request body, the same instance on every call.
+     *
+     * @return ServletInputStream providing the sanitized JSON
+     * @throws IOException if the original body cannot be opened
+     */
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new SanitizingInputStream(super.getInputStream(),
+                    new IncrementalJsonSanitizer(inMemoryThreshold, maxSize));
+        }
+        return inputStream;
+    }
+
+    /**
+     * Returns a BufferedReader for the sanitized request body.
+     *
+     * @return BufferedReader providing the sanitized JSON
+     * @throws IOException if the original body cannot be opened
+     */
+    @Override
+    public BufferedReader getReader() throws IOException {
+        // Provide the sanitized body as a character stream
+        return new BufferedReader(new InputStreamReader(getInputStream(), UTF_8));
+    }
+
+    /**
+     * Deletes the temporary files of a spilled body, once it is no longer read.
+     */
+    @Override
+    public void close() {
+        if (inputStream != null) {
+            inputStream.release();
+        }
+    }
+
+    /**
+     * Input stream reading the original body through the sanitizer, in blocking or non-blocking mode.
+     */
+    private static final class SanitizingInputStream extends ServletInputStream {
+
+        private final ServletInputStream source;
+        private final IncrementalJsonSanitizer sanitizer;
+        private ReadListener readListener;
+        private SpillableBuffer body;
+        private InputStream content;
+        private boolean finished;
+
+        private SanitizingInputStream(ServletInputStream source, IncrementalJsonSanitizer sanitizer) {
+            this.source = source;
+            this.sanitizer = sanitizer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureBody();
+            int b = content.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureBody();
+            int count = content.read(b, off, len);
+            finished = count < 0;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            try {
+                return content == null ? 0 : content.available();
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished || (body != null && !body.isSpilled() && available() == 0);
+        }
+
+        @Override
+        public boolean isReady() {
+            // Blocking reads are always possible, in non-blocking mode data is ready once the body is sanitized
+            return readListener == null || body != null;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (readListener == null) {
+                throw new NullPointerException("ReadListener must not be null");
+            }
+            if (this.readListener != null || body != null) {
+                throw new IllegalStateException("ReadListener already set or body already read");
+            }
+            this.readListener = readListener;
+            source.setReadListener(new SanitizingReadListener());
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+            if (content != null) {
+                content.close();
+            }
+        }
+
+        /**
+         * Closes the sanitized body and deletes its temporary files.
+         */
+        private void release() {
+            try {
+                close();
+            } catch (IOException e) {
+                log.trace("Failed to close request body stream: {}", e.getMessage());
+            }
+            sanitizer.close();
+        }
+
+        /**
+         * Completes the sanitized body and opens it for reading.
+         *
+         * @throws IOException if a spilled body cannot be read
+         */
+        private void complete() throws IOException {
+            body = sanitizer.finish();
+            content = body.openInputStream();
+        }
+
+        /**
+         * Makes sure the sanitized body is available, reading the whole original body in blocking mode.
+         *
+         * @throws IOException if an I/O error occurs while reading the body
+         */
+        private void ensureBody() throws IOException {
+            if (body != null) {
+                return;
+            }
+            if (readListener != null) {
+                // Per the non-blocking contract reading while not ready is illegal
+                throw new IllegalStateException("Request body is not ready, wait for ReadListener.onAllDataRead");
+            }
+            var chunk = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = source.read(chunk)) != -1) {
+                sanitizer.feed(chunk, 0, read);
+            }
+            complete();
+        }
+
+        /**
+         * Container callbacks feeding each chunk to the sanitizer as soon as it arrives.
+         */
+        private final class SanitizingReadListener implements ReadListener {
+
+            private final byte[] chunk = new byte[CHUNK_SIZE];
+            private boolean failed;
+
+            @Override
+            public void onDataAvailable() throws IOException {
+                // Drain what can be read without blocking, the container calls back when more arrives
+                while (!failed && source.isReady()) {
+                    int read = source.read(chunk);
+                    if (read == -1) {
+                        return;
+                    }
+                    try {
+                        sanitizer.feed(chunk, 0, read);
+                    } catch (RequestBodyTooLargeException | IOException e) {
+                        onError(e);
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() throws IOException {
+                if (failed) {
+                    return;
+                }
+                complete();
+                log.trace("Request body of {} bytes sanitized without blocking", body.size());
+                readListener.onDataAvailable();
+                readListener.onAllDataRead();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (!failed) {
+                    failed = true;
+                    readListener.onError(t);
+                }
+            }
+        }
+    }
+}
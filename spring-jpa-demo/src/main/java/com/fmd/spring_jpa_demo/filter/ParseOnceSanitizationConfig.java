@@ -0,0 +1,45 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Web MVC configuration for the parse-once request body sanitization mode.
+ * <p>
+ * Registers {@link SanitizedJsonHttpMessageConverter} ahead of the default converters so request bodies
+ * sanitized by {@link RequestBodySanitizationFilter} are bound from their tokens instead of being parsed again.
+ * To use this mode, enable it in your application properties:
+ * <pre>
+ *     request.body.sanitization.enabled=true
+ *     request.body.sanitization.parse-once=true
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "request.body.sanitization", name = {"enabled", "parse-once"}, havingValue = "true")
+public class ParseOnceSanitizationConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Adds the sanitized JSON converter in front of the configured message converters.
+     *
+     * @param converters the configured message converters
+     */
+    @Override
+    public void extendMessageConverters(@NonNull List<HttpMessageConverter<?>> converters) {
+        log.debug("Registering SanitizedJsonHttpMessageConverter for parse-once request body sanitization");
+        converters.add(0, new SanitizedJsonHttpMessageConverter(objectMapper));
+    }
+}
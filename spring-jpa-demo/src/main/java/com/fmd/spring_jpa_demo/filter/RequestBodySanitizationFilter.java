@@ -1,27 +1,49 @@
 package com.fmd.spring_jpa_demo.filter;
 
+import com.fmd.spring_jpa_demo.exception.ApiError;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+import static com.fmd.spring_jpa_demo.security.ErrorResponseUtil.writeErrorResponse;
+import static jakarta.servlet.http.HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 /**
- * Filter that intercepts incoming HTTP requests with JSON bodies, recursively sanitizes all string values,
- * and passes the sanitized request to the rest of the filter chain. Non-JSON requests are passed through unchanged.
+ * Filter that intercepts incoming HTTP requests with JSON bodies, including {@code +json} media types, recursively
+ * sanitizes all string values, and passes the sanitized request to the rest of the filter chain. Non-JSON requests
+ * are passed through unchanged.
  * <p>
  * This filter is intended to prevent malicious input by sanitizing JSON request bodies before they reach controllers.
  * </p>
+ * <p>
+ * With {@code request.body.sanitization.parse-once=true} sanitized bodies are handed to Spring MVC as tokens,
+ * see {@link ParseOnceSanitizationConfig}.
+ * </p>
+ * <p>
+ * Bodies larger than {@code request.body.sanitization.in-memory-threshold} are sanitized through temporary files,
+ * and bodies larger than {@code request.body.sanitization.max-size} are rejected with 413 Payload Too Large.
+ * </p>
+ * <p>
+ * With {@code request.body.sanitization.non-blocking=true} the body is not read by the filter but sanitized as it
+ * is read downstream, supporting non-blocking reads through a {@code ReadListener},
+ * see {@link NonBlockingSanitizedRequestWrapper}. Parse-once mode does not apply then, spilling to disk does.
+ * </p>
  *
  * @author Shailesh Halor
  */
@@ -31,6 +53,34 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 @ConditionalOnProperty(prefix = "request.body.sanitization", name = "enabled", havingValue = "true")
 public class RequestBodySanitizationFilter extends OncePerRequestFilter {
 
+    /**
+     * Structured syntax suffix of JSON based media types, such as {@code application/merge-patch+json}.
+     */
+    private static final String JSON_SUFFIX = "+json";
+
+    /**
+     * Whether sanitized bodies are kept as tokens for direct binding, see {@link ParseOnceSanitizationConfig}.
+     */
+    @Value("${request.body.sanitization.parse-once:false}")
+    private boolean parseOnce;
+
+    /**
+     * Whether bodies are sanitized lazily as they are read, see {@link NonBlockingSanitizedRequestWrapper}.
+     */
+    @Value("${request.body.sanitization.non-blocking:false}")
+    private boolean nonBlocking;
+
+    /**
+     * Maximum body size kept in memory, larger bodies are spilled to temporary files.
+     */
+    @Value("${request.body.sanitization.in-memory-threshold:256KB}")
+    private DataSize inMemoryThreshold;
+
+    /**
+     * Maximum accepted body size, larger bodies are rejected.
+     */
+    @Value("${request.body.sanitization.max-size:10MB}")
+    private DataSize maxSize;
 
     /**
      * Filters incoming requests, sanitizing JSON request bodies if present.
@@ -51,18 +101,111 @@ public class RequestBodySanitizationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        var contentType = request.getContentType();
-        // Use Spring's StringUtils for null/empty check and case-insensitive contains
-        if (StringUtils.hasText(contentType) && contentType.toLowerCase().contains(APPLICATION_JSON_VALUE)) {
+        if (isJson(request.getContentType())) {
+            // Reject bodies announced as too large before reading anything
+            if (request.getContentLengthLong() > maxSize.toBytes()) {
+                rejectTooLarge(request, response);
+                return;
+            }
+            if (nonBlocking) {
+                log.trace("JSON request detected. Wrapping request body for sanitization as it is read.");
+                // The body is read by downstream code, possibly after this filter returned in async processing
+                var sanitizedRequest = new NonBlockingSanitizedRequestWrapper(request,
+                        inMemoryThreshold.toBytes(), maxSize.toBytes());
+                try {
+                    filterChain.doFilter(sanitizedRequest, response);
+                } finally {
+                    closeOnCompletion(sanitizedRequest);
+                }
+                return;
+            }
             log.trace("JSON request detected. Wrapping and sanitizing request body.");
             // Wrap and sanitize the request body
-            var sanitizedRequest = new SanitizedRequestWrapper(request);
-            // Pass the sanitized request to the next filter in the chain
-            filterChain.doFilter(sanitizedRequest, response);
+            SanitizedRequestWrapper sanitizedRequest;
+            try {
+                sanitizedRequest = new SanitizedRequestWrapper(request, parseOnce,
+                        inMemoryThreshold.toBytes(), maxSize.toBytes());
+            } catch (RequestBodyTooLargeException e) {
+                rejectTooLarge(request, response);
+                return;
+            }
+            try {
+                // Pass the sanitized request to the next filter in the chain
+                filterChain.doFilter(sanitizedRequest, response);
+            } finally {
+                // Delete temporary files of a spilled body
+                sanitizedRequest.close();
+            }
         } else {
             log.trace("Non-JSON request or missing content type. Passing through without sanitization.");
             // Pass non-JSON requests through unchanged
             filterChain.doFilter(request, response);
         }
     }
+
+    /**
+     * Checks whether a content type denotes a JSON body, either {@code application/json} or a structured syntax
+     * suffix such as {@code application/merge-patch+json}.
+     *
+     * @param contentType the content type of the request, may be null
+     * @return true if the body is JSON
+     */
+    private static boolean isJson(String contentType) {
+        // Use Spring's StringUtils for null/empty check and case-insensitive contains
+        if (!StringUtils.hasText(contentType)) {
+            return false;
+        }
+        var lowerCaseContentType = contentType.toLowerCase();
+        return lowerCaseContentType.contains(APPLICATION_JSON_VALUE) || lowerCaseContentType.contains(JSON_SUFFIX);
+    }
+
+    /**
+     * Deletes the temporary files of a lazily sanitized body once the request is complete, which is after the
+     * async processing started by the request if any.
+     *
+     * @param sanitizedRequest the wrapped request
+     */
+    private static void closeOnCompletion(NonBlockingSanitizedRequestWrapper sanitizedRequest) {
+        if (!sanitizedRequest.isAsyncStarted()) {
+            sanitizedRequest.close();
+            return;
+        }
+        sanitizedRequest.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                sanitizedRequest.close();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // Followed by onComplete
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                // Followed by onComplete
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // Keep listening for the completion of the new async cycle
+                event.getAsyncContext().addListener(this);
+            }
+        });
+    }
+
+    /**
+     * Responds with 413 Payload Too Large for a body exceeding the maximum size.
+     *
+     * @param request  the incoming HttpServletRequest
+     * @param response the outgoing HttpServletResponse
+     * @throws IOException if an I/O error occurs while writing the response
+     */
+    private void rejectTooLarge(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.warn("Request body exceeds the maximum size of {}", maxSize);
+        var apiError = new ApiError(PAYLOAD_TOO_LARGE,
+                "Request body exceeds the maximum size of " + maxSize.toBytes() + " bytes",
+                request.getRequestURI());
+        writeErrorResponse(response, SC_REQUEST_ENTITY_TOO_LARGE, apiError);
+    }
 }
@@ -0,0 +1,10 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import lombok.experimental.StandardException;
+
+/**
+ * Exception thrown when a request body exceeds the configured maximum size for sanitization.
+ */
+@StandardException
+public class RequestBodyTooLargeException extends RuntimeException {
+}
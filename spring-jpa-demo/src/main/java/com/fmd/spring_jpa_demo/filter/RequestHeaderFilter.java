@@ -0,0 +1,209 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fmd.spring_jpa_demo.exception.ApiError;
+import com.fmd.spring_jpa_demo.logging.RequestContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.fmd.spring_jpa_demo.security.ErrorResponseUtil.writeErrorResponse;
+import static jakarta.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Filter to log specified request headers into MDC and to validate mandatory request headers, in a single pass.
+ * This filter is ordered with the highest precedence to ensure it runs before other filters.
+ * <p>
+ * Headers listed under {@code request.header.logging.fields} are put into MDC under their configured name for
+ * the duration of the request. Headers listed under {@code request.header.validation.fields} must be present and
+ * not empty, otherwise the filter responds with a 400 Bad Request error. Each part is enabled by its own property.
+ * <p>
+ * Example configuration in application.properties:
+ * <pre>
+ *     request.header.logging.enabled=true
+ *     request.header.logging.fields=X-Request-ID,X-Correlation-ID
+ *     request.header.validation.enabled=true
+ *     request.header.validation.fields=Authorization
+ * </pre>
+ * With {@code request.header.logging.context=scoped} the logged headers are bound in an immutable
+ * {@link RequestContext} for the request instead of being copied into MDC, see {@link RequestContext}.
+ * <p>
+ * Both lists are resolved once at startup into a single array, so each header is read once per request
+ * without any per-request allocation in MDC mode unless mandatory headers are missing.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnExpression("${request.header.logging.enabled:false} or ${request.header.validation.enabled:false}")
+public class RequestHeaderFilter extends OncePerRequestFilter {
+
+    /**
+     * Configured headers, mandatory ones first in their configured order, then the ones only logged.
+     */
+    private final HeaderField[] fields;
+
+    /**
+     * Names of the headers put into MDC, removed again after each request.
+     */
+    private final String[] loggedHeaders;
+
+    /**
+     * Whether logged headers are bound in a {@link RequestContext} instead of MDC.
+     */
+    private final boolean scopedContext;
+
+    /**
+     * Resolves the configured header lists into the precomputed header fields.
+     *
+     * @param loggingEnabled    whether headers are logged into MDC
+     * @param loggedHeaders     header fields to log, example: request.header.logging.fields=X-Request-ID
+     * @param validationEnabled whether mandatory headers are validated
+     * @param mandatoryHeaders  header fields to validate, example: request.header.validation.fields=Authorization
+     * @param context           where logged headers are bound, {@code mdc} or {@code scoped}
+     */
+    public RequestHeaderFilter(@Value("${request.header.logging.enabled:false}") boolean loggingEnabled,
+                               @Value("${request.header.logging.fields:}") List<String> loggedHeaders,
+                               @Value("${request.header.validation.enabled:false}") boolean validationEnabled,
+                               @Value("${request.header.validation.fields:}") List<String> mandatoryHeaders,
+                               @Value("${request.header.logging.context:mdc}") String context) {
+        List<HeaderField> resolved = new ArrayList<>();
+        if (validationEnabled) {
+            addFields(resolved, mandatoryHeaders, false, true);
+            if (resolved.isEmpty()) {
+                log.warn("No mandatory header fields configured for validation. Skipping header validation.");
+            }
+        }
+        if (loggingEnabled) {
+            addFields(resolved, loggedHeaders, true, false);
+            if (resolved.stream().noneMatch(HeaderField::logged)) {
+                log.warn("No headers configured for logging. Skipping header logging.");
+            }
+        }
+        this.scopedContext = "scoped".equalsIgnoreCase(context);
+        this.fields = resolved.toArray(HeaderField[]::new);
+        this.loggedHeaders = resolved.stream().filter(HeaderField::logged).map(HeaderField::name).toArray(String[]::new);
+        log.debug("Request header fields resolved: {}, bound in {} context", resolved, scopedContext ? "scoped" : "MDC");
+    }
+
+    /**
+     * Adds the configured headers to the resolved fields, merging a header configured in both lists.
+     *
+     * @param resolved  the fields resolved so far
+     * @param headers   the configured header names, may contain blank entries
+     * @param logged    whether the headers are logged into MDC
+     * @param mandatory whether the headers are mandatory
+     */
+    private static void addFields(List<HeaderField> resolved, List<String> headers, boolean logged, boolean mandatory) {
+        if (headers == null) {
+            return;
+        }
+        nextHeader:
+        for (String header : headers) {
+            if (!StringUtils.hasText(header)) {
+                continue;
+            }
+            for (int i = 0; i < resolved.size(); i++) {
+                var field = resolved.get(i);
+                if (field.name().equals(header)) {
+                    resolved.set(i, new HeaderField(header, field.logged() || logged, field.mandatory() || mandatory));
+                    continue nextHeader;
+                }
+            }
+            resolved.add(new HeaderField(header, logged, mandatory));
+        }
+    }
+
+    /**
+     * Reads each configured header once, putting logged ones into MDC and collecting missing mandatory ones.
+     * Responds with 400 Bad Request if any mandatory header is missing, MDC or the request context is cleaned up
+     * in both cases.
+     *
+     * @param request     the current HTTP request
+     * @param response    the current HTTP response
+     * @param filterChain the filter chain to continue processing the request
+     * @throws ServletException if an error occurs during filtering
+     * @throws IOException      if an I/O error occurs during filtering
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        Map<String, String> contextHeaders = scopedContext ? new HashMap<>() : null;
+        RequestContext.Scope scope = null;
+        try {
+            List<String> missingHeaders = null;
+            for (HeaderField field : fields) {
+                var value = request.getHeader(field.name());
+                if (StringUtils.hasText(value)) {
+                    if (field.logged() && contextHeaders != null) {
+                        contextHeaders.put(field.name(), value);
+                    } else if (field.logged()) {
+                        MDC.put(field.name(), value);
+                    }
+                } else if (field.mandatory()) {
+                    // Collect the missing mandatory header, the list is only allocated for invalid requests
+                    if (missingHeaders == null) {
+                        missingHeaders = new ArrayList<>(fields.length);
+                    }
+                    missingHeaders.add(field.name());
+                } else {
+                    log.debug("Header '{}' is not present in the request.", field.name());
+                }
+            }
+
+            if (contextHeaders != null) {
+                // Bind the logged headers for the rest of the request, including the error response below
+                scope = RequestContext.open(new RequestContext(contextHeaders, null));
+            }
+
+            // If any mandatory header is missing, log the error and send a 400 Bad Request response
+            if (missingHeaders != null) {
+                log.warn("Missing mandatory headers: {}", missingHeaders);
+                var errorMessage = "Missing mandatory headers: " + String.join(", ", missingHeaders);
+                ApiError apiError = new ApiError(BAD_REQUEST, errorMessage, request.getRequestURI());
+                writeErrorResponse(response, SC_BAD_REQUEST, apiError);
+                return;
+            }
+
+            filterChain.doFilter(request, response);
+        } finally {
+            if (scope != null) {
+                scope.close();
+            } else {
+                for (String header : loggedHeaders) {
+                    MDC.remove(header);
+                }
+            }
+        }
+    }
+
+    /**
+     * A configured header with the roles it was configured for.
+     *
+     * @param name      the header name, also used as the MDC key
+     * @param logged    whether the header is put into MDC
+     * @param mandatory whether the header must be present and not empty
+     */
+    private record HeaderField(String name, boolean logged, boolean mandatory) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import static com.fmd.spring_jpa_demo.filter.SanitizedRequestWrapper.SANITIZED_TOKENS_ATTRIBUTE;
+
+/**
+ * HttpMessageConverter binding request bodies from the tokens produced by {@link RequestBodySanitizationFilter}.
+ * <p>
+ * In parse-once mode the sanitization filter keeps a sanitized body as a Jackson {@link TokenBuffer}.
+ * This converter binds those tokens directly to the target type, so every JSON body is parsed exactly once.
+ * It only takes part in reading requests that carry sanitized tokens; all other requests, and all responses,
+ * are handled by the regular converters.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+public class SanitizedJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    /**
+     * Creates the converter using the application ObjectMapper for binding.
+     *
+     * @param objectMapper the application ObjectMapper
+     */
+    public SanitizedJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public boolean canRead(@NonNull Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return type != String.class && currentTokens() != null && super.canRead(type, contextClass, mediaType);
+    }
+
+    @Override
+    public boolean canRead(@NonNull Class<?> clazz, @Nullable MediaType mediaType) {
+        return clazz != String.class && currentTokens() != null && super.canRead(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@NonNull Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, @NonNull Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @NonNull
+    @Override
+    public Object read(@NonNull Type type, @Nullable Class<?> contextClass, @NonNull HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        var tokens = currentTokens();
+        if (tokens == null) {
+            return super.read(type, contextClass, inputMessage);
+        }
+        log.trace("Binding sanitized request tokens to [{}]", type);
+        var javaType = getJavaType(type, contextClass);
+        try (JsonParser parser = tokens.asParser()) {
+            return getObjectMapper().readerFor(javaType).readValue(parser);
+        } catch (InvalidDefinitionException ex) {
+            throw new HttpMessageConversionException("Type definition error: " + ex.getType(), ex);
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @NonNull
+    @Override
+    protected Object readInternal(@NonNull Class<?> clazz, @NonNull HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return read(clazz, null, inputMessage);
+    }
+
+    /**
+     * Returns the sanitized tokens of the current request, if any.
+     *
+     * @return the sanitized tokens or null
+     */
+    private static TokenBuffer currentTokens() {
+        var attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return attributes.getAttribute(SANITIZED_TOKENS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                instanceof TokenBuffer tokens ? tokens : null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.fmd.spring_jpa_demo.filter;
 
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,11 +9,18 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.stream.Collectors;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.mayContainControlCharacters;
 import static com.fmd.spring_jpa_demo.util.SanitizerUtil.sanitizeJson;
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.sanitizeJsonToTokens;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
@@ -21,52 +29,250 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * This wrapper reads the original request body, sanitizes all string values in the JSON,
  * and provides the sanitized body to downstream filters and controllers.
  * </p>
+ * <p>
+ * Bodies up to the in-memory threshold are kept in a single buffer. Larger bodies are spilled to a temporary
+ * file and sanitized as a stream into a second one, so the memory used per request stays bounded by the
+ * threshold. Bodies larger than the maximum size are rejected with a {@link RequestBodyTooLargeException}.
+ * Temporary files are deleted when the wrapper is closed.
+ * </p>
+ * <p>
+ * In parse-once mode an in-memory body that needs sanitizing is kept as the sanitized Jackson tokens and exposed
+ * under {@link #SANITIZED_TOKENS_ATTRIBUTE}, so {@link SanitizedJsonHttpMessageConverter} can bind them
+ * without parsing the body a second time. The JSON bytes are then only produced if the body stream is read.
+ * </p>
  *
  * @author Shailesh Halor
  */
 @Slf4j
-public class SanitizedRequestWrapper extends HttpServletRequestWrapper {
-    private final String sanitizedBody;
+public class SanitizedRequestWrapper extends HttpServletRequestWrapper implements Closeable {
+
+    /**
+     * Request attribute holding the sanitized {@link TokenBuffer} in parse-once mode.
+     */
+    public static final String SANITIZED_TOKENS_ATTRIBUTE = SanitizedRequestWrapper.class.getName() + ".SANITIZED_TOKENS";
+
+    /**
+     * Size of the chunks used to copy a spilled body to disk.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Temporary files created for a spilled body, deleted on close.
+     */
+    private final List<Path> temporaryFiles = new ArrayList<>(2);
+
+    /**
+     * Sanitized body bytes, null when the body is held as tokens or in a file.
+     */
+    private byte[] sanitizedBody;
+
+    /**
+     * Sanitized body tokens, null unless in parse-once mode and an in-memory body needed sanitizing.
+     */
+    private TokenBuffer sanitizedTokens;
+
+    /**
+     * File holding the sanitized body, null unless the body exceeded the in-memory threshold.
+     */
+    private Path sanitizedFile;
 
     /**
      * Reads and sanitizes the JSON request body.
      *
-     * <p>The constructor reads the request body as a string, sanitizes all string fields in the JSON,
-     * and stores the sanitized result for future use.</p>
+     * <p>The constructor reads the raw request body bytes, sanitizes all string fields in the JSON
+     * by streaming its tokens, and stores the sanitized result for future use. A body that needs no
+     * sanitizing is kept as the single buffer or file it was read into.</p>
      *
-     * @param request the original HttpServletRequest
-     * @throws IOException if an I/O error occurs while reading the body
+     * @param request           the original HttpServletRequest
+     * @param parseOnce         whether to keep a sanitized in-memory body as tokens for direct binding
+     * @param inMemoryThreshold maximum body size in bytes kept in memory, larger bodies are spilled to disk
+     * @param maxSize           maximum accepted body size in bytes
+     * @throws IOException                  if an I/O error occurs while reading the body
+     * @throws RequestBodyTooLargeException if the body exceeds the maximum size
      */
-    public SanitizedRequestWrapper(HttpServletRequest request) throws IOException {
+    public SanitizedRequestWrapper(HttpServletRequest request, boolean parseOnce,
+                                   long inMemoryThreshold, long maxSize) throws IOException {
         super(request);
-        // Read the request body as a string
-        String body = new BufferedReader(new InputStreamReader(request.getInputStream(), UTF_8))
-                .lines().collect(Collectors.joining("\n"));
-        // Sanitize all string fields in the JSON body
-        this.sanitizedBody = sanitizeJson(body);
-        log.trace("Sanitized request body: {}", sanitizedBody);
+        int threshold = (int) Math.min(Math.min(inMemoryThreshold, maxSize), Integer.MAX_VALUE - 8);
+        var inputStream = request.getInputStream();
+        // Read the request body as raw bytes, up to one byte past the in-memory threshold
+        byte[] head = inputStream.readNBytes(threshold + 1);
+        if (head.length <= threshold) {
+            sanitizeInMemory(head, parseOnce);
+        } else {
+            try {
+                sanitizeOnDisk(head, inputStream, maxSize);
+            } catch (IOException | RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Sanitizes a body that fits in memory.
+     *
+     * @param body      the raw body bytes
+     * @param parseOnce whether to keep a sanitized body as tokens
+     */
+    private void sanitizeInMemory(byte[] body, boolean parseOnce) {
+        // Sanitize all string fields in the JSON body, into tokens in parse-once mode
+        this.sanitizedTokens = parseOnce ? sanitizeJsonToTokens(body) : null;
+        if (sanitizedTokens != null) {
+            log.trace("Sanitized request body kept as tokens for binding");
+            setAttribute(SANITIZED_TOKENS_ATTRIBUTE, sanitizedTokens);
+        } else {
+            // In parse-once mode no tokens means the body is clean or malformed, both are used unchanged
+            this.sanitizedBody = parseOnce ? body : sanitizeJson(body);
+            if (log.isTraceEnabled()) {
+                log.trace("Sanitized request body: {}", new String(sanitizedBody, UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Spills a body exceeding the in-memory threshold to a temporary file and sanitizes it as a stream.
+     *
+     * @param head        the bytes already read from the body
+     * @param inputStream the body stream positioned after the head
+     * @param maxSize     maximum accepted body size in bytes
+     * @throws IOException if an I/O error occurs
+     */
+    private void sanitizeOnDisk(byte[] head, InputStream inputStream, long maxSize) throws IOException {
+        if (head.length > maxSize) {
+            throw new RequestBodyTooLargeException("Request body exceeds the maximum size of " + maxSize + " bytes");
+        }
+        log.debug("Request body exceeds the in-memory threshold. Spilling it to disk for sanitization.");
+        var rawFile = createTemporaryFile();
+        boolean needsSanitizing = mayContainControlCharacters(head, 0, head.length);
+        long size = head.length;
+        try (var output = Files.newOutputStream(rawFile)) {
+            output.write(head);
+            var chunk = new byte[CHUNK_SIZE];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new RequestBodyTooLargeException("Request body exceeds the maximum size of " + maxSize + " bytes");
+                }
+                needsSanitizing = needsSanitizing || mayContainControlCharacters(chunk, 0, read);
+                output.write(chunk, 0, read);
+            }
+        }
+
+        if (!needsSanitizing) {
+            log.trace("Spilled request body needs no sanitization");
+            this.sanitizedFile = rawFile;
+            return;
+        }
+        var sanitized = createTemporaryFile();
+        try (var input = Files.newInputStream(rawFile); var output = Files.newOutputStream(sanitized)) {
+            sanitizeJson(input, output);
+            this.sanitizedFile = sanitized;
+            log.trace("Sanitized spilled request body of {} bytes", size);
+        } catch (IOException e) {
+            log.trace("Failed to parse JSON for sanitization. Returning original JSON. Error: {}", e.getMessage());
+            // If parsing fails, fallback to original JSON
+            this.sanitizedFile = rawFile;
+        }
+    }
+
+    /**
+     * Creates a temporary file that is deleted when the wrapper is closed.
+     *
+     * @return the path of the temporary file
+     * @throws IOException if the file cannot be created
+     */
+    private Path createTemporaryFile() throws IOException {
+        var file = Files.createTempFile("sanitized-body-", ".json");
+        temporaryFiles.add(file);
+        return file;
+    }
+
+    /**
+     * Returns the length of the sanitized request body, which may differ from the original one.
+     *
+     * @return the sanitized body length in bytes, -1 if the body is held as tokens or too large for an int
+     */
+    @Override
+    public int getContentLength() {
+        long length = getContentLengthLong();
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    /**
+     * Returns the length of the sanitized request body, which may differ from the original one.
+     *
+     * @return the sanitized body length in bytes, -1 if the body is held as tokens
+     */
+    @Override
+    public long getContentLengthLong() {
+        if (sanitizedBody != null) {
+            return sanitizedBody.length;
+        }
+        if (sanitizedFile != null) {
+            try {
+                return Files.size(sanitizedFile);
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+        return -1;
     }
 
     /**
      * Returns a ServletInputStream for the sanitized request body.
      *
-     * <p>This allows the sanitized JSON to be read as an input stream by downstream code.</p>
+     * <p>This allows the sanitized JSON to be read as an input stream by downstream code.
+     * Each call streams the stored buffer, tokens or file again without copying the body.</p>
      *
      * @return ServletInputStream containing the sanitized JSON
+     * @throws IOException if the sanitized body cannot be opened
      */
     @Override
-    public ServletInputStream getInputStream() {
-        // Provide the sanitized body as a byte stream
-        final ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(sanitizedBody.getBytes(UTF_8));
+    public ServletInputStream getInputStream() throws IOException {
+        final InputStream inputStream;
+        if (sanitizedBody != null) {
+            inputStream = new ByteArrayInputStream(sanitizedBody);
+        } else if (sanitizedTokens != null) {
+            inputStream = new TokenBufferInputStream(sanitizedTokens);
+        } else {
+            inputStream = Files.newInputStream(sanitizedFile);
+        }
         return new ServletInputStream() {
+            private boolean finished;
+
+            @Override
+            public int read() throws IOException {
+                int b = inputStream.read();
+                finished = b < 0;
+                return b;
+            }
+
             @Override
-            public int read() {
-                return byteArrayInputStream.read();
+            public int read(byte[] b, int off, int len) throws IOException {
+                int count = inputStream.read(b, off, len);
+                finished = count < 0;
+                return count;
             }
 
             @Override
             public boolean isFinished() {
-                return byteArrayInputStream.available() == 0;
+                return finished || (sanitizedBody != null && available() == 0);
+            }
+
+            @Override
+            public int available() {
+                try {
+                    return inputStream.available();
+                } catch (IOException e) {
+                    return 0;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                inputStream.close();
             }
 
             @Override
@@ -90,10 +296,26 @@ public class SanitizedRequestWrapper extends HttpServletRequestWrapper {
      * <p>This allows the sanitized JSON to be read as a character stream by downstream code.</p>
      *
      * @return BufferedReader containing the sanitized JSON
+     * @throws IOException if the sanitized body cannot be opened
      */
     @Override
-    public BufferedReader getReader() {
+    public BufferedReader getReader() throws IOException {
         // Provide the sanitized body as a character stream
         return new BufferedReader(new InputStreamReader(getInputStream(), UTF_8));
     }
+
+    /**
+     * Deletes the temporary files of a spilled body.
+     */
+    @Override
+    public void close() {
+        for (Path file : temporaryFiles) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary request body file [{}] : {}", file, e.getMessage());
+            }
+        }
+        temporaryFiles.clear();
+    }
 }
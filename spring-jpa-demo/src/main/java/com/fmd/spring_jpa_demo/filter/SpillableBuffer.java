@@ -0,0 +1,159 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Buffer of a request body written in chunks, held in memory up to the in-memory threshold and spilled to a
+ * temporary file beyond it, like the bodies read by {@link SanitizedRequestWrapper}.
+ * <p>
+ * The content is written through {@link #outputStream()} and read back through {@link #openInputStream()} once
+ * writing is complete. The temporary file is deleted when the buffer is closed.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+class SpillableBuffer implements Closeable {
+
+    /**
+     * Size of the buffer between the writes and the temporary file.
+     */
+    private static final int FILE_BUFFER_SIZE = 8192;
+
+    private final long inMemoryThreshold;
+    private final OutputStream outputStream = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            SpillableBuffer.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (fileOutput != null) {
+                fileOutput.flush();
+            }
+        }
+    };
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private Path file;
+    private OutputStream fileOutput;
+    private long size;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param inMemoryThreshold maximum size in bytes kept in memory, larger content is spilled to disk
+     */
+    SpillableBuffer(long inMemoryThreshold) {
+        this.inMemoryThreshold = inMemoryThreshold;
+    }
+
+    /**
+     * Returns the stream writing to the buffer, the same instance on every call.
+     *
+     * @return the output stream of the buffer
+     */
+    OutputStream outputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Appends bytes, spilling the buffer to disk when they exceed the in-memory threshold.
+     *
+     * @param buffer the buffer holding the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @throws IOException if the temporary file cannot be written
+     */
+    void write(byte[] buffer, int offset, int length) throws IOException {
+        if (file == null && size + length > inMemoryThreshold) {
+            spill();
+        }
+        if (file == null) {
+            memory.write(buffer, offset, length);
+        } else {
+            fileOutput.write(buffer, offset, length);
+        }
+        size += length;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the size of the content in bytes
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the content exceeded the in-memory threshold and is held in a temporary file.
+     *
+     * @return true if the content is on disk
+     */
+    boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Opens a stream reading the content written so far from its start.
+     *
+     * @return the input stream of the content
+     * @throws IOException if the temporary file cannot be read
+     */
+    InputStream openInputStream() throws IOException {
+        if (file == null) {
+            return new ByteArrayInputStream(memory.toByteArray());
+        }
+        fileOutput.flush();
+        return Files.newInputStream(file);
+    }
+
+    /**
+     * Moves the content written so far to a temporary file, which receives all further writes.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    private void spill() throws IOException {
+        log.debug("Request body exceeds the in-memory threshold. Spilling it to disk for sanitization.");
+        file = Files.createTempFile("sanitized-body-", ".json");
+        fileOutput = new BufferedOutputStream(Files.newOutputStream(file), FILE_BUFFER_SIZE);
+        memory.writeTo(fileOutput);
+        memory = null;
+    }
+
+    /**
+     * Deletes the temporary file of a spilled buffer.
+     */
+    @Override
+    public void close() {
+        if (file == null) {
+            return;
+        }
+        try {
+            fileOutput.close();
+        } catch (IOException e) {
+            log.trace("Failed to close temporary request body file [{}] : {}", file, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary request body file [{}] : {}", file, e.getMessage());
+        }
+    }
+}
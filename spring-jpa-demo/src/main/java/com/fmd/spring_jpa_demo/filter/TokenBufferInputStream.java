@@ -0,0 +1,114 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.fmd.spring_jpa_demo.util.SanitizerUtil.createGenerator;
+
+/**
+ * InputStream serializing a {@link TokenBuffer} to JSON on demand.
+ * <p>
+ * Tokens are written one at a time, only as far as the bytes are actually read. Peeking at the first
+ * byte of the body, as Spring MVC does to detect empty bodies, therefore serializes a single token
+ * rather than the whole document.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+public class TokenBufferInputStream extends InputStream {
+
+    private final JsonParser tokens;
+    private final ChunkBuffer chunk = new ChunkBuffer();
+    private final JsonGenerator generator;
+    private int position;
+    private boolean finished;
+
+    /**
+     * Creates a stream over the given tokens.
+     *
+     * @param tokenBuffer the tokens to serialize
+     * @throws IOException if the generator cannot be created
+     */
+    public TokenBufferInputStream(TokenBuffer tokenBuffer) throws IOException {
+        this.tokens = tokenBuffer.asParser();
+        this.generator = createGenerator(chunk);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk.bytes()[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(len, chunk.size() - position);
+        System.arraycopy(chunk.bytes(), position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk.size() - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        tokens.close();
+    }
+
+    /**
+     * Makes sure unread bytes are buffered, serializing the next token if needed.
+     *
+     * @return false if all tokens have been serialized and read
+     * @throws IOException if serialization fails
+     */
+    private boolean fill() throws IOException {
+        while (position >= chunk.size()) {
+            if (finished) {
+                return false;
+            }
+            chunk.reset();
+            position = 0;
+            var token = tokens.nextToken();
+            if (token == null) {
+                finished = true;
+                generator.close();
+            } else {
+                // Floating-point numbers are buffered as their original text, written back unchanged
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    generator.writeNumber(tokens.getText());
+                } else {
+                    generator.copyCurrentEvent(tokens);
+                }
+                generator.flush();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * ByteArrayOutputStream exposing its internal buffer so chunks are read without copying.
+     */
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
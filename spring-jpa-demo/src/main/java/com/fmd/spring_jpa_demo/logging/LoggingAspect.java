@@ -1,22 +1,23 @@
 package com.fmd.spring_jpa_demo.logging;
 
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
-import org.springframework.stereotype.Component;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.lang.NonNull;
 
 /**
- * Aspect for logging entry and exit of methods at TRACE level if enabled.
+ * Advice for logging entry and exit of methods at TRACE level if enabled.
  * <p>
- * This aspect intercepts all public method calls within the {@code com.fmd.spring_jpa_demo}
- * package and its subpackages. If the logging level TRACE is enabled, it logs the entry,
- * exit, and exception (if any) for each intercepted method.
+ * This advice is only registered when TRACE is enabled for its logger at startup, or when forced with
+ * {@code com.fmd.spring-jpa-demo.logging.aspect.enabled=true}, see {@link LoggingAspectCondition}, so no bean is
+ * proxied for it otherwise. It intercepts the public methods
+ * of the beans matched by the configured pointcut. If it is active and the logging level TRACE is enabled,
+ * it logs the entry, exit, and exception (if any) for each intercepted method.
  * <p>
  * Usage:
  * <ul>
  *   <li>Enable TRACE logging for {@code com.fmd.spring_jpa_demo} in your application configuration.</li>
- *   <li>All public methods in the specified package will have entry and exit logs at TRACE level.</li>
+ *   <li>Switch the advice on or off at runtime through the {@code loggingaspect} actuator endpoint.</li>
  * </ul>
  * <p>
  * Example log output:
@@ -28,37 +29,66 @@ import org.springframework.stereotype.Component;
  * @author Shailesh Halor
  */
 @Slf4j
-@Aspect
-@Component
-public class LoggingAspect {
+public class LoggingAspect implements MethodInterceptor {
 
     /**
-     * Aspect for logging exceptions, entry and exit of public methods in the application.
+     * Whether the advice logs, switchable at runtime. When inactive the advice costs a single volatile read.
+     */
+    private volatile boolean active;
+
+    /**
+     * Creates the advice.
+     *
+     * @param active whether the advice logs initially
+     */
+    public LoggingAspect(boolean active) {
+        this.active = active;
+    }
+
+    /**
+     * Advice for logging exceptions, entry and exit of public methods in the application.
      * This advice logs method entry and exit at TRACE level if enabled, and also logs exceptions.
      *
-     * @param joinPoint the join point representing the intercepted method
+     * @param invocation the intercepted method invocation
      * @return the result of the method execution
      * @throws Throwable if the intercepted method throws any exception
      */
-    @Around("execution(public * com.fmd.spring_jpa_demo..*(..))")
-    public Object logEntryExit(ProceedingJoinPoint joinPoint) throws Throwable {
-        // Log method entry if TRACE is enabled
-        if (log.isTraceEnabled()) {
-            log.trace("Entering method: {}.{}()", joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        if (!active || !log.isTraceEnabled()) {
+            return invocation.proceed();
         }
+        var method = invocation.getMethod();
+        // Log method entry
+        log.trace("Entering method: {}.{}()", method.getDeclaringClass().getName(), method.getName());
         try {
-            Object result = joinPoint.proceed();
-            // Log method exit if TRACE is enabled
-            if (log.isTraceEnabled()) {
-                log.trace("Exiting method: {}.{}()", joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
-            }
+            Object result = invocation.proceed();
+            // Log method exit
+            log.trace("Exiting method: {}.{}()", method.getDeclaringClass().getName(), method.getName());
             return result;
         } catch (Throwable t) {
-            // Log exception if TRACE is enabled
-            if (log.isTraceEnabled()) {
-                log.trace("Exception in method: {}.{}()", joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
-            }
+            // Log exception
+            log.trace("Exception in method: {}.{}()", method.getDeclaringClass().getName(), method.getName());
             throw t;
         }
     }
+
+    /**
+     * Returns whether the advice currently logs.
+     *
+     * @return true if active
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Switches the advice on or off.
+     *
+     * @param active whether the advice logs
+     */
+    public void setActive(boolean active) {
+        log.info("Logging aspect {}", active ? "activated" : "deactivated");
+        this.active = active;
+    }
 }
@@ -0,0 +1,34 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Condition registering the {@link LoggingAspect} when TRACE is enabled for its logger, which is the case when TRACE
+ * is configured for the application packages, e.g. {@code logging.level.com.fmd.spring_jpa_demo=TRACE}.
+ * <p>
+ * The logging levels are applied before the application context is refreshed, so they are known here. The
+ * {@code com.fmd.spring-jpa-demo.logging.aspect.enabled} property, when set, overrides the logging level: {@code true}
+ * registers the aspect so that it can be switched on later through its endpoint, {@code false} never registers it.
+ *
+ * @author Shailesh Halor
+ */
+class LoggingAspectCondition extends SpringBootCondition {
+
+    static final String ENABLED_PROPERTY = "com.fmd.spring-jpa-demo.logging.aspect.enabled";
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        var enabled = context.getEnvironment().getProperty(ENABLED_PROPERTY, Boolean.class);
+        if (enabled != null) {
+            return new ConditionOutcome(enabled, "Logging aspect " + (enabled ? "enabled" : "disabled")
+                    + " by " + ENABLED_PROPERTY);
+        }
+        var traceEnabled = LoggerFactory.getLogger(LoggingAspect.class).isTraceEnabled();
+        return new ConditionOutcome(traceEnabled, "TRACE " + (traceEnabled ? "enabled" : "disabled")
+                + " for " + LoggingAspect.class.getName());
+    }
+}
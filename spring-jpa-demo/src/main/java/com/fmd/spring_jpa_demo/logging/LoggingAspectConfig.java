@@ -0,0 +1,235 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * Registers the {@link LoggingAspect} and the {@link TimingAspect} only when enabled, with a pointcut built from
+ * configuration.
+ * <p>
+ * The logging advice is registered when TRACE is enabled for it, see {@link LoggingAspectCondition}, the timing
+ * advice when its property is set. When neither is, which is the default in production, no advisor exists and no
+ * bean is proxied. When enabled, the public methods of the beans in the included packages are advised, except those
+ * in the excluded packages.
+ * <p>
+ * Each advice has its own packages. Hot-path packages such as filters, security, mappers and entities are excluded
+ * from the logging by default, as tracing them floods the logs. The timing covers the mappers by default, the hot
+ * path it is meant to measure, and only excludes the filters, security and this package.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     logging.level.com.fmd.spring_jpa_demo=TRACE
+ *     com.fmd.spring-jpa-demo.logging.aspect.active=true
+ *     com.fmd.spring-jpa-demo.logging.aspect.include-packages=com.fmd.spring_jpa_demo
+ *     com.fmd.spring-jpa-demo.logging.aspect.exclude-packages=com.fmd.spring_jpa_demo.filter
+ *     com.fmd.spring-jpa-demo.logging.aspect.timing.enabled=true
+ *     com.fmd.spring-jpa-demo.logging.aspect.timing.include-packages=com.fmd.spring_jpa_demo
+ *     com.fmd.spring-jpa-demo.logging.aspect.timing.exclude-packages=com.fmd.spring_jpa_demo.filter
+ *     com.fmd.spring-jpa-demo.logging.aspect.timing.percentiles=0.5,0.95,0.99
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Configuration
+@Conditional(LoggingAspectConfig.LoggingOrTimingCondition.class)
+public class LoggingAspectConfig {
+
+    /**
+     * Packages excluded from the logging pointcut unless configured otherwise: request filters, security, mappers,
+     * entities and utilities run on every request and are not worth tracing.
+     */
+    static final String DEFAULT_EXCLUDED_PACKAGES = "com.fmd.spring_jpa_demo.filter,"
+            + "com.fmd.spring_jpa_demo.security,"
+            + "com.fmd.spring_jpa_demo.dto,"
+            + "com.fmd.spring_jpa_demo.entity,"
+            + "com.fmd.spring_jpa_demo.util,"
+            + "com.fmd.spring_jpa_demo.logging";
+
+    /**
+     * Packages excluded from the timing pointcut unless configured otherwise: the servlet filters, including the
+     * security ones, have final methods a class proxy cannot advise, and this package holds the advice itself.
+     */
+    static final String DEFAULT_TIMING_EXCLUDED_PACKAGES = "com.fmd.spring_jpa_demo.filter,"
+            + "com.fmd.spring_jpa_demo.security,"
+            + "com.fmd.spring_jpa_demo.logging";
+
+    /**
+     * Provides the pointcut of the logging advice.
+     *
+     * @param includePackages packages whose beans are advised, including subpackages
+     * @param excludePackages packages excluded from the advised ones, including subpackages
+     * @return the AspectJ pointcut
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Conditional(LoggingAspectCondition.class)
+    public static AspectJExpressionPointcut loggingAspectPointcut(
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.include-packages:com.fmd.spring_jpa_demo}") List<String> includePackages,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.exclude-packages:" + DEFAULT_EXCLUDED_PACKAGES + "}") List<String> excludePackages) {
+        var pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(pointcutExpression(includePackages, excludePackages));
+        log.info("Logging aspect pointcut: {}", pointcut.getExpression());
+        return pointcut;
+    }
+
+    /**
+     * Provides the logging advice.
+     *
+     * @param active whether the advice logs initially, it can be switched at runtime through the endpoint
+     * @return the LoggingAspect instance
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Conditional(LoggingAspectCondition.class)
+    public static LoggingAspect loggingAspect(@Value("${com.fmd.spring-jpa-demo.logging.aspect.active:true}") boolean active) {
+        return new LoggingAspect(active);
+    }
+
+    /**
+     * Provides the advisor applying the logging advice to the configured packages.
+     *
+     * @param loggingAspect the logging advice
+     * @param pointcut      the pointcut
+     * @return the advisor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @Conditional(LoggingAspectCondition.class)
+    public static Advisor loggingAspectAdvisor(LoggingAspect loggingAspect, AspectJExpressionPointcut pointcut) {
+        return new DefaultPointcutAdvisor(pointcut, loggingAspect);
+    }
+
+    /**
+     * Provides the actuator endpoint switching the logging advice at runtime.
+     *
+     * @param loggingAspect the logging advice
+     * @param pointcut      the pointcut
+     * @return the endpoint
+     */
+    @Bean
+    @Conditional(LoggingAspectCondition.class)
+    public LoggingAspectEndpoint loggingAspectEndpoint(LoggingAspect loggingAspect, AspectJExpressionPointcut pointcut) {
+        return new LoggingAspectEndpoint(loggingAspect, pointcut.getExpression());
+    }
+
+    /**
+     * Provides the timing advice recording method latencies.
+     *
+     * @param meterRegistryProvider provider of the registry to publish the timers to, resolved on first use
+     * @param percentiles           client-side percentiles published for each timer
+     * @param histogram             whether to publish percentile histogram buckets
+     * @param maxMethods            maximum number of methods timed individually
+     * @return the TimingAspect instance
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.logging.aspect.timing", name = "enabled", havingValue = "true")
+    public static TimingAspect timingAspect(
+            ObjectProvider<MeterRegistry> meterRegistryProvider,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.timing.percentiles:0.5,0.95,0.99}") double[] percentiles,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.timing.histogram:false}") boolean histogram,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.timing.max-methods:500}") int maxMethods) {
+        return new TimingAspect(meterRegistryProvider, percentiles, histogram, maxMethods);
+    }
+
+    /**
+     * Provides the advisor applying the timing advice to its configured packages.
+     *
+     * @param timingAspect    the timing advice
+     * @param includePackages packages whose beans are timed, including subpackages
+     * @param excludePackages packages excluded from the timed ones, including subpackages
+     * @return the advisor
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.logging.aspect.timing", name = "enabled", havingValue = "true")
+    public static Advisor timingAspectAdvisor(
+            TimingAspect timingAspect,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.timing.include-packages:com.fmd.spring_jpa_demo}") List<String> includePackages,
+            @Value("${com.fmd.spring-jpa-demo.logging.aspect.timing.exclude-packages:" + DEFAULT_TIMING_EXCLUDED_PACKAGES + "}") List<String> excludePackages) {
+        var pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(pointcutExpression(includePackages, excludePackages));
+        log.info("Timing aspect pointcut: {}", pointcut.getExpression());
+        var advisor = new DefaultPointcutAdvisor(pointcut, timingAspect);
+        // Time the whole invocation, including the logging advice
+        advisor.setOrder(0);
+        return advisor;
+    }
+
+    /**
+     * Preallocates the timers of the advised methods once the singleton beans are instantiated and proxied, so that
+     * their first calls do not register meters.
+     *
+     * @param beanFactory  the bean factory holding the singleton beans
+     * @param timingAspect the timing advice
+     * @return the callback registering the timers
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.logging.aspect.timing", name = "enabled", havingValue = "true")
+    public static SmartInitializingSingleton timingAspectTimers(ConfigurableListableBeanFactory beanFactory,
+                                                                TimingAspect timingAspect) {
+        return () -> {
+            // Only the singletons already created, without initializing lazy ones
+            for (var beanName : beanFactory.getSingletonNames()) {
+                timingAspect.registerTimers(beanFactory.getSingleton(beanName));
+            }
+        };
+    }
+
+    /**
+     * Builds the pointcut expression matching public methods within the included and outside the excluded packages.
+     *
+     * @param includePackages packages to include, including subpackages
+     * @param excludePackages packages to exclude, including subpackages
+     * @return the AspectJ pointcut expression
+     */
+    static String pointcutExpression(List<String> includePackages, List<String> excludePackages) {
+        var expression = new StringBuilder("execution(public * *(..))");
+        var included = includePackages.stream().filter(StringUtils::hasText).map(String::trim)
+                .map(p -> "within(" + p + "..*)").toList();
+        if (included.isEmpty()) {
+            throw new IllegalStateException("No packages configured for the aspect pointcut");
+        }
+        expression.append(" && (").append(String.join(" || ", included)).append(')');
+        excludePackages.stream().filter(StringUtils::hasText).map(String::trim)
+                .forEach(p -> expression.append(" && !within(").append(p).append("..*)"));
+        return expression.toString();
+    }
+
+    /**
+     * Matches when the logging advice or the timing advice is to be registered.
+     */
+    static class LoggingOrTimingCondition extends AnyNestedCondition {
+
+        LoggingOrTimingCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @Conditional(LoggingAspectCondition.class)
+        static class Logging {
+        }
+
+        @ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.logging.aspect.timing", name = "enabled",
+                havingValue = "true")
+        static class Timing {
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.Map;
+
+/**
+ * Actuator endpoint switching the {@link LoggingAspect} on or off at runtime, without a restart.
+ * <p>
+ * Only available when the aspect is registered at startup, see {@link LoggingAspectCondition}: an aspect that was not
+ * registered cannot be switched on, start with {@code com.fmd.spring-jpa-demo.logging.aspect.enabled=true} for that.
+ * Example usage on the management port:
+ * <pre>
+ *     GET  /actuator/loggingaspect
+ *     POST /actuator/loggingaspect {"active": false}
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Endpoint(id = "loggingaspect")
+@RequiredArgsConstructor
+public class LoggingAspectEndpoint {
+
+    private final LoggingAspect loggingAspect;
+    private final String pointcut;
+
+    /**
+     * Returns the state of the logging aspect.
+     *
+     * @return whether the aspect is active and the pointcut it is registered with
+     */
+    @ReadOperation
+    public Map<String, Object> state() {
+        return Map.of("active", loggingAspect.isActive(), "pointcut", pointcut);
+    }
+
+    /**
+     * Switches the logging aspect on or off.
+     *
+     * @param active whether the aspect logs
+     * @return the new state of the logging aspect
+     */
+    @WriteOperation
+    public Map<String, Object> setActive(boolean active) {
+        loggingAspect.setActive(active);
+        return state();
+    }
+}
@@ -0,0 +1,128 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Immutable context of the request being processed: the correlation headers and the authenticated subject.
+ * <p>
+ * The context is bound for a bounded scope with {@link #open(RequestContext)} and restored to the previous
+ * binding when the scope is closed, following the {@code ScopedValue.where(...).run(...)} model. A binding can
+ * neither be mutated nor outlive its scope, and handing it to a child task only copies a single reference,
+ * see {@link #wrap(Runnable)} and {@link RequestContextTaskDecorator}. Log events carry the context bound when
+ * they are logged, see {@link RequestContextMdcAdapter}.
+ * <p>
+ * {@code ScopedValue} itself is a preview API in Java 21 and would require {@code --enable-preview} for the whole
+ * application, so the binding is held in a plain {@link ThreadLocal} behind the same scoped API. Switching the
+ * backing store to a {@code ScopedValue} once it is final does not change any caller.
+ *
+ * @param headers the logged request headers by configured name
+ * @param subject the authenticated subject, null until the request is authenticated
+ * @author Shailesh Halor
+ */
+public record RequestContext(Map<String, String> headers, String subject) {
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Creates a context, copying the headers into an immutable map.
+     *
+     * @param headers the logged request headers by configured name
+     * @param subject the authenticated subject, may be null
+     */
+    public RequestContext {
+        headers = Map.copyOf(headers);
+    }
+
+    /**
+     * Returns the context bound to the current thread.
+     *
+     * @return the current context or null if none is bound
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the given context to the current thread until the returned scope is closed.
+     *
+     * @param context the context to bind, may be null to run without context
+     * @return the scope restoring the previous binding on close
+     */
+    public static Scope open(RequestContext context) {
+        var previous = CURRENT.get();
+        CURRENT.set(context);
+        return new Scope(previous);
+    }
+
+    /**
+     * Returns a copy of this context with the given authenticated subject.
+     *
+     * @param subject the authenticated subject
+     * @return the new context
+     */
+    public RequestContext withSubject(String subject) {
+        return new RequestContext(headers, subject);
+    }
+
+    /**
+     * Wraps a task so that it runs with the context bound at the time this method is called.
+     *
+     * @param task the task to wrap
+     * @return the wrapped task, the task itself if no context is bound
+     */
+    public static Runnable wrap(Runnable task) {
+        var context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (var ignored = open(context)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Wraps a task so that it runs with the context bound at the time this method is called.
+     *
+     * @param task the task to wrap
+     * @param <V>  the result type of the task
+     * @return the wrapped task, the task itself if no context is bound
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        var context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            try (var ignored = open(context)) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * Scope of a context binding, restoring the previous binding when closed.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestContext previous;
+
+        private Scope(RequestContext previous) {
+            this.previous = previous;
+        }
+
+        /**
+         * Restores the binding that was current when the scope was opened.
+         */
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
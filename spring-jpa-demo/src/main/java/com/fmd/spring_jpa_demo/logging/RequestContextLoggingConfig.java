@@ -0,0 +1,46 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the log fields of the scoped {@link RequestContext}.
+ * <p>
+ * Installs the {@link RequestContextMdcAdapter} on the Logback logger context for the lifetime of the application,
+ * so that each log event carries the request context bound when it was logged.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "request.header.logging", name = "context", havingValue = "scoped")
+public class RequestContextLoggingConfig {
+
+    /**
+     * Installs the adapter, on startup.
+     */
+    @PostConstruct
+    public void install() {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            RequestContextMdcAdapter.install(loggerContext);
+            log.debug("Request context fields added to the log events");
+        } else {
+            log.warn("Logback is not the logging backend, log events will not carry the request context fields");
+        }
+    }
+
+    /**
+     * Restores the previous adapter, on shutdown.
+     */
+    @PreDestroy
+    public void uninstall() {
+        if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+            RequestContextMdcAdapter.uninstall(loggerContext);
+        }
+    }
+}
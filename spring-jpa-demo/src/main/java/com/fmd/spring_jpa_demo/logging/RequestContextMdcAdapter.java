@@ -0,0 +1,131 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import org.slf4j.spi.MDCAdapter;
+
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logging bridge adding the fields of the current {@link RequestContext} to the MDC of each log event.
+ * <p>
+ * Logback copies the MDC of an event from the adapter of its logger context on the thread that logged it, when the
+ * event is appended, or for an async appender before the event is queued to the worker thread, and keeps the copy
+ * with the event. Installed on the logger context, this adapter adds the logged request headers under their
+ * configured name and the authenticated subject under {@value #SUBJECT} to that copy. The fields therefore belong
+ * to the request that logged the event, whichever thread finally writes it, and are written like any MDC entry by
+ * the structured log formats. Nothing is added when no context is bound.
+ * <p>
+ * Every other operation is delegated to the adapter installed before, which {@link org.slf4j.MDC} keeps using.
+ *
+ * @author Shailesh Halor
+ */
+public class RequestContextMdcAdapter implements MDCAdapter {
+
+    /**
+     * MDC key of the authenticated subject.
+     */
+    public static final String SUBJECT = "subject";
+
+    private final MDCAdapter delegate;
+
+    /**
+     * Creates an adapter delegating to the given adapter.
+     *
+     * @param delegate the adapter holding the MDC entries
+     */
+    RequestContextMdcAdapter(MDCAdapter delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Installs the adapter on the given logger context, unless already installed.
+     *
+     * @param loggerContext the logger context
+     */
+    public static void install(LoggerContext loggerContext) {
+        var current = loggerContext.getMDCAdapter();
+        if (!(current instanceof RequestContextMdcAdapter)) {
+            loggerContext.setMDCAdapter(new RequestContextMdcAdapter(current));
+        }
+    }
+
+    /**
+     * Restores the adapter installed before on the given logger context, if this adapter is installed.
+     *
+     * @param loggerContext the logger context
+     */
+    public static void uninstall(LoggerContext loggerContext) {
+        if (loggerContext.getMDCAdapter() instanceof RequestContextMdcAdapter adapter) {
+            loggerContext.setMDCAdapter(adapter.delegate);
+        }
+    }
+
+    /**
+     * Returns a copy of the MDC entries with the fields of the current request context, as taken by log events.
+     *
+     * @return the MDC entries and request context fields, null if there are none
+     */
+    @Override
+    public Map<String, String> getCopyOfContextMap() {
+        var entries = delegate.getCopyOfContextMap();
+        var context = RequestContext.current();
+        if (context == null) {
+            return entries;
+        }
+        if (entries == null) {
+            entries = new HashMap<>();
+        }
+        entries.putAll(context.headers());
+        if (context.subject() != null) {
+            entries.put(SUBJECT, context.subject());
+        }
+        return entries;
+    }
+
+    @Override
+    public void put(String key, String val) {
+        delegate.put(key, val);
+    }
+
+    @Override
+    public String get(String key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        delegate.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public void setContextMap(Map<String, String> contextMap) {
+        delegate.setContextMap(contextMap);
+    }
+
+    @Override
+    public void pushByKey(String key, String value) {
+        delegate.pushByKey(key, value);
+    }
+
+    @Override
+    public String popByKey(String key) {
+        return delegate.popByKey(key);
+    }
+
+    @Override
+    public Deque<String> getCopyOfDequeByKey(String key) {
+        return delegate.getCopyOfDequeByKey(key);
+    }
+
+    @Override
+    public void clearDequeByKey(String key) {
+        delegate.clearDequeByKey(key);
+    }
+}
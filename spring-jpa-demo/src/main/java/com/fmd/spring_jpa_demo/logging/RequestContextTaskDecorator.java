@@ -0,0 +1,32 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Task decorator propagating the {@link RequestContext} to tasks submitted to Spring managed executors.
+ * <p>
+ * Spring Boot applies a single TaskDecorator bean to the auto-configured application task executor, which also
+ * runs async MVC handlers and {@code @Async} methods. The task captures the context reference of the submitting
+ * thread and binds it for its own execution only, so no per-task map copy is made as with MDC.
+ *
+ * @author Shailesh Halor
+ */
+@Component
+@ConditionalOnProperty(prefix = "request.header.logging", name = "context", havingValue = "scoped")
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    /**
+     * Wraps the task to run with the context of the submitting thread.
+     *
+     * @param runnable the task to decorate
+     * @return the decorated task
+     */
+    @Override
+    @NonNull
+    public Runnable decorate(@NonNull Runnable runnable) {
+        return RequestContext.wrap(runnable);
+    }
+}
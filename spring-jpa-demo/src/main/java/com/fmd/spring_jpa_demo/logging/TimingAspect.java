@@ -0,0 +1,193 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.NonNull;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Advice recording the latency of the methods matched by the timing pointcut as Micrometer timers.
+ * <p>
+ * Each method gets a {@code method.invocations} timer tagged with its class and method names, and with the
+ * outcome {@code success} or {@code error}, so the error timer count is the error count of the method. Timers are
+ * preallocated for the advised methods of the singleton beans once they are all instantiated, see
+ * {@link #registerTimers(Object)}, so the hot path only looks them up from a map, reads the clock twice and records.
+ * Methods of beans created later get their timers on their first call. To bound tag cardinality, methods beyond the
+ * configured maximum are recorded under {@code class=other} and {@code method=other}.
+ * <p>
+ * Registered by {@link LoggingAspectConfig} when {@code com.fmd.spring-jpa-demo.logging.aspect.timing.enabled=true}.
+ * The timers are available on the metrics actuator endpoint, for example:
+ * <pre>
+ *     GET /actuator/metrics/method.invocations?tag=class:StudentServiceImpl
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+public class TimingAspect implements MethodInterceptor {
+
+    private static final String METER_NAME = "method.invocations";
+    private static final String OTHER = "other";
+
+    private final Map<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final double[] percentiles;
+    private final boolean histogram;
+    private final int maxMethods;
+    private volatile MethodTimers overflowTimers;
+
+    /**
+     * Creates the advice, the registry is only resolved when the timers are registered.
+     *
+     * @param meterRegistryProvider provider of the registry to publish the timers to
+     * @param percentiles           client-side percentiles published for each timer
+     * @param histogram             whether to publish percentile histogram buckets for server-side aggregation
+     * @param maxMethods            maximum number of methods timed individually
+     */
+    public TimingAspect(ObjectProvider<MeterRegistry> meterRegistryProvider, double[] percentiles,
+                        boolean histogram, int maxMethods) {
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.percentiles = percentiles;
+        this.histogram = histogram;
+        this.maxMethods = maxMethods;
+    }
+
+    /**
+     * Times the intercepted method, recording it as success or error.
+     *
+     * @param invocation the intercepted method invocation
+     * @return the result of the method execution
+     * @throws Throwable if the intercepted method throws any exception
+     */
+    @Override
+    public Object invoke(@NonNull MethodInvocation invocation) throws Throwable {
+        var methodTimers = timersFor(invocation.getMethod());
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodTimers.success().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable t) {
+            methodTimers.error().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw t;
+        }
+    }
+
+    /**
+     * Registers the timers of the methods of the given bean advised by this advice, unless the bean is not advised.
+     * <p>
+     * The methods are those matched by the pointcut of the advisor of this advice on the proxy, among the methods
+     * of the target class, or of the proxied interfaces for a JDK proxy since these are the methods it is invoked with.
+     *
+     * @param bean the bean, possibly a proxy
+     */
+    public void registerTimers(Object bean) {
+        if (!(bean instanceof Advised advised)) {
+            return;
+        }
+        var targetClass = AopUtils.getTargetClass(bean);
+        var methods = AopUtils.isJdkDynamicProxy(bean)
+                ? Arrays.stream(advised.getProxiedInterfaces()).flatMap(i -> Arrays.stream(i.getMethods())).toList()
+                : Arrays.asList(ReflectionUtils.getUniqueDeclaredMethods(targetClass,
+                        ReflectionUtils.USER_DECLARED_METHODS));
+        for (var advisor : advised.getAdvisors()) {
+            if (advisor.getAdvice() == this && advisor instanceof PointcutAdvisor pointcutAdvisor) {
+                var methodMatcher = pointcutAdvisor.getPointcut().getMethodMatcher();
+                // Static methods are not intercepted by the proxy, whatever the pointcut
+                methods.stream()
+                        .filter(method -> !Modifier.isStatic(method.getModifiers())
+                                && methodMatcher.matches(method, targetClass))
+                        .forEach(this::timersFor);
+            }
+        }
+    }
+
+    /**
+     * Returns the timers of the given method, registering them if not preallocated.
+     *
+     * @param method the intercepted method
+     * @return the timers of the method, or the shared overflow timers once the maximum is reached
+     */
+    private MethodTimers timersFor(Method method) {
+        var methodTimers = timers.get(method);
+        if (methodTimers != null) {
+            return methodTimers;
+        }
+        if (timers.size() >= maxMethods) {
+            return overflowTimers();
+        }
+        return timers.computeIfAbsent(method,
+                m -> register(m.getDeclaringClass().getSimpleName(), m.getName()));
+    }
+
+    /**
+     * Returns the timers shared by the methods beyond the maximum, registering them on first use.
+     *
+     * @return the overflow timers
+     */
+    private MethodTimers overflowTimers() {
+        var overflow = overflowTimers;
+        if (overflow == null) {
+            log.warn("More than {} methods timed, recording further methods as '{}'", maxMethods, OTHER);
+            overflow = register(OTHER, OTHER);
+            overflowTimers = overflow;
+        }
+        return overflow;
+    }
+
+    /**
+     * Registers the success and error timers for a class and method name.
+     *
+     * @param className  the simple class name tag
+     * @param methodName the method name tag
+     * @return the registered timers
+     */
+    private MethodTimers register(String className, String methodName) {
+        var meterRegistry = meterRegistryProvider.getObject();
+        return new MethodTimers(register(meterRegistry, className, methodName, "success"),
+                register(meterRegistry, className, methodName, "error"));
+    }
+
+    /**
+     * Registers a timer, or returns the existing one with the same name and tags.
+     *
+     * @param meterRegistry the registry to register the timer with
+     * @param className     the simple class name tag
+     * @param methodName    the method name tag
+     * @param outcome       the outcome tag
+     * @return the timer
+     */
+    private Timer register(MeterRegistry meterRegistry, String className, String methodName, String outcome) {
+        return Timer.builder(METER_NAME)
+                .description("Latency of application method invocations")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .publishPercentiles(percentiles)
+                .publishPercentileHistogram(histogram)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Timers registered for a method.
+     *
+     * @param success timer of the calls returning normally
+     * @param error   timer of the calls throwing an exception
+     */
+    private record MethodTimers(Timer success, Timer error) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import com.fmd.spring_jpa_demo.entity.StudentImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+/**
+ * Repository interface for StudentImport entity operations.
+ */
+@Repository
+public interface StudentImportRepository extends JpaRepository<StudentImport, String> {
+
+    /**
+     * Advances the progress of an import, only if it is still at the expected progress, so two uploads of the same
+     * import cannot both commit the same lines. Must run within the transaction committing the lines.
+     *
+     * @param id        the import ID
+     * @param from      the committed lines expected
+     * @param to        the new committed lines
+     * @param completed whether the whole document is imported
+     * @param now       the modification timestamp
+     * @return the number of imports updated, 0 if the import progressed concurrently
+     */
+    @Modifying
+    @Query("update StudentImport i set i.committedLines = :to, i.completed = :completed, i.modifiedAt = :now "
+            + "where i.id = :id and i.committedLines = :from and i.completed = false")
+    int advance(@Param("id") String id, @Param("from") int from, @Param("to") int to,
+                @Param("completed") boolean completed, @Param("now") Date now);
+}
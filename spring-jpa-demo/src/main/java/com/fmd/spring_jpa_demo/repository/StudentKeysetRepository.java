@@ -0,0 +1,54 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import com.fmd.spring_jpa_demo.entity.Student;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Repository fragment for keyset (seek) pagination of students.
+ */
+public interface StudentKeysetRepository {
+
+    /**
+     * Retrieves the keys of the students following the given position in the given order, using an index seek
+     * on the sort property and ID instead of an offset scan.
+     *
+     * @param sortBy    the property to sort by
+     * @param direction the sort direction, applied to the sort property and the ID tie-breaker
+     * @param afterKey  the sort key of the last row of the previous page, null for the first page
+     * @param afterId   the ID of the last row of the previous page, ignored for the first page
+     * @param limit     the maximum number of keys to return
+     * @return the keys of the following students, in order
+     * @throws com.fmd.spring_jpa_demo.exception.InvalidPageRequestException if the sort property is not supported
+     *                                                                       or the key does not match its type
+     */
+    List<StudentKey> findKeysAfter(String sortBy, Sort.Direction direction, Object afterKey, int afterId, int limit);
+
+    /**
+     * Retrieves the keys of the students matching the given specification and following the given position in
+     * the given order, seeking on the sort property and ID as {@link #findKeysAfter} does.
+     *
+     * @param specification the specification the students must match
+     * @param sortBy        the property to sort by
+     * @param direction     the sort direction, applied to the sort property and the ID tie-breaker
+     * @param afterKey      the sort key of the last row of the previous page, null for the first page
+     * @param afterId       the ID of the last row of the previous page, ignored for the first page
+     * @param limit         the maximum number of keys to return
+     * @return the keys of the following matching students, in order
+     * @throws com.fmd.spring_jpa_demo.exception.InvalidPageRequestException if the sort property is not supported
+     *                                                                       or the key does not match its type
+     */
+    List<StudentKey> findKeysAfter(Specification<Student> specification, String sortBy, Sort.Direction direction,
+                                   Object afterKey, int afterId, int limit);
+
+    /**
+     * Position of a student in a keyset ordering.
+     *
+     * @param id      the student ID
+     * @param sortKey the value of the sort property
+     */
+    record StudentKey(int id, Object sortKey) {
+    }
+}
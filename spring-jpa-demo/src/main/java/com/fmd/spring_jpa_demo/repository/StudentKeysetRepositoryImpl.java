@@ -0,0 +1,160 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.exception.InvalidPageRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset pagination of students with JPQL row value comparisons.
+ * <p>
+ * Each supported sort property is backed by a composite index on the property and the ID, declared on
+ * {@link com.fmd.spring_jpa_demo.entity.Student}, so that a page is a range seek whatever its depth.
+ * Sort properties must not be null, which holds for all supported ones.
+ */
+@Slf4j
+public class StudentKeysetRepositoryImpl implements StudentKeysetRepository {
+
+    /**
+     * Supported sort properties and their types.
+     */
+    private static final Map<String, Class<?>> SORT_PROPERTIES = Map.of(
+            "id", Integer.class,
+            "firstName", String.class,
+            "lastName", String.class,
+            "createdAt", Date.class,
+            "modifiedAt", Date.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<StudentKey> findKeysAfter(String sortBy, Sort.Direction direction, Object afterKey, int afterId, int limit) {
+        var type = sortType(sortBy);
+        var order = direction.isAscending() ? "asc" : "desc";
+        var jpql = new StringBuilder("select s.id, s.").append(sortBy).append(" from Student s");
+        if (afterKey != null) {
+            // Seek past the previous page, (key, id) rows compare in the same direction as the order
+            jpql.append(" where (s.").append(sortBy).append(", s.id) ")
+                    .append(direction.isAscending() ? '>' : '<').append(" (:key, :id)");
+        }
+        jpql.append(" order by s.").append(sortBy).append(' ').append(order).append(", s.id ").append(order);
+        log.debug("Keyset query: {}", jpql);
+
+        var query = entityManager.createQuery(jpql.toString(), Object[].class).setMaxResults(limit);
+        if (afterKey != null) {
+            query.setParameter("key", toKey(type, afterKey)).setParameter("id", afterId);
+        }
+        return query.getResultList().stream()
+                .map(row -> new StudentKey((Integer) row[0], row[1]))
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The query is built with the Criteria API, which has no row value comparison, so the seek is expanded into
+     * {@code key > :key or (key = :key and id > :id)}, still a range of the composite index on the sort property
+     * and the ID.
+     */
+    @Override
+    public List<StudentKey> findKeysAfter(Specification<Student> specification, String sortBy,
+                                          Sort.Direction direction, Object afterKey, int afterId, int limit) {
+        var type = sortType(sortBy);
+        var cb = entityManager.getCriteriaBuilder();
+        var query = cb.createQuery(Object[].class);
+        var root = query.from(Student.class);
+        Path<Comparable<Object>> key = root.get(sortBy);
+        Path<Integer> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        var matching = specification.toPredicate(root, query, cb);
+        if (matching != null) {
+            predicates.add(matching);
+        }
+        if (afterKey != null) {
+            // Seek past the previous page, in the same direction as the order
+            predicates.add(after(cb, key, id, toKey(type, afterKey), afterId, direction.isAscending()));
+        }
+        query.multiselect(id, key).where(predicates.toArray(Predicate[]::new));
+        query.orderBy(direction.isAscending()
+                ? List.of(cb.asc(key), cb.asc(id))
+                : List.of(cb.desc(key), cb.desc(id)));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList().stream()
+                .map(row -> new StudentKey((Integer) row[0], row[1]))
+                .toList();
+    }
+
+    /**
+     * Creates the predicate of the rows following a position in a keyset ordering.
+     *
+     * @param cb        the criteria builder
+     * @param key       the sort property
+     * @param id        the ID
+     * @param afterKey  the sort key of the position
+     * @param afterId   the ID of the position
+     * @param ascending whether the order is ascending
+     * @return the predicate
+     */
+    @SuppressWarnings("unchecked")
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Integer> id,
+                                   Object afterKey, int afterId, boolean ascending) {
+        var keyValue = (Comparable<Object>) afterKey;
+        if (ascending) {
+            return cb.or(cb.greaterThan(key, keyValue), cb.and(cb.equal(key, keyValue), cb.greaterThan(id, afterId)));
+        }
+        return cb.or(cb.lessThan(key, keyValue), cb.and(cb.equal(key, keyValue), cb.lessThan(id, afterId)));
+    }
+
+    /**
+     * Returns the type of a sort property.
+     *
+     * @param sortBy the sort property
+     * @return the type of the property
+     * @throws InvalidPageRequestException if the sort property is not supported
+     */
+    private static Class<?> sortType(String sortBy) {
+        var type = SORT_PROPERTIES.get(sortBy);
+        if (type == null) {
+            throw new InvalidPageRequestException("Unsupported sort property for keyset pagination: " + sortBy
+                    + ", supported are " + SORT_PROPERTIES.keySet());
+        }
+        return type;
+    }
+
+    /**
+     * Converts a sort key decoded from a cursor to the type of the sort property.
+     *
+     * @param type the type of the sort property
+     * @param key  the decoded key
+     * @return the key as the property type
+     * @throws InvalidPageRequestException if the key does not match the property type
+     */
+    private static Object toKey(Class<?> type, Object key) {
+        if (type == String.class && key instanceof String) {
+            return key;
+        }
+        if (type == Integer.class && key instanceof Number number) {
+            return number.intValue();
+        }
+        if (type == Date.class && key instanceof Number number) {
+            return new Date(number.longValue());
+        }
+        throw new InvalidPageRequestException("Invalid cursor key for sort property type " + type.getSimpleName());
+    }
+}
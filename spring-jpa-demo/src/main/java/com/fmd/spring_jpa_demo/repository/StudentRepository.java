@@ -1,12 +1,108 @@
 package com.fmd.spring_jpa_demo.repository;
 
+import com.fmd.spring_jpa_demo.dto.StudentAddressRow;
+import com.fmd.spring_jpa_demo.dto.StudentVersion;
 import com.fmd.spring_jpa_demo.entity.Student;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
 /**
  * Repository interface for Student entity CRUD operations.
+ * <p>
+ * Keyset pagination is provided by the {@link StudentKeysetRepository} fragment, the targeted update and delete
+ * statements by the {@link StudentStatementRepository} fragment.
  */
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Integer> {
+public interface StudentRepository extends JpaRepository<Student, Integer>, StudentKeysetRepository,
+        StudentStatementRepository {
+
+    /**
+     * Selects students left joined with their addresses into {@link StudentAddressRow} projections.
+     */
+    String SELECT_STUDENT_ADDRESS_ROWS = "select new com.fmd.spring_jpa_demo.dto.StudentAddressRow("
+            + "s.id, s.firstName, s.lastName, s.createdAt, s.modifiedAt, s.version, "
+            + "a.id, a.area, a.city, a.zipcode, a.createdAt, a.modifiedAt) "
+            + "from Student s left join s.addressList a";
+
+    /**
+     * Retrieves a page of student versions, without loading the students or their addresses.
+     *
+     * @param pageable the page and sort to apply
+     * @return a page of student IDs with their versions and modification timestamps
+     */
+    @Query(value = "select new com.fmd.spring_jpa_demo.dto.StudentVersion(s.id, s.version, s.modifiedAt) "
+            + "from Student s",
+            countQuery = "select count(s) from Student s")
+    Page<StudentVersion> findPageOfVersions(Pageable pageable);
+
+    /**
+     * Retrieves the version of a student, without loading it or its addresses.
+     *
+     * @param id the student ID
+     * @return the student ID with its version and modification timestamp, empty if the student does not exist
+     */
+    @Query("select new com.fmd.spring_jpa_demo.dto.StudentVersion(s.id, s.version, s.modifiedAt) from Student s "
+            + "where s.id = :id")
+    Optional<StudentVersion> findVersionById(@Param("id") int id);
+
+    /**
+     * Retrieves a slice of student IDs without counting the students.
+     *
+     * @param pageable the page and sort to apply
+     * @return a slice of student IDs
+     */
+    @Query("select s.id from Student s")
+    Slice<Integer> findSliceOfIds(Pageable pageable);
+
+    /**
+     * Retrieves the student with the given ID and its addresses as read-only rows, without loading any entity.
+     *
+     * @param id the student ID
+     * @return one row per address ordered by address ID, a single row without address columns if the student has
+     * no address, empty if the student does not exist
+     */
+    @Query(SELECT_STUDENT_ADDRESS_ROWS + " where s.id = :id order by a.id")
+    List<StudentAddressRow> findRowsById(@Param("id") int id);
+
+    /**
+     * Retrieves the students with the given IDs and their addresses as read-only rows, in a single query and
+     * without loading any entity.
+     *
+     * @param ids the student IDs
+     * @return one row per address, or per student without address, ordered by student and address ID
+     */
+    @Query(SELECT_STUDENT_ADDRESS_ROWS + " where s.id in :ids order by s.id, a.id")
+    List<StudentAddressRow> findRowsByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Retrieves which of the given student IDs exist, locking their rows until the end of the transaction so
+     * they can be deleted by the same transaction.
+     *
+     * @param ids the student IDs
+     * @return the existing student IDs, in ascending order
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.id from Student s where s.id in :ids order by s.id")
+    List<Integer> lockExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Finds the IDs of the addresses of a student.
+     *
+     * @param studentId the student ID
+     * @return the address IDs of the student
+     */
+    @Query("select a.id from Address a where a.student.id = :studentId")
+    Set<Integer> findAddressIdsOfStudent(@Param("studentId") int studentId);
 }
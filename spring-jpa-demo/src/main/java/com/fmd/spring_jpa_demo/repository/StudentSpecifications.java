@@ -0,0 +1,101 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import jakarta.persistence.criteria.Predicate;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications of student searches.
+ * <p>
+ * Criteria are case-sensitive prefixes, matched with {@code like 'prefix%'} so that they are range scans of the
+ * name indexes of {@link Student} and the city and zipcode indexes of {@link Address}. Each criterion is an
+ * uncorrelated {@code s.id in (select ...)} subquery rather than a filter on the searched rows: the database
+ * resolves the matching IDs from the criterion's index first and then seeks them by primary key, whatever the sort
+ * of the search, instead of walking the sort index and filtering it row by row, which costs a scan of the table
+ * when matches are sparse. A student with several matching addresses is returned once.
+ */
+@UtilityClass
+public class StudentSpecifications {
+
+    /**
+     * Escape character of the like patterns.
+     */
+    private static final char ESCAPE = '\\';
+
+    /**
+     * Combines the given search criteria, ignoring blank ones.
+     *
+     * @param criteria the search criteria
+     * @return the specification matching students that meet all the criteria
+     */
+    public static Specification<Student> matching(StudentSearchCriteria criteria) {
+        List<Specification<Student>> specifications = new ArrayList<>();
+        if (StringUtils.hasText(criteria.firstName())) {
+            specifications.add(startsWith("firstName", criteria.firstName()));
+        }
+        if (StringUtils.hasText(criteria.lastName())) {
+            specifications.add(startsWith("lastName", criteria.lastName()));
+        }
+        if (StringUtils.hasText(criteria.city()) || StringUtils.hasText(criteria.zipcode())) {
+            specifications.add(hasAddress(criteria.city(), criteria.zipcode()));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    /**
+     * Matches students whose attribute starts with the given prefix.
+     *
+     * @param attribute the student attribute
+     * @param prefix    the prefix
+     * @return the specification
+     */
+    public static Specification<Student> startsWith(String attribute, String prefix) {
+        return (root, query, cb) -> {
+            var subquery = query.subquery(Integer.class);
+            var student = subquery.from(Student.class);
+            subquery.select(student.get("id"))
+                    .where(cb.like(student.get(attribute), likePrefix(prefix), ESCAPE));
+            return root.get("id").in(subquery);
+        };
+    }
+
+    /**
+     * Matches students having an address whose city and zipcode start with the given prefixes.
+     *
+     * @param cityPrefix    the prefix of the city, blank to match any
+     * @param zipcodePrefix the prefix of the zipcode, blank to match any
+     * @return the specification
+     */
+    public static Specification<Student> hasAddress(String cityPrefix, String zipcodePrefix) {
+        return (root, query, cb) -> {
+            var subquery = query.subquery(Integer.class);
+            var address = subquery.from(Address.class);
+            List<Predicate> predicates = new ArrayList<>();
+            if (StringUtils.hasText(cityPrefix)) {
+                predicates.add(cb.like(address.get("city"), likePrefix(cityPrefix), ESCAPE));
+            }
+            if (StringUtils.hasText(zipcodePrefix)) {
+                predicates.add(cb.like(address.get("zipcode"), likePrefix(zipcodePrefix), ESCAPE));
+            }
+            subquery.select(address.get("student").get("id")).where(predicates.toArray(Predicate[]::new));
+            return root.get("id").in(subquery);
+        };
+    }
+
+    /**
+     * Creates the like pattern of a prefix, matching its wildcard characters literally.
+     *
+     * @param prefix the prefix
+     * @return the like pattern
+     */
+    private static String likePrefix(String prefix) {
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,79 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * Repository fragment for the targeted update and delete statements of students and addresses, run without loading
+ * them. All of them must run within a transaction.
+ * <p>
+ * With the second-level cache enabled, each statement evicts only the cached students, address collections and
+ * addresses it changes, instead of the whole regions of the tables it touches.
+ */
+public interface StudentStatementRepository {
+
+    /**
+     * Deletes the addresses of the given students with a single statement, without loading them.
+     *
+     * @param studentIds the student IDs
+     * @return the number of addresses deleted
+     */
+    int deleteAddressesByStudentIdIn(Collection<Integer> studentIds);
+
+    /**
+     * Deletes the given students with a single statement, without loading them. Their addresses must be deleted
+     * first.
+     *
+     * @param ids the student IDs
+     * @return the number of students deleted
+     */
+    int deleteByIdIn(Collection<Integer> ids);
+
+    /**
+     * Updates the names of a student with a single statement, without loading it, and increments its version.
+     * A null name is left unchanged.
+     *
+     * @param id         the student ID
+     * @param firstName  the new first name, or null to keep it
+     * @param lastName   the new last name, or null to keep it
+     * @param modifiedAt the modification timestamp
+     * @return the number of students updated, 0 if the student does not exist
+     */
+    int patchStudent(int id, String firstName, String lastName, Date modifiedAt);
+
+    /**
+     * Updates the names of a student with a single statement if it has one of the expected versions, without
+     * loading it. A null name is left unchanged.
+     *
+     * @param id         the student ID
+     * @param versions   the expected versions of the student, not empty
+     * @param firstName  the new first name, or null to keep it
+     * @param lastName   the new last name, or null to keep it
+     * @param modifiedAt the modification timestamp
+     * @return the number of students updated, 0 if the student does not exist or has another version
+     */
+    int patchStudentIfVersion(int id, Collection<Long> versions, String firstName, String lastName, Date modifiedAt);
+
+    /**
+     * Replaces the fields of an address of a student with a single statement, without loading it, as a full update
+     * of the loaded address does.
+     *
+     * @param studentId  the student ID
+     * @param id         the address ID
+     * @param area       the new area
+     * @param city       the new city
+     * @param zipcode    the new zipcode
+     * @param modifiedAt the modification timestamp
+     * @return the number of addresses updated, 0 if the student has no such address
+     */
+    int replaceAddress(int studentId, int id, String area, String city, String zipcode, Date modifiedAt);
+
+    /**
+     * Deletes addresses of a student with a single statement, without loading them.
+     *
+     * @param studentId the student ID
+     * @param ids       the address IDs
+     * @return the number of addresses deleted, addresses of other students are not deleted
+     */
+    int deleteAddressesOfStudent(int studentId, Collection<Integer> ids);
+}
@@ -0,0 +1,185 @@
+package com.fmd.spring_jpa_demo.repository;
+
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Targeted statements of students and addresses as native SQL, evicting only the cache entries they change.
+ * <p>
+ * Hibernate cannot tell which rows a JPQL bulk statement changes, so it evicts the whole cache regions of the
+ * tables it touches, and all of them for a native statement declaring no query space. These statements declare
+ * {@link #QUERY_SPACE}, the table of no entity, so no region is evicted, and evict the changed IDs instead. They are
+ * evicted once the statement ran, so the transaction reads its own changes, and again once it completes, in case a
+ * concurrent transaction cached the previous state in between.
+ */
+@Slf4j
+public class StudentStatementRepositoryImpl implements StudentStatementRepository {
+
+    /**
+     * Query space of the statements, matching no entity table so that no cache region is evicted by Hibernate.
+     */
+    static final String QUERY_SPACE = "student_statement";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteAddressesByStudentIdIn(Collection<Integer> studentIds) {
+        // The deleted addresses are only known before the statement, and only needed to evict them
+        List<Integer> addressIds = cacheEnabled()
+                ? entityManager.createQuery("select a.id from Address a where a.student.id in :studentIds",
+                        Integer.class).setParameter("studentIds", studentIds).getResultList()
+                : List.of();
+        int deleted = statement("delete from address where student_id in (:studentIds)")
+                .setParameter("studentIds", studentIds)
+                .executeUpdate();
+        evict(studentIds, List.of(), addressIds);
+        return deleted;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteByIdIn(Collection<Integer> ids) {
+        int deleted = statement("delete from student where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+        evict(ids, ids, List.of());
+        return deleted;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patchStudent(int id, String firstName, String lastName, Date modifiedAt) {
+        int updated = statement("update student set first_name = coalesce(:firstName, first_name), "
+                + "last_name = coalesce(:lastName, last_name), modified_at = :modifiedAt, version = version + 1 "
+                + "where id = :id")
+                .setParameter("id", id)
+                .setParameter("firstName", firstName, String.class)
+                .setParameter("lastName", lastName, String.class)
+                .setParameter("modifiedAt", modifiedAt, Date.class)
+                .executeUpdate();
+        evict(List.of(), List.of(id), List.of());
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int patchStudentIfVersion(int id, Collection<Long> versions, String firstName, String lastName,
+                                     Date modifiedAt) {
+        int updated = statement("update student set first_name = coalesce(:firstName, first_name), "
+                + "last_name = coalesce(:lastName, last_name), modified_at = :modifiedAt, version = version + 1 "
+                + "where id = :id and version in (:versions)")
+                .setParameter("id", id)
+                .setParameter("versions", versions)
+                .setParameter("firstName", firstName, String.class)
+                .setParameter("lastName", lastName, String.class)
+                .setParameter("modifiedAt", modifiedAt, Date.class)
+                .executeUpdate();
+        evict(List.of(), List.of(id), List.of());
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int replaceAddress(int studentId, int id, String area, String city, String zipcode, Date modifiedAt) {
+        int updated = statement("update address set area = :area, city = :city, zipcode = :zipcode, "
+                + "modified_at = :modifiedAt, version = version + 1 where id = :id and student_id = :studentId")
+                .setParameter("studentId", studentId)
+                .setParameter("id", id)
+                .setParameter("area", area)
+                .setParameter("city", city)
+                .setParameter("zipcode", zipcode)
+                .setParameter("modifiedAt", modifiedAt, Date.class)
+                .executeUpdate();
+        evict(List.of(), List.of(), List.of(id));
+        return updated;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int deleteAddressesOfStudent(int studentId, Collection<Integer> ids) {
+        int deleted = statement("delete from address where student_id = :studentId and id in (:ids)")
+                .setParameter("studentId", studentId)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        evict(List.of(studentId), List.of(), ids);
+        return deleted;
+    }
+
+    /**
+     * Creates a native statement declaring {@link #QUERY_SPACE} as the only space it affects.
+     *
+     * @param sql the SQL statement
+     * @return the statement
+     */
+    private NativeQuery<?> statement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(QUERY_SPACE);
+    }
+
+    /**
+     * Tells whether the second-level cache is enabled, so that entries must be evicted.
+     *
+     * @return true if the cache is enabled
+     */
+    private boolean cacheEnabled() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    /**
+     * Evicts changed entries from the second-level cache now and once the current transaction completes.
+     *
+     * @param collectionOwnerIds the IDs of the students whose address collection changed
+     * @param studentIds         the IDs of the changed students
+     * @param addressIds         the IDs of the changed addresses
+     */
+    private void evict(Collection<Integer> collectionOwnerIds, Collection<Integer> studentIds,
+                       Collection<Integer> addressIds) {
+        if (!cacheEnabled()) {
+            return;
+        }
+        var cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        Runnable eviction = () -> {
+            collectionOwnerIds.forEach(id -> cache.evictCollectionData(Student.ADDRESSES_ROLE, id));
+            studentIds.forEach(id -> cache.evictEntityData(Student.class, id));
+            addressIds.forEach(id -> cache.evictEntityData(Address.class, id));
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+        log.debug("Evicted students {}, address collections of students {} and addresses {} from the second-level "
+                + "cache", studentIds, collectionOwnerIds, addressIds);
+    }
+}
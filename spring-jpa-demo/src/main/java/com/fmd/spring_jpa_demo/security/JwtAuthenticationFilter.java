@@ -1,5 +1,6 @@
 package com.fmd.spring_jpa_demo.security;
 
+import com.fmd.spring_jpa_demo.logging.RequestContext;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,22 +9,38 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Filter for JWT authentication. Extracts and validates JWT from the Authorization header,
  * and sets the authentication in the security context if valid.
+ * <p>
+ * Tokens that were already validated are served from the {@link JwtTokenCache} without being decoded again.
+ * When a {@link JwtSignatureVerifier} is configured, the token signature is verified locally before the
+ * token is accepted.
+ * <p>
+ * When a {@link RequestContext} is bound, the authenticated subject is added to it for the rest of the chain.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private final JwtTokenCache tokenCache;
+
+    /**
+     * Verifier for the token signature, null when local signature verification is disabled.
+     */
+    private final JwtSignatureVerifier signatureVerifier;
+
     /**
      * Filters each request to check for a valid JWT token in the Authorization header.
      *
@@ -50,6 +67,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.error("Unhandled error in JWT filter", e);
         }
 
+        // Bind the authenticated subject into the request context, if one is bound
+        var context = RequestContext.current();
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (context != null && authentication != null) {
+            try (var ignored = RequestContext.open(context.withSubject(authentication.getName()))) {
+                filterChain.doFilter(request, response);
+            }
+            return;
+        }
+
         // Continue the filter chain for the next filter or resource
         filterChain.doFilter(request, response);
     }
@@ -59,35 +86,59 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      *
      * @param request the HTTP request
      */
-    private static void authenticateRequest(HttpServletRequest request) {
+    private void authenticateRequest(HttpServletRequest request) {
         log.debug("Processing JWT authentication filter");
 
         // Retrieve the Authorization header from the request
         var authHeader = request.getHeader("Authorization");
 
+        // Serve already validated tokens from the cache, skipping decoding and validation entirely
+        var cached = StringUtils.hasText(authHeader) ? tokenCache.get(authHeader) : null;
+        if (cached != null) {
+            log.debug("User [{}] authenticated from token cache", cached.user().getUsername());
+            setAuthentication(request, cached.user(), cached.authorities());
+            return;
+        }
+
         log.info("Authenticating request with JWT token");
         // Validate and extract the JWT payload from the Authorization header
         var jwtPayload = JwtUtil.validateAndExtractPayload(authHeader);
+        if (signatureVerifier != null) {
+            // Verify the signature against the local key set, throws an exception if invalid
+            signatureVerifier.verify(authHeader);
+        }
         log.info("User [{}] authenticated successfully", jwtPayload.subject());
 
-        // If subject is present, authentication is not already set, and token is valid, set authentication
-        if (SecurityContextHolder.getContext().getAuthentication() == null) {
-            log.debug("Setting authentication for user: [{}]", jwtPayload.subject());
+        // Convert roles to GrantedAuthority list
+        var authorities = jwtPayload.roles() == null ? List.<GrantedAuthority>of() : jwtPayload.roles().stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+
+        // Create a new User object with the subject and roles from the JWT payload
+        var user = new User(jwtPayload.subject(), "", authorities);
+        tokenCache.put(authHeader, jwtPayload, user, authorities);
+        setAuthentication(request, user, authorities);
+    }
 
-            // Convert roles to GrantedAuthority list
-            var authorities = jwtPayload.roles().stream().
-                    map(SimpleGrantedAuthority::new)
-                    .toList();
+    /**
+     * Sets the authentication for the given principal in the security context, unless one is already set.
+     *
+     * @param request     the HTTP request
+     * @param user        the authenticated principal
+     * @param authorities the authorities granted to the principal
+     */
+    private static void setAuthentication(HttpServletRequest request, User user, List<GrantedAuthority> authorities) {
+        // If authentication is not already set, set it for the authenticated user
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            log.debug("Setting authentication for user: [{}]", user.getUsername());
 
-            // Create a new User object with the subject and roles from the JWT payload
-            var user = new User(jwtPayload.subject(), "", authorities);
             // Create an authentication token and set it in the security context
             var authToken = new UsernamePasswordAuthenticationToken(user, null, authorities);
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
         } else {
-            // If subject is present but token is invalid or authentication is already set
-            log.warn("Authentication already set for user: [{}]", jwtPayload.subject());
+            // If authentication is already set
+            log.warn("Authentication already set for user: [{}]", user.getUsername());
         }
     }
 }
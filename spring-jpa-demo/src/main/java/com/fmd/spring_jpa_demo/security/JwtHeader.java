@@ -0,0 +1,20 @@
+package com.fmd.spring_jpa_demo.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * JWT header record representing the JOSE header of a signed JWT token.
+ * <p>
+ * Only the members needed to select the verification key and algorithm are mapped.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record JwtHeader(
+        // Signature algorithm (e.g. RS256, ES256)
+        @JsonProperty("alg")
+        String algorithm,
+        // Identifier of the key used to sign the token
+        @JsonProperty("kid")
+        String keyId
+) {
+}
@@ -0,0 +1,154 @@
+package com.fmd.spring_jpa_demo.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Key store holding the public keys used to verify JWT signatures.
+ * <p>
+ * Keys are loaded from a JSON Web Key Set (RFC 7517) at the configured location, which can be a file,
+ * a classpath resource or a local endpoint. They are parsed once into {@link PublicKey} instances indexed
+ * by {@code kid} and the key set is refreshed in the background. When a refresh fails the previously
+ * loaded keys are kept.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.security.jwt.signature.enabled=true
+ *     com.fmd.spring-jpa-demo.security.jwt.signature.jwks-location=file:/etc/spring-jpa-demo/jwks.json
+ *     com.fmd.spring-jpa-demo.security.jwt.signature.jwks-refresh-interval=PT5M
+ * </pre>
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.security.jwt.signature", name = "enabled", havingValue = "true")
+public class JwtKeyStore {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ResourceLoader resourceLoader;
+    private final String jwksLocation;
+    private final KeyFactory rsaKeyFactory;
+    private final KeyFactory ecKeyFactory;
+    private final ECParameterSpec p256Parameters;
+
+    /**
+     * Current keys indexed by kid, replaced as a whole on every successful refresh.
+     */
+    private volatile Map<String, PublicKey> keys = Map.of();
+
+    /**
+     * Creates the key store and prepares the key factories reused by every refresh.
+     *
+     * @param resourceLoader loader used to resolve the key set location
+     * @param jwksLocation   location of the JSON Web Key Set
+     * @throws GeneralSecurityException if the RSA or EC key factories are not available
+     */
+    public JwtKeyStore(ResourceLoader resourceLoader,
+                       @Value("${com.fmd.spring-jpa-demo.security.jwt.signature.jwks-location}") String jwksLocation)
+            throws GeneralSecurityException {
+        this.resourceLoader = resourceLoader;
+        this.jwksLocation = jwksLocation;
+        this.rsaKeyFactory = KeyFactory.getInstance("RSA");
+        this.ecKeyFactory = KeyFactory.getInstance("EC");
+        var parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        this.p256Parameters = parameters.getParameterSpec(ECParameterSpec.class);
+    }
+
+    /**
+     * Returns the public key registered under the given kid.
+     * <p>
+     * A token without kid is accepted only when the key set contains a single key.
+     *
+     * @param keyId the kid from the token header, may be null
+     * @return the public key or null if there is no matching key
+     */
+    public PublicKey getKey(String keyId) {
+        var current = keys;
+        if (keyId == null) {
+            return current.size() == 1 ? current.values().iterator().next() : null;
+        }
+        return current.get(keyId);
+    }
+
+    /**
+     * Loads the key set on startup and then periodically in the background.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${com.fmd.spring-jpa-demo.security.jwt.signature.jwks-refresh-interval:PT5M}",
+            initialDelayString = "${com.fmd.spring-jpa-demo.security.jwt.signature.jwks-refresh-interval:PT5M}")
+    public void refresh() {
+        log.debug("Loading JSON Web Key Set from [{}]", jwksLocation);
+        try (var inputStream = resourceLoader.getResource(jwksLocation).getInputStream()) {
+            var loaded = new HashMap<String, PublicKey>();
+            for (JsonNode jwk : mapper.readTree(inputStream).path("keys")) {
+                try {
+                    loaded.put(jwk.path("kid").asText(), toPublicKey(jwk));
+                } catch (GeneralSecurityException | IllegalArgumentException e) {
+                    log.warn("Skipping unsupported or invalid key [{}] : {}", jwk.path("kid").asText(), e.getMessage());
+                }
+            }
+            keys = Map.copyOf(loaded);
+            log.info("Loaded {} JWT verification keys from [{}]", loaded.size(), jwksLocation);
+        } catch (Exception e) {
+            log.error("Failed to load JSON Web Key Set from [{}], keeping {} previously loaded keys",
+                    jwksLocation, keys.size(), e);
+        }
+    }
+
+    /**
+     * Converts a single JSON Web Key into a public key.
+     *
+     * @param jwk the JSON Web Key
+     * @return the public key
+     * @throws GeneralSecurityException if the key material is invalid
+     */
+    private PublicKey toPublicKey(JsonNode jwk) throws GeneralSecurityException {
+        var keyType = jwk.path("kty").asText();
+        return switch (keyType) {
+            case "RSA" -> rsaKeyFactory.generatePublic(new RSAPublicKeySpec(
+                    unsignedInteger(jwk, "n"), unsignedInteger(jwk, "e")));
+            case "EC" -> {
+                if (!"P-256".equals(jwk.path("crv").asText())) {
+                    throw new GeneralSecurityException("Unsupported EC curve: " + jwk.path("crv").asText());
+                }
+                var point = new ECPoint(unsignedInteger(jwk, "x"), unsignedInteger(jwk, "y"));
+                yield ecKeyFactory.generatePublic(new ECPublicKeySpec(point, p256Parameters));
+            }
+            default -> throw new GeneralSecurityException("Unsupported key type: " + keyType);
+        };
+    }
+
+    /**
+     * Reads a Base64url encoded unsigned big-endian integer member of a JSON Web Key.
+     *
+     * @param jwk    the JSON Web Key
+     * @param member the member name
+     * @return the integer value
+     */
+    private static BigInteger unsignedInteger(JsonNode jwk, String member) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path(member).asText()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.fmd.spring_jpa_demo.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Verifies RS256 and ES256 JWT signatures locally against the keys of the {@link JwtKeyStore}.
+ * <p>
+ * {@link Signature} instances are not thread-safe and expensive to look up, so one instance per
+ * algorithm is kept per thread and only re-initialised with the key of the token being verified.
+ * Verification time and outcome are published as the {@code jwt.signature.verification} timer,
+ * whose count also gives the verification throughput.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "com.fmd.spring-jpa-demo.security.jwt.signature", name = "enabled", havingValue = "true")
+public class JwtSignatureVerifier {
+
+    private static final int HEADER_START = "Bearer ".length();
+    private static final String RS256 = "RS256";
+    private static final String ES256 = "ES256";
+
+    private static final ObjectReader HEADER_READER = new ObjectMapper().readerFor(JwtHeader.class);
+
+    /**
+     * Per-thread pool of Signature instances, one per supported algorithm.
+     */
+    private static final ThreadLocal<Map<String, Signature>> SIGNATURES = ThreadLocal.withInitial(() -> {
+        try {
+            return Map.of(RS256, Signature.getInstance("SHA256withRSA"),
+                    ES256, Signature.getInstance("SHA256withECDSAinP1363Format"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JWT signature algorithms are not available", e);
+        }
+    });
+
+    private final JwtKeyStore keyStore;
+    private final Map<String, Timer> timers = new HashMap<>();
+
+    /**
+     * Creates the verifier and preallocates its timers for every algorithm and outcome.
+     *
+     * @param keyStore      the key store holding the verification keys
+     * @param meterRegistry registry to publish the verification metrics to
+     */
+    public JwtSignatureVerifier(JwtKeyStore keyStore, MeterRegistry meterRegistry) {
+        this.keyStore = keyStore;
+        for (String algorithm : new String[]{RS256, ES256}) {
+            for (String outcome : new String[]{"valid", "invalid"}) {
+                timers.put(algorithm + outcome, Timer.builder("jwt.signature.verification")
+                        .tag("alg", algorithm)
+                        .tag("outcome", outcome)
+                        .description("JWT signature verifications")
+                        .register(meterRegistry));
+            }
+        }
+    }
+
+    /**
+     * Verifies the signature of a structurally valid token taken from the Authorization header.
+     *
+     * @param authHeader the Authorization header value, already validated by {@link JwtUtil}
+     * @throws JwtValidationException if the algorithm or key is not supported or the signature does not match
+     */
+    public void verify(String authHeader) {
+        log.trace("Verifying JWT token signature");
+        int headerEnd = authHeader.indexOf('.', HEADER_START);
+        int payloadEnd = authHeader.indexOf('.', headerEnd + 1);
+
+        JwtHeader header;
+        try {
+            header = HEADER_READER.readValue(JwtUtil.decodeSegment(authHeader, HEADER_START, headerEnd));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JwtParseException("Failed to parse JWT header", e);
+        }
+
+        var algorithm = header.algorithm();
+        if (!RS256.equals(algorithm) && !ES256.equals(algorithm)) {
+            throw new JwtValidationException("Unsupported JWT signature algorithm: " + algorithm);
+        }
+        PublicKey key = keyStore.getKey(header.keyId());
+        if (key == null) {
+            throw new JwtValidationException("No verification key found for kid: " + header.keyId());
+        }
+
+        long start = System.nanoTime();
+        boolean valid;
+        try {
+            var signature = SIGNATURES.get().get(algorithm);
+            signature.initVerify(key);
+            signature.update(authHeader.substring(HEADER_START, payloadEnd).getBytes(US_ASCII));
+            valid = signature.verify(JwtUtil.decodeSegment(authHeader, payloadEnd + 1, authHeader.length()));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            log.debug("JWT signature verification failed", e);
+            valid = false;
+        }
+        timers.get(algorithm + (valid ? "valid" : "invalid")).record(System.nanoTime() - start, NANOSECONDS);
+
+        if (!valid) {
+            throw new JwtValidationException("JWT token signature is invalid");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.fmd.spring_jpa_demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bounded, concurrent cache of already validated JWT tokens.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the Authorization header, so raw tokens are never retained,
+ * and hold the principal and authorities built for the token. An entry expires at the token's {@code exp}
+ * claim or after the configured TTL, whichever comes first, and an expired entry is never served.
+ * <p>
+ * The entries are held in a Caffeine cache bounded by the maximum size, so a full cache evicts the entries least
+ * likely to be used again in amortized constant time instead of scanning all entries.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.security.token-cache.enabled=true
+ *     com.fmd.spring-jpa-demo.security.token-cache.max-size=10000
+ *     com.fmd.spring-jpa-demo.security.token-cache.ttl=5m
+ * </pre>
+ * Hits, misses, evictions and the current size are published as {@code jwt.token.cache.*} metrics.
+ *
+ * @author Shailesh Halor
+ */
+@Slf4j
+public class JwtTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Cache<String, CachedAuthentication> entries;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * Creates the token cache and registers its metrics.
+     *
+     * @param enabled       whether caching is enabled, a disabled cache never stores nor returns entries
+     * @param maxSize       maximum number of cached tokens
+     * @param ttl           maximum time an entry is kept, regardless of the token expiration
+     * @param meterRegistry registry to publish the cache metrics to
+     */
+    public JwtTokenCache(boolean enabled, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.enabled = enabled && maxSize > 0;
+        this.ttl = ttl;
+        this.hits = Counter.builder("jwt.token.cache.requests").tag("result", "hit")
+                .description("JWT token cache lookups").register(meterRegistry);
+        this.misses = Counter.builder("jwt.token.cache.requests").tag("result", "miss")
+                .description("JWT token cache lookups").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.token.cache.evictions")
+                .description("JWT token cache entries evicted on expiry or size limit").register(meterRegistry);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfter(new ExpiresAt())
+                // Maintenance runs on the calling threads, it is amortized constant time
+                .executor(Runnable::run)
+                .removalListener((String key, CachedAuthentication value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        Gauge.builder("jwt.token.cache.size", entries, Cache::estimatedSize)
+                .description("Number of cached JWT tokens").register(meterRegistry);
+        log.debug("JWT token cache enabled [{}], max size [{}], ttl [{}]", this.enabled, maxSize, ttl);
+    }
+
+    /**
+     * Returns the cached authentication for the given Authorization header, if present and not expired.
+     *
+     * @param authHeader the Authorization header value
+     * @return the cached authentication or null on a miss
+     */
+    public CachedAuthentication get(String authHeader) {
+        if (!enabled) {
+            return null;
+        }
+        // Expired entries are never returned, the token then goes through full validation again
+        var cached = entries.getIfPresent(digest(authHeader));
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    /**
+     * Caches the authentication built for a validated token until its expiration or the TTL elapses.
+     *
+     * @param authHeader  the Authorization header value
+     * @param jwtPayload  the validated JWT payload
+     * @param user        the principal built for the token
+     * @param authorities the authorities granted by the token
+     */
+    public void put(String authHeader, JwtPayload jwtPayload, User user, List<? extends GrantedAuthority> authorities) {
+        if (!enabled) {
+            return;
+        }
+        var now = Instant.now();
+        var maxExpiry = now.plus(ttl);
+        var expiresAt = jwtPayload.expiration().isBefore(maxExpiry) ? jwtPayload.expiration() : maxExpiry;
+        if (!expiresAt.isAfter(now)) {
+            return;
+        }
+        entries.put(digest(authHeader), new CachedAuthentication(user, List.copyOf(authorities), expiresAt));
+    }
+
+    /**
+     * Computes the cache key of an Authorization header.
+     *
+     * @param authHeader the Authorization header value
+     * @return the Base64 encoded SHA-256 digest of the header
+     */
+    private static String digest(String authHeader) {
+        var sha256 = SHA_256.get();
+        sha256.reset();
+        return Base64.getEncoder().withoutPadding().encodeToString(sha256.digest(authHeader.getBytes(UTF_8)));
+    }
+
+    /**
+     * Expires each entry at its own expiration instant, the earlier of the token expiration and the TTL.
+     */
+    private static final class ExpiresAt implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            return Math.max(Duration.between(Instant.now(), value.expiresAt()).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Authentication data cached for a validated token.
+     *
+     * @param user        the principal built for the token
+     * @param authorities the authorities granted by the token
+     * @param expiresAt   the instant after which the entry must not be served
+     */
+    public record CachedAuthentication(User user, List<GrantedAuthority> authorities, Instant expiresAt) {
+    }
+}
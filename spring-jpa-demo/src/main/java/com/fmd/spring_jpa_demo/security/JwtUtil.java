@@ -1,23 +1,55 @@
 package com.fmd.spring_jpa_demo.security;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
 import java.time.Instant;
-import java.util.Base64;
+import java.util.Arrays;
 
 /**
  * Utility class for handling JWT operations such as extracting username, validating tokens,
  * and parsing JWT payloads.
+ * <p>
+ * The payload is decoded without splitting the token or building intermediate strings: the
+ * segment boundaries are located by index, the Base64url payload is decoded into a per-thread
+ * reusable buffer and the claims are streamed straight into {@link JwtPayload} by a shared reader.
  */
 @Slf4j
 @UtilityClass
 public class JwtUtil {
 
+    /**
+     * Prefix expected in front of the token in the Authorization header.
+     */
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    /**
+     * Initial size of the per-thread payload buffer, large enough for typical access tokens.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /**
+     * Reverse lookup table for the Base64url alphabet, -1 for characters outside of it.
+     */
+    private static final byte[] BASE64_URL_VALUES = base64UrlValues();
+
+    /**
+     * Shared, immutable and thread-safe reader for JWT payloads. Built once with the
+     * JavaTimeModule registered so the {@code iat}/{@code exp} claims map onto {@link Instant}.
+     */
+    private static final ObjectReader PAYLOAD_READER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .readerFor(JwtPayload.class);
+
+    /**
+     * Per-thread buffer the payload segment is decoded into, grown on demand.
+     */
+    private static final ThreadLocal<byte[]> PAYLOAD_BUFFER =
+            ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
 
     /**
      * Extracts the payload from the JWT token and parses it into a JwtPayload object.
@@ -37,24 +69,22 @@ public class JwtUtil {
 
         log.trace("Token starts with 'Bearer ' check");
         // Check if the token starts with "Bearer "
-        if (!token.startsWith("Bearer ")) {
-            throw new JwtParseException("JWT token does not start with 'Bearer ': " + token.substring(0, 7));
+        if (!token.startsWith(BEARER_PREFIX)) {
+            throw new JwtParseException("JWT token does not start with 'Bearer ': "
+                    + token.substring(0, Math.min(token.length(), BEARER_PREFIX.length())));
         }
 
         log.trace("Checking if token has 3 parts");
-        // Split the token into parts
-        var parts = token.split("\\.");
-        // Check if the token has 3 parts
-        if (parts.length != 3) {
+        // Locate the two separating dots, the token must have exactly 3 non-empty trailing parts
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0 || payloadEnd == token.length() - 1) {
             throw new JwtParseException("JWT token does not have 3 parts");
         }
 
         log.trace("Decoding payload part of JWT token");
-        // Decode the payloadPart part of the JWT token
-        var payloadPart = new String(Base64.getUrlDecoder().decode(parts[1]));
-
-        // parse the payload part into a JwtPayload object
-        var jwtPayload = parsePayload(payloadPart);
+        // Decode the payload part of the JWT token into the reusable buffer and parse it into a JwtPayload object
+        var jwtPayload = parsePayload(token, headerEnd + 1, payloadEnd);
 
         log.debug("Validating JWT payload");
         // Validate the JWT payload, throws an exception if invalid
@@ -64,25 +94,27 @@ public class JwtUtil {
     }
 
     /**
-     * Parses the JWT payload string into a JwtPayload object.
+     * Decodes the Base64url payload segment of the token and parses it into a JwtPayload object.
      *
-     * @param payloadString the JWT payload as a JSON string
+     * @param token the complete token
+     * @param start index of the first character of the payload segment
+     * @param end   index after the last character of the payload segment
      * @return the JwtPayload object
-     * @throws JwtParseException if parsing fails
+     * @throws JwtParseException if decoding or parsing fails
      */
-    private JwtPayload parsePayload(String payloadString) {
+    private JwtPayload parsePayload(String token, int start, int end) {
 
         log.debug("Parsing JWT payload");
         try {
-
-            // Create an ObjectMapper instance for JSON parsing
-            ObjectMapper mapper = new ObjectMapper();
-            // Register the JavaTimeModule to handle Java 8 date/time types
-            mapper.registerModule(new JavaTimeModule());
-            // Disable writing dates as timestamps
-            mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-            // Parse the JSON string into a JwtPayload object using Jackson
-            JwtPayload jwtPayload = mapper.readValue(payloadString, JwtPayload.class);
+            var buffer = PAYLOAD_BUFFER.get();
+            int required = (end - start) * 3 / 4;
+            if (buffer.length < required) {
+                buffer = new byte[Math.max(required, buffer.length * 2)];
+                PAYLOAD_BUFFER.set(buffer);
+            }
+            int length = decodeBase64Url(token, start, end, buffer);
+            // Parse the decoded JSON bytes into a JwtPayload object using the shared reader
+            JwtPayload jwtPayload = PAYLOAD_READER.readValue(buffer, 0, length);
             log.trace("Parsed JWT payload: {}", jwtPayload);
 
             return jwtPayload;
@@ -92,6 +124,75 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * Decodes a Base64url segment of the given token into a new, exactly sized array.
+     * Used for the small header and signature segments.
+     *
+     * @param token the complete token
+     * @param start index of the first character of the segment
+     * @param end   index after the last character of the segment
+     * @return the decoded bytes
+     * @throws IllegalArgumentException if the segment is not valid Base64url
+     */
+    byte[] decodeSegment(String token, int start, int end) {
+        var segment = new byte[(end - start) * 3 / 4];
+        int length = decodeBase64Url(token, start, end, segment);
+        return length == segment.length ? segment : Arrays.copyOf(segment, length);
+    }
+
+    /**
+     * Decodes a Base64url segment (padded or unpadded) of the given string into the target buffer.
+     *
+     * @param source the string containing the segment
+     * @param start  index of the first character of the segment
+     * @param end    index after the last character of the segment
+     * @param target the buffer to decode into, at least {@code (end - start) * 3 / 4} bytes long
+     * @return the number of decoded bytes
+     * @throws IllegalArgumentException if the segment is not valid Base64url
+     */
+    private int decodeBase64Url(String source, int start, int end, byte[] target) {
+        // Ignore trailing padding, it carries no information
+        while (end > start && source.charAt(end - 1) == '=') {
+            end--;
+        }
+        if ((end - start) % 4 == 1) {
+            throw new IllegalArgumentException("Invalid Base64url length");
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_URL_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Illegal Base64url character at index " + (i - start));
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                target[length++] = (byte) (bits >> bitCount);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Builds the reverse lookup table for the Base64url alphabet.
+     *
+     * @return table mapping ASCII characters to their 6-bit value, -1 if not part of the alphabet
+     */
+    private byte[] base64UrlValues() {
+        var alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        var values = new byte[128];
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < alphabet.length(); i++) {
+            values[alphabet.charAt(i)] = (byte) i;
+        }
+        return values;
+    }
+
     /**
      * validate subject and expiration date.
      *
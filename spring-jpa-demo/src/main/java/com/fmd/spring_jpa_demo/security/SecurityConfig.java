@@ -1,7 +1,11 @@
 package com.fmd.spring_jpa_demo.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,6 +19,8 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 /**
  * Security configuration for the application. Sets up JWT authentication filter and stateless session management.
  */
@@ -28,20 +34,47 @@ public class SecurityConfig {
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
 
+    /**
+     * Provides the cache of already validated JWT tokens used by the authentication filter.
+     *
+     * @param enabled       whether the token cache is enabled
+     * @param maxSize       maximum number of cached tokens
+     * @param ttl           maximum time a validated token is cached, capped by the token expiration
+     * @param meterRegistry registry to publish the cache metrics to
+     * @return the JwtTokenCache instance
+     */
+    @Bean
+    public JwtTokenCache jwtTokenCache(@Value("${com.fmd.spring-jpa-demo.security.token-cache.enabled:true}") boolean enabled,
+                                       @Value("${com.fmd.spring-jpa-demo.security.token-cache.max-size:10000}") int maxSize,
+                                       @Value("${com.fmd.spring-jpa-demo.security.token-cache.ttl:5m}") Duration ttl,
+                                       MeterRegistry meterRegistry) {
+        return new JwtTokenCache(enabled, maxSize, ttl, meterRegistry);
+    }
+
+    /**
+     * Provides the JWT authentication filter.
+     *
+     * @param jwtTokenCache     the cache of already validated tokens
+     * @param signatureVerifier the signature verifier, available only when local verification is enabled
+     * @return the JwtAuthenticationFilter instance
+     */
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter();
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtTokenCache jwtTokenCache,
+                                                           ObjectProvider<JwtSignatureVerifier> signatureVerifier) {
+        return new JwtAuthenticationFilter(jwtTokenCache, signatureVerifier.getIfAvailable());
     }
 
     /**
      * Configures the security filter chain, disables CSRF, sets stateless session, and adds JWT filter.
      *
-     * @param http the HttpSecurity to modify
+     * @param http                    the HttpSecurity to modify
+     * @param jwtAuthenticationFilter the JWT authentication filter to add to the chain
      * @return the configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
         log.debug("Configuring security filter chain");
 
         // Disable CSRF protection as JWT is used
@@ -63,14 +96,18 @@ public class SecurityConfig {
             auth.requestMatchers("/auth/**").permitAll();
             auth.requestMatchers("/actuator/**").permitAll();
             auth.requestMatchers("/h2-console/**").permitAll();
+            // Cache invalidations between replicas are authenticated by their shared secret, not by a user token
+            auth.requestMatchers(HttpMethod.POST, "/internal/cache/**").permitAll();
             // Allow all OPTIONS requests (CORS preflight)
             auth.requestMatchers(HttpMethod.OPTIONS, "/**").permitAll();
+            // Async dispatches complete requests already authorized on their initial dispatch, such as streamed exports
+            auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
             // Require authentication for all other requests
             auth.anyRequest().authenticated();
         });
 
         // Add the JWT authentication filter before the default UsernamePasswordAuthenticationFilter
-        http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
         // Build and return the configured SecurityFilterChain
         return http.build();
     }
@@ -0,0 +1,301 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fmd.spring_jpa_demo.dto.BulkItemResult;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.mapper.StudentMapper;
+import com.fmd.spring_jpa_demo.entity.Base;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Persists and deletes students in bulk, in chunks committed in their own transaction.
+ * <p>
+ * Each chunk is inserted with Hibernate JDBC batching and ordered inserts, see {@code spring.jpa.properties.hibernate.jdbc},
+ * and takes its IDs from the pooled sequence of {@link Base}, so a chunk costs a few batched statements instead of
+ * two round trips per row. The persistence context is cleared after each chunk to keep memory flat.
+ * <p>
+ * Invalid students are reported without being sent to the database. If a chunk fails, it is rolled back and its
+ * students are retried one per transaction, so only the faulty students are reported as failed.
+ * <p>
+ * Deletes are set-based: each chunk costs one statement locking the existing students, then one delete statement
+ * for their addresses and one for the students, without loading any entity.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.student.bulk.chunk-size=500
+ * </pre>
+ */
+@Slf4j
+@Component
+public class StudentBulkWriter {
+
+    private final EntityManager entityManager;
+    private final StudentRepository studentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentMapper studentMapper;
+    private final Validator validator;
+
+    /**
+     * Number of students committed per transaction.
+     */
+    @Getter
+    private final int chunkSize;
+
+    /**
+     * Creates the writer.
+     *
+     * @param entityManager       the shared entity manager
+     * @param studentRepository   the student repository
+     * @param transactionTemplate the template running each chunk in its own transaction
+     * @param studentMapper       the student mapper
+     * @param validator           the bean validator checking each student
+     * @param chunkSize           the number of students committed per transaction
+     */
+    public StudentBulkWriter(EntityManager entityManager,
+                             StudentRepository studentRepository,
+                             TransactionTemplate transactionTemplate,
+                             StudentMapper studentMapper,
+                             Validator validator,
+                             @Value("${com.fmd.spring-jpa-demo.student.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk chunk size must be positive: " + chunkSize);
+        }
+        this.entityManager = entityManager;
+        this.studentRepository = studentRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.studentMapper = studentMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates the given students, reporting the outcome of each of them.
+     *
+     * @param students the students to create
+     * @return the outcome of each student, in the order of the given students
+     */
+    public List<BulkItemResult> createAll(List<StudentDTO> students) {
+        return createAll(students, indexes -> {
+        });
+    }
+
+    /**
+     * Creates the given students, reporting the outcome of each of them, and calls the listener within each
+     * transaction once its students are inserted, so the caller can record their progress atomically with them.
+     * An exception thrown by the listener rolls back the transaction and is rethrown, without retrying its students.
+     *
+     * @param students the students to create
+     * @param listener the listener called before each commit
+     * @return the outcome of each student, in the order of the given students
+     */
+    public List<BulkItemResult> createAll(List<StudentDTO> students, CommitListener listener) {
+        var results = new BulkItemResult[students.size()];
+        var chunk = new ArrayList<Integer>(Math.min(chunkSize, students.size()));
+        for (int index = 0; index < students.size(); index++) {
+            // Report invalid students straight away, only valid ones are sent to the database
+            var error = validate(students.get(index));
+            if (error != null) {
+                results[index] = BulkItemResult.failed(index, error);
+                continue;
+            }
+            chunk.add(index);
+            if (chunk.size() == chunkSize) {
+                persistChunk(chunk, students, results, listener);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persistChunk(chunk, students, results, listener);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deletes the students with the given IDs and their addresses, ignoring the IDs of missing students.
+     *
+     * @param ids the student IDs
+     * @return the IDs of the students actually deleted
+     */
+    public List<Integer> deleteAll(Collection<Integer> ids) {
+        var distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        var deleted = new ArrayList<Integer>();
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            var chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            deleted.addAll(transactionTemplate.execute(status -> delete(chunk)));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the existing students among the given IDs within the current transaction.
+     *
+     * @param ids the student IDs
+     * @return the IDs of the students deleted
+     */
+    private List<Integer> delete(List<Integer> ids) {
+        // Lock the existing students first, so the returned IDs are exactly those removed by this transaction
+        var existingIds = studentRepository.lockExistingIds(ids);
+        if (!existingIds.isEmpty()) {
+            int addresses = studentRepository.deleteAddressesByStudentIdIn(existingIds);
+            int students = studentRepository.deleteByIdIn(existingIds);
+            log.debug("Deleted {} students and {} addresses", students, addresses);
+        }
+        return existingIds;
+    }
+
+    /**
+     * Persists a chunk of students in one transaction, or one per student if the chunk fails.
+     *
+     * @param indexes  the positions of the students of the chunk
+     * @param students all the students of the request
+     * @param results  the outcome of each student, filled for the students of the chunk
+     * @param listener the listener called before the commit
+     */
+    private void persistChunk(List<Integer> indexes, List<StudentDTO> students, BulkItemResult[] results,
+                              CommitListener listener) {
+        try {
+            var ids = transactionTemplate.execute(status -> {
+                var chunkIds = persist(indexes.stream().map(students::get).toList());
+                notifyListener(listener, indexes);
+                return chunkIds;
+            });
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = BulkItemResult.created(indexes.get(i), ids.get(i));
+            }
+            log.debug("Persisted chunk of {} students", indexes.size());
+        } catch (ListenerException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            // The rolled back chunk leaves nothing behind, retry its students one by one to isolate the faulty ones
+            log.warn("Chunk of {} students failed, retrying them one by one: {}", indexes.size(), e.getMessage());
+            for (int index : indexes) {
+                results[index] = persistOne(index, students.get(index), listener);
+            }
+        }
+    }
+
+    /**
+     * Persists a single student in its own transaction.
+     *
+     * @param index    the position of the student in the request
+     * @param student  the student
+     * @param listener the listener called before the commit
+     * @return the outcome of the student
+     */
+    private BulkItemResult persistOne(int index, StudentDTO student, CommitListener listener) {
+        try {
+            var ids = transactionTemplate.execute(status -> {
+                var studentIds = persist(List.of(student));
+                notifyListener(listener, List.of(index));
+                return studentIds;
+            });
+            return BulkItemResult.created(index, ids.get(0));
+        } catch (ListenerException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            log.debug("Student at index {} failed", index, e);
+            return BulkItemResult.failed(index, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    /**
+     * Persists students within the current transaction, flushing the batched inserts and detaching them.
+     *
+     * @param students the students
+     * @return the generated IDs, in the order of the students
+     */
+    private List<Integer> persist(List<StudentDTO> students) {
+        var entities = students.stream().map(studentMapper::toEntity).toList();
+        entities.forEach(entityManager::persist);
+        // Send the batched inserts, then detach the chunk to keep the persistence context small
+        entityManager.flush();
+        entityManager.clear();
+        return entities.stream().map(Student::getId).toList();
+    }
+
+    /**
+     * Calls the listener, marking its exception so it is not mistaken for a failure of the students.
+     *
+     * @param listener the listener
+     * @param indexes  the positions of the students inserted by the transaction
+     */
+    private static void notifyListener(CommitListener listener, List<Integer> indexes) {
+        try {
+            listener.beforeCommit(indexes);
+        } catch (RuntimeException e) {
+            throw new ListenerException(e);
+        }
+    }
+
+    /**
+     * Validates a student to create.
+     *
+     * @param student the student
+     * @return the validation errors, or null if the student is valid
+     */
+    private String validate(StudentDTO student) {
+        if (student == null) {
+            return "Student must not be null";
+        }
+        if (student.id() != 0) {
+            return "ID must not be set when creating a student";
+        }
+        var violations = validator.validate(student);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Listener of the transactions inserting students.
+     */
+    @FunctionalInterface
+    public interface CommitListener {
+
+        /**
+         * Called within a transaction once its students are inserted, before it commits.
+         *
+         * @param indexes the positions of the students inserted by the transaction, in increasing order
+         */
+        void beforeCommit(List<Integer> indexes);
+    }
+
+    /**
+     * Exception of a {@link CommitListener}, rethrown unwrapped once its transaction is rolled back.
+     */
+    private static final class ListenerException extends RuntimeException {
+
+        /**
+         * Wraps the exception of a listener.
+         *
+         * @param cause the exception of the listener
+         */
+        ListenerException(RuntimeException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized RuntimeException getCause() {
+            return (RuntimeException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+
+/**
+ * Periodically refreshed count of students, serving approximate totals without a count query per request.
+ * <p>
+ * The count is refreshed in the background every {@code com.fmd.spring-jpa-demo.student-count.refresh-interval},
+ * so it may lag behind the table by up to that interval. The students are never counted on the request path: no
+ * count is served until a refresh has succeeded, the first one running on startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentCountCache {
+
+    private final StudentRepository studentRepository;
+
+    /**
+     * The last counted number of students, -1 until the first refresh.
+     */
+    private volatile long count = -1;
+
+    /**
+     * Returns the approximate number of students, without counting them.
+     *
+     * @return the number of students at the last successful refresh, empty until a refresh succeeds
+     */
+    public OptionalLong getApproximateCount() {
+        var cached = count;
+        return cached < 0 ? OptionalLong.empty() : OptionalLong.of(cached);
+    }
+
+    /**
+     * Counts the students, on startup and then periodically in the background.
+     */
+    @Scheduled(fixedDelayString = "${com.fmd.spring-jpa-demo.student-count.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            count = studentRepository.count();
+            log.debug("Refreshed approximate student count: {}", count);
+        } catch (Exception e) {
+            log.error("Failed to refresh student count, keeping {}", count, e);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.ExportFormat;
+import com.fmd.spring_jpa_demo.dto.StudentAddressRow;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.mapper.StudentMapper;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streams all students with their addresses to an output stream, with memory use independent of their number.
+ * <p>
+ * The students are read in one read-only transaction as projection rows from a forward-only JDBC cursor fetching
+ * {@code fetch-size} rows per round trip. No managed entity is created, so the persistence context stays empty and
+ * nothing needs detaching. The rows of one student at a time are assembled by {@link StudentMapper} and written
+ * through a fixed size buffer, only the current student is held in memory.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.student.export.fetch-size=1000
+ * </pre>
+ */
+@Slf4j
+@Component
+public class StudentExporter {
+
+    /**
+     * Selects all rows grouped by student, so each student is complete before the next one starts.
+     */
+    private static final String SELECT_ALL_ROWS = StudentRepository.SELECT_STUDENT_ADDRESS_ROWS + " order by s.id, a.id";
+
+    /**
+     * Header line of the CSV export.
+     */
+    private static final String CSV_HEADER = "id,firstName,lastName,createdAt,modifiedAt,version,"
+            + "addressId,area,city,zipcode,addressCreatedAt,addressModifiedAt";
+
+    /**
+     * Line separator of the CSV export, as required by RFC 4180.
+     */
+    private static final String CSV_LINE_SEPARATOR = "\r\n";
+
+    /**
+     * Size in characters of the buffer between the export and the output stream.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final StudentMapper studentMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter studentWriter;
+    private final int fetchSize;
+
+    /**
+     * Creates the exporter.
+     *
+     * @param entityManager      the shared entity manager
+     * @param transactionManager the transaction manager of the read-only export transaction
+     * @param studentMapper      the student mapper
+     * @param objectMapper       the object mapper serializing students as in API responses
+     * @param fetchSize          the number of rows fetched per round trip
+     */
+    public StudentExporter(EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           StudentMapper studentMapper,
+                           ObjectMapper objectMapper,
+                           @Value("${com.fmd.spring-jpa-demo.student.export.fetch-size:1000}") int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Export fetch size must be positive: " + fetchSize);
+        }
+        this.entityManager = entityManager;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.studentMapper = studentMapper;
+        this.objectMapper = objectMapper;
+        // Flushing after each student would send each of them in its own chunk
+        this.studentWriter = objectMapper.writerFor(StudentDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all students with their addresses, ordered by ID. The output stream is flushed but not closed.
+     *
+     * @param format       the export format
+     * @param outputStream the stream to write to
+     * @return the number of students written
+     * @throws IOException if writing fails, typically because the client went away
+     */
+    public long export(ExportFormat format, OutputStream outputStream) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8), BUFFER_SIZE);
+        try {
+            Long count = readOnlyTransactionTemplate.execute(status -> {
+                try {
+                    return switch (format) {
+                        case NDJSON -> exportNdjson(writer);
+                        case CSV -> exportCsv(writer);
+                    };
+                } catch (IOException e) {
+                    // Rolls back the read-only transaction, closing the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            log.debug("Exported {} students as {}", count, format);
+            return count == null ? 0 : count;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes the students as newline delimited JSON.
+     *
+     * @param writer the writer
+     * @return the number of students written
+     * @throws IOException if writing fails
+     */
+    private long exportNdjson(Writer writer) throws IOException {
+        try (var generator = objectMapper.getFactory().createGenerator(writer)) {
+            // The writer belongs to the caller, and lines are separated explicitly instead of by the root separator
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            return forEachStudent(student -> {
+                studentWriter.writeValue(generator, student);
+                generator.writeRaw('\n');
+            });
+        }
+    }
+
+    /**
+     * Writes the students as CSV, one line per address.
+     *
+     * @param writer the writer
+     * @return the number of students written
+     * @throws IOException if writing fails
+     */
+    private long exportCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write(CSV_LINE_SEPARATOR);
+        return forEachStudent(student -> {
+            if (student.addressDTOList().isEmpty()) {
+                writeCsvLine(writer, student, null);
+            }
+            for (AddressDTO address : student.addressDTOList()) {
+                writeCsvLine(writer, student, address);
+            }
+        });
+    }
+
+    /**
+     * Streams the rows of all students, handing each student to the consumer once its rows are complete.
+     * Must run within a transaction, which keeps the cursor open.
+     *
+     * @param consumer the consumer of each student
+     * @return the number of students
+     * @throws IOException if the consumer fails
+     */
+    private long forEachStudent(StudentConsumer consumer) throws IOException {
+        long count = 0;
+        List<StudentAddressRow> studentRows = new ArrayList<>();
+        try (var rows = entityManager.createQuery(SELECT_ALL_ROWS, StudentAddressRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            var iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                var row = iterator.next();
+                if (!studentRows.isEmpty() && !studentRows.getFirst().studentId().equals(row.studentId())) {
+                    consumer.accept(toStudent(studentRows));
+                    studentRows.clear();
+                    count++;
+                }
+                studentRows.add(row);
+            }
+        }
+        if (!studentRows.isEmpty()) {
+            consumer.accept(toStudent(studentRows));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Assembles a student from its rows.
+     *
+     * @param studentRows the rows of a single student
+     * @return the student DTO
+     */
+    private StudentDTO toStudent(List<StudentAddressRow> studentRows) {
+        return studentMapper.fromRows(studentRows).get(studentRows.getFirst().studentId());
+    }
+
+    /**
+     * Writes a CSV line of a student and one of its addresses.
+     *
+     * @param writer  the writer
+     * @param student the student
+     * @param address the address, or null to leave the address columns empty
+     * @throws IOException if writing fails
+     */
+    private static void writeCsvLine(Writer writer, StudentDTO student, AddressDTO address) throws IOException {
+        writer.write(String.valueOf(student.id()));
+        writeCsvField(writer, student.firstName());
+        writeCsvField(writer, student.lastName());
+        writeCsvField(writer, student.createdAt());
+        writeCsvField(writer, student.modifiedAt());
+        writeCsvField(writer, String.valueOf(student.version()));
+        if (address == null) {
+            writer.write(",,,,,,");
+        } else {
+            writeCsvField(writer, String.valueOf(address.id()));
+            writeCsvField(writer, address.area());
+            writeCsvField(writer, address.city());
+            writeCsvField(writer, address.zipcode());
+            writeCsvField(writer, address.createdAt());
+            writeCsvField(writer, address.modifiedAt());
+        }
+        writer.write(CSV_LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a timestamp as a CSV field in ISO-8601 format, preceded by its separator.
+     *
+     * @param writer the writer
+     * @param value  the timestamp, null for an empty field
+     * @throws IOException if writing fails
+     */
+    private static void writeCsvField(Writer writer, Date value) throws IOException {
+        writeCsvField(writer, value == null ? null : value.toInstant().toString());
+    }
+
+    /**
+     * Writes a CSV field preceded by its separator, quoted if it contains a separator, a quote or a line break.
+     *
+     * @param writer the writer
+     * @param value  the value, null for an empty field
+     * @throws IOException if writing fails
+     */
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Consumer of exported students, allowed to fail writing.
+     */
+    @FunctionalInterface
+    private interface StudentConsumer {
+
+        /**
+         * Consumes a student.
+         *
+         * @param student the student
+         * @throws IOException if writing fails
+         */
+        void accept(StudentDTO student) throws IOException;
+    }
+}
@@ -0,0 +1,462 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fmd.spring_jpa_demo.dto.BulkImportResponse;
+import com.fmd.spring_jpa_demo.dto.BulkItemResult;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.entity.StudentImport;
+import com.fmd.spring_jpa_demo.exception.InvalidImportRequestException;
+import com.fmd.spring_jpa_demo.repository.StudentImportRepository;
+import com.fmd.spring_jpa_demo.util.SanitizerUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Imports students from newline delimited JSON (NDJSON), one student per line, with memory use independent of the
+ * size of the file.
+ * <p>
+ * The body is read line by line through a fixed size buffer. Each line is sanitized as JSON request bodies are,
+ * see {@link SanitizerUtil#sanitizeJson(byte[])}, then bound and validated. Valid students are handed to
+ * {@link StudentBulkWriter} in chunks of its chunk size, each committed in its own transaction with batched inserts,
+ * so only the current chunk is held in memory.
+ * <p>
+ * Failed lines are counted, and the first {@code max-reported-errors} of them are reported by line number, so a file
+ * full of bad lines does not grow the response with its size. Once more than {@code max-errors} lines failed, the
+ * import stops after the current chunk, a file in the wrong shape, or an unavailable database, does not fail every
+ * remaining line.
+ * The response tells how many lines are committed, the import is resumed by sending the same file again and
+ * skipping them. Lines longer than {@code max-line-length} are rejected without being buffered.
+ * <p>
+ * When the client identifies the import, its committed lines are also recorded in a {@link StudentImport}, advanced
+ * in the transaction of each chunk. Sending the same file again with the same import ID resumes after them, even
+ * when the upload broke before any response was received, and a completed import is not repeated.
+ * <p>
+ * Example configuration in application properties:
+ * <pre>
+ *     com.fmd.spring-jpa-demo.student.import.max-errors=100
+ *     com.fmd.spring-jpa-demo.student.import.max-reported-errors=100
+ *     com.fmd.spring-jpa-demo.student.import.max-line-length=64KB
+ * </pre>
+ */
+@Slf4j
+@Component
+public class StudentImporter {
+
+    /**
+     * Size of the buffer the body is read through.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Import IDs chosen by clients, such as a UUID or a file name.
+     */
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final StudentBulkWriter studentBulkWriter;
+    private final StudentImportRepository studentImportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader studentReader;
+    private final int defaultMaxErrors;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+
+    /**
+     * Creates the importer.
+     *
+     * @param studentBulkWriter       the writer persisting each chunk
+     * @param studentImportRepository the repository of the progress of identified imports
+     * @param transactionTemplate     the template recording progress outside of chunks
+     * @param objectMapper            the object mapper binding students as in API requests
+     * @param defaultMaxErrors        the number of failed lines after which an import stops, unless given by the request
+     * @param maxReportedErrors       the maximum number of failed lines reported in the response
+     * @param maxLineLength           the maximum length of a line
+     */
+    public StudentImporter(StudentBulkWriter studentBulkWriter,
+                           StudentImportRepository studentImportRepository,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           @Value("${com.fmd.spring-jpa-demo.student.import.max-errors:100}") int defaultMaxErrors,
+                           @Value("${com.fmd.spring-jpa-demo.student.import.max-reported-errors:100}") int maxReportedErrors,
+                           @Value("${com.fmd.spring-jpa-demo.student.import.max-line-length:64KB}") DataSize maxLineLength) {
+        if (defaultMaxErrors < 0) {
+            throw new IllegalArgumentException("Import max errors must not be negative: " + defaultMaxErrors);
+        }
+        if (maxReportedErrors < 0) {
+            throw new IllegalArgumentException("Import max reported errors must not be negative: " + maxReportedErrors);
+        }
+        this.studentBulkWriter = studentBulkWriter;
+        this.studentImportRepository = studentImportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.studentReader = objectMapper.readerFor(StudentDTO.class);
+        this.defaultMaxErrors = defaultMaxErrors;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = Math.toIntExact(maxLineLength.toBytes());
+    }
+
+    /**
+     * Imports the students of an NDJSON document. Blank lines are ignored.
+     *
+     * @param input     the stream to read the document from, not closed
+     * @param skip      the number of leading lines to skip, typically the committed lines of an interrupted import
+     * @param maxErrors the number of failed lines after which the import stops, or null for the configured default
+     * @param importId  the ID of the import chosen by the client, to resume it from its recorded progress, or null
+     * @return the outcome of the import
+     * @throws IOException                       if reading the document fails, the lines committed so far are
+     *                                           recorded under the import ID, if any
+     * @throws OptimisticLockingFailureException if the same import is uploaded concurrently
+     */
+    public BulkImportResponse importAll(InputStream input, int skip, Integer maxErrors, String importId)
+            throws IOException {
+        if (skip < 0) {
+            throw new InvalidImportRequestException("Lines to skip must not be negative: " + skip);
+        }
+        if (maxErrors != null && maxErrors < 0) {
+            throw new InvalidImportRequestException("Max errors must not be negative: " + maxErrors);
+        }
+        Progress progress = null;
+        if (importId != null) {
+            if (!IMPORT_ID.matcher(importId).matches()) {
+                throw new InvalidImportRequestException("Import ID must be 1 to 64 letters, digits, '.', '_' or '-'");
+            }
+            if (skip != 0) {
+                throw new InvalidImportRequestException("Lines to skip cannot be given with an import ID, "
+                        + "the import resumes after its committed lines");
+            }
+            var studentImport = startImport(importId);
+            if (studentImport.isCompleted()) {
+                log.info("Import [{}] is already completed, nothing to import", importId);
+                return new BulkImportResponse(0, 0, 0, studentImport.getCommittedLines(), true, List.of());
+            }
+            progress = new Progress(importId, studentImport.getCommittedLines());
+            skip = progress.committedLines;
+            log.info("Import [{}] resumes after line {}", importId, skip);
+        }
+        int errorCap = maxErrors == null ? defaultMaxErrors : maxErrors;
+        int chunkSize = studentBulkWriter.getChunkSize();
+        var reader = new LineReader(input, maxLineLength);
+
+        // Skipped lines are read but not parsed
+        int lineNumber = 0;
+        while (lineNumber < skip && reader.next() != null) {
+            lineNumber++;
+        }
+        if (lineNumber < skip) {
+            throw new InvalidImportRequestException("Cannot skip " + skip + " lines, the document has only "
+                    + lineNumber);
+        }
+
+        int created = 0;
+        int committedLines = lineNumber;
+        var errors = new Failures(maxReportedErrors);
+        List<StudentDTO> chunk = new ArrayList<>(chunkSize);
+        List<Integer> chunkLines = new ArrayList<>(chunkSize);
+        byte[] line;
+        while ((line = reader.next()) != null) {
+            lineNumber++;
+            if (reader.isTruncated()) {
+                errors.add(BulkItemResult.failed(lineNumber, "Line exceeds the maximum length of "
+                        + maxLineLength + " bytes"));
+            } else if (!isBlank(line)) {
+                try {
+                    chunk.add(studentReader.readValue(SanitizerUtil.sanitizeJson(line)));
+                    chunkLines.add(lineNumber);
+                } catch (JsonProcessingException e) {
+                    errors.add(BulkItemResult.failed(lineNumber, "Invalid student: " + e.getOriginalMessage()));
+                }
+            }
+            // Also commit a partial chunk when stopping, so the failed lines before it are not read again on resume
+            if (chunk.size() == chunkSize || errors.count > errorCap) {
+                created += persistChunk(chunk, chunkLines, errors, progress);
+                committedLines = lineNumber;
+                log.info("Imported {} students, committed through line {}", created, committedLines);
+                if (errors.count > errorCap) {
+                    recordProgress(progress, committedLines, false);
+                    break;
+                }
+            }
+        }
+        if (line == null) {
+            // End of document, the last chunk holds all remaining lines
+            created += persistChunk(chunk, chunkLines, errors, progress);
+            committedLines = lineNumber;
+            recordProgress(progress, committedLines, true);
+        }
+
+        var completed = line == null;
+        if (!completed) {
+            log.warn("Import stopped after {} failed lines, committed through line {}", errors.count, committedLines);
+        }
+        return new BulkImportResponse(lineNumber - skip, created, errors.count, committedLines, completed,
+                errors.reported);
+    }
+
+    /**
+     * Persists a chunk of students, collecting the failed ones, and clears it.
+     *
+     * @param chunk      the students of the chunk
+     * @param chunkLines the line number of each student of the chunk
+     * @param errors     the failed lines, to which the failed students are added
+     * @param progress   the progress of an identified import, advanced within each transaction, or null
+     * @return the number of students created
+     */
+    private int persistChunk(List<StudentDTO> chunk, List<Integer> chunkLines, Failures errors,
+                             Progress progress) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int created = 0;
+        var results = progress == null ? studentBulkWriter.createAll(chunk)
+                : studentBulkWriter.createAll(chunk, indexes -> progress.advance(chunkLines.get(indexes.getLast()), false));
+        for (BulkItemResult result : results) {
+            if (result.status() == BulkItemResult.Status.CREATED) {
+                created++;
+            } else {
+                errors.add(BulkItemResult.failed(chunkLines.get(result.index()), result.error()));
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+        return created;
+    }
+
+    /**
+     * Finds the progress of an identified import, recording a new import if it is unknown.
+     *
+     * @param importId the import ID
+     * @return the progress of the import
+     * @throws OptimisticLockingFailureException if the same new import is started concurrently
+     */
+    private StudentImport startImport(String importId) {
+        try {
+            return transactionTemplate.execute(status -> studentImportRepository.findById(importId)
+                    .orElseGet(() -> {
+                        var now = new Date();
+                        return studentImportRepository.saveAndFlush(StudentImport.builder()
+                                .id(importId)
+                                .createdAt(now)
+                                .modifiedAt(now)
+                                .build());
+                    }));
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("Import [" + importId + "] was started concurrently", e);
+        }
+    }
+
+    /**
+     * Records the progress of an identified import in its own transaction, for lines whose outcome is committed
+     * without creating any student, such as failed lines after the last chunk.
+     *
+     * @param progress       the progress of the import, or null if the import is not identified
+     * @param committedLines the committed lines
+     * @param completed      whether the whole document is imported
+     */
+    private void recordProgress(Progress progress, int committedLines, boolean completed) {
+        if (progress != null && (progress.committedLines != committedLines || completed)) {
+            transactionTemplate.executeWithoutResult(status -> progress.advance(committedLines, completed));
+        }
+    }
+
+    /**
+     * Checks whether a line holds only whitespace.
+     *
+     * @param line the line
+     * @return true if the line is blank
+     */
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Failed lines of an import, counted, but only the first ones kept for the response.
+     */
+    private static final class Failures {
+
+        private final int maxReported;
+        private final List<BulkItemResult> reported = new ArrayList<>();
+        private int count;
+
+        /**
+         * Creates the failed lines of an import.
+         *
+         * @param maxReported the maximum number of failed lines kept
+         */
+        Failures(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        /**
+         * Counts a failed line, keeping it if fewer than the maximum are kept.
+         *
+         * @param failure the failed line
+         */
+        void add(BulkItemResult failure) {
+            count++;
+            if (reported.size() < maxReported) {
+                reported.add(failure);
+            }
+        }
+    }
+
+    /**
+     * Committed progress of an identified import, as recorded in its {@link StudentImport}.
+     */
+    private final class Progress {
+
+        private final String importId;
+        private int committedLines;
+
+        /**
+         * Creates the progress of an import.
+         *
+         * @param importId       the import ID
+         * @param committedLines the committed lines recorded
+         */
+        Progress(String importId, int committedLines) {
+            this.importId = importId;
+            this.committedLines = committedLines;
+        }
+
+        /**
+         * Advances the recorded progress within the current transaction, taken into account once it commits.
+         *
+         * @param to        the new committed lines
+         * @param completed whether the whole document is imported
+         * @throws OptimisticLockingFailureException if the import progressed concurrently, which rolls back the
+         *                                           transaction
+         */
+        void advance(int to, boolean completed) {
+            if (studentImportRepository.advance(importId, committedLines, to, completed, new Date()) == 0) {
+                throw new OptimisticLockingFailureException("Import [" + importId + "] progressed concurrently, "
+                        + "it is being uploaded more than once");
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedLines = to;
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads lines of bytes from a stream through a fixed size buffer. As UTF-8 never encodes another character
+     * with a newline byte, lines are split without decoding them. The content of a line beyond the maximum length
+     * is discarded.
+     */
+    private static final class LineReader {
+
+        private final InputStream input;
+        private final int maxLineLength;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int position;
+        private int limit;
+        private boolean truncated;
+
+        /**
+         * Creates the reader.
+         *
+         * @param input         the stream to read from
+         * @param maxLineLength the maximum length of a line
+         */
+        LineReader(InputStream input, int maxLineLength) {
+            this.input = input;
+            this.maxLineLength = maxLineLength;
+        }
+
+        /**
+         * Reads the next line, without its line terminator.
+         *
+         * @return the line, or null at the end of the stream
+         * @throws IOException if reading fails
+         */
+        byte[] next() throws IOException {
+            line.reset();
+            truncated = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    int count = input.read(buffer);
+                    if (count < 0) {
+                        position = limit = 0;
+                        return read ? toLine() : null;
+                    }
+                    position = 0;
+                    limit = count;
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    // Consume the newline
+                    position++;
+                    return toLine();
+                }
+            }
+        }
+
+        /**
+         * Tells whether the last line read exceeded the maximum length, its content is then incomplete.
+         *
+         * @return true if the last line was truncated
+         */
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        /**
+         * Appends a range of the buffer to the current line, up to the maximum length.
+         *
+         * @param from the start of the range, inclusive
+         * @param to   the end of the range, exclusive
+         */
+        private void append(int from, int to) {
+            int length = Math.min(to - from, maxLineLength - line.size());
+            if (length < to - from) {
+                truncated = true;
+            }
+            if (length > 0) {
+                line.write(buffer, from, length);
+            }
+        }
+
+        /**
+         * Returns the current line, without the carriage return of a CRLF terminator.
+         *
+         * @return the current line
+         */
+        private byte[] toLine() {
+            var bytes = line.toByteArray();
+            if (bytes.length > 0 && bytes[bytes.length - 1] == '\r') {
+                return Arrays.copyOf(bytes, bytes.length - 1);
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.exception.InvalidPatchException;
+import com.fmd.spring_jpa_demo.exception.PreconditionFailedException;
+import com.fmd.spring_jpa_demo.exception.StudentNotFoundException;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies JSON Merge Patch documents (RFC 7396) and conditional updates to students with targeted statements,
+ * without loading them.
+ * <p>
+ * The patch has the shape of the student representation. Absent members are left unchanged, required members
+ * cannot be removed. As for any array in a merge patch, an {@code address} array replaces the list of addresses:
+ * <pre>
+ *     {
+ *       "lastName": "Doe",
+ *       "address": [
+ *         {"id": 12, "area": "Center", "city": "Paris", "zipcode": "75001"},
+ *         {"area": "Center", "city": "Lyon", "zipcode": "69001"}
+ *       ]
+ *     }
+ * </pre>
+ * The replacement is applied by address ID, so that unchanged addresses keep their IDs: an element with the ID of an
+ * address of the student replaces that address, an element without ID adds a new address, and the addresses of the
+ * student not listed are removed. The read-only {@code createdAt} and {@code modifiedAt} members of the elements are
+ * ignored, so a representation can be sent back as it was read.
+ * <p>
+ * The whole patch is validated before any statement is issued. Then, in one transaction, the student costs one
+ * UPDATE statement, which also tells whether it exists, the addresses one SELECT of their IDs, each replaced address
+ * one UPDATE, the removed addresses one DELETE and each added address one INSERT.
+ * <p>
+ * When expected versions are given, typically from an {@code If-Match} header, the student statement only matches
+ * one of them, so a concurrent change fails the update with {@link PreconditionFailedException} without a prior
+ * read. Every change increments the version of the student.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StudentPatcher {
+
+    private static final String ADDRESS = "address";
+    private static final String ID = "id";
+    private static final Set<String> STUDENT_MEMBERS = Set.of("firstName", "lastName", ADDRESS);
+    private static final Set<String> ADDRESS_MEMBERS = Set.of(ID, "area", "city", "zipcode", "createdAt", "modifiedAt");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final StudentRepository studentRepository;
+    private final Validator validator;
+
+    /**
+     * Applies a merge patch to a student.
+     *
+     * @param id               the student ID
+     * @param patch            the merge patch document
+     * @param expectedVersions the versions the student must have, or null for any version
+     * @return the IDs of the updated and removed addresses
+     * @throws InvalidPatchException        if the patch is malformed or changes a member that cannot be patched
+     * @throws ConstraintViolationException if a patched value is invalid
+     * @throws StudentNotFoundException     if the student does not exist
+     * @throws PreconditionFailedException  if the student has none of the expected versions
+     * @throws EntityNotFoundException      if a replaced address does not belong to the student
+     */
+    public Set<Integer> patch(int id, JsonNode patch, Collection<Long> expectedVersions) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException("Merge patch must be a JSON object");
+        }
+        checkMembers(patch, STUDENT_MEMBERS, "student");
+
+        // Parse and validate the whole patch before touching the database
+        var firstName = textMember(patch, "firstName", StudentDTO.class);
+        var lastName = textMember(patch, "lastName", StudentDTO.class);
+        Map<Integer, AddressDTO> updatedAddresses = new LinkedHashMap<>();
+        Set<Integer> removedAddresses = new LinkedHashSet<>();
+        List<AddressDTO> addedAddresses = new ArrayList<>();
+        var addresses = patch.get(ADDRESS);
+        if (addresses != null) {
+            if (!addresses.isArray()) {
+                throw new InvalidPatchException("Member [address] must be an array");
+            }
+            if (addresses.isEmpty()) {
+                throw new InvalidPatchException("At least one address is required");
+            }
+            for (int index = 0; index < addresses.size(); index++) {
+                var address = address(index, addresses.get(index));
+                if (address.id() == 0) {
+                    addedAddresses.add(address);
+                } else if (updatedAddresses.putIfAbsent(address.id(), address) != null) {
+                    throw new InvalidPatchException("Address [" + address.id() + "] is listed more than once");
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            var now = new Date();
+            updateStudent(id, firstName, lastName, now, expectedVersions);
+            if (addresses == null) {
+                return;
+            }
+            var existingAddresses = studentRepository.findAddressIdsOfStudent(id);
+            if (!existingAddresses.containsAll(updatedAddresses.keySet())) {
+                var foreignAddresses = new LinkedHashSet<>(updatedAddresses.keySet());
+                foreignAddresses.removeAll(existingAddresses);
+                throw addressNotFound(id, foreignAddresses);
+            }
+            updatedAddresses.forEach((addressId, address) -> studentRepository.replaceAddress(id, addressId,
+                    address.area(), address.city(), address.zipcode(), now));
+            existingAddresses.stream()
+                    .filter(addressId -> !updatedAddresses.containsKey(addressId))
+                    .forEach(removedAddresses::add);
+            if (!removedAddresses.isEmpty()) {
+                studentRepository.deleteAddressesOfStudent(id, removedAddresses);
+            }
+            if (!addedAddresses.isEmpty()) {
+                // A reference sets the foreign key without loading the student
+                var student = entityManager.getReference(Student.class, id);
+                addedAddresses.forEach(address -> entityManager.persist(Address.builder()
+                        .area(address.area())
+                        .city(address.city())
+                        .zipcode(address.zipcode())
+                        .student(student)
+                        .build()));
+            }
+        });
+        log.debug("Patched student ID: {}, replaced {}, removed {} and added {} addresses", id,
+                updatedAddresses.size(), removedAddresses.size(), addedAddresses.size());
+        var changedAddresses = new LinkedHashSet<>(updatedAddresses.keySet());
+        changedAddresses.addAll(removedAddresses);
+        return changedAddresses;
+    }
+
+    /**
+     * Updates a student and the addresses it already has, if it has one of the expected versions. The given
+     * addresses replace the fields of the student's ones, and addresses that are not the student's are ignored,
+     * as by a full update of the loaded student.
+     *
+     * @param id               the student ID
+     * @param studentDTO       the new state of the student
+     * @param expectedVersions the versions the student must have
+     * @return the IDs of the updated addresses
+     * @throws StudentNotFoundException    if the student does not exist
+     * @throws PreconditionFailedException if the student has none of the expected versions
+     */
+    public Set<Integer> update(int id, StudentDTO studentDTO, Collection<Long> expectedVersions) {
+        Map<Integer, AddressDTO> addressesById = new LinkedHashMap<>();
+        studentDTO.addressDTOList().forEach(address -> addressesById.putIfAbsent(address.id(), address));
+        Set<Integer> updatedAddresses = new LinkedHashSet<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            var now = new Date();
+            updateStudent(id, studentDTO.firstName(), studentDTO.lastName(), now, expectedVersions);
+            addressesById.forEach((addressId, address) -> {
+                if (studentRepository.replaceAddress(id, addressId,
+                        address.area(), address.city(), address.zipcode(), now) > 0) {
+                    updatedAddresses.add(addressId);
+                }
+            });
+        });
+        log.debug("Updated student ID: {} and {} addresses", id, updatedAddresses.size());
+        return updatedAddresses;
+    }
+
+    /**
+     * Updates the names of a student, incrementing its version, within the current transaction.
+     *
+     * @param id               the student ID
+     * @param firstName        the new first name, or null to keep it
+     * @param lastName         the new last name, or null to keep it
+     * @param modifiedAt       the modification timestamp
+     * @param expectedVersions the versions the student must have, or null for any version
+     */
+    private void updateStudent(int id, String firstName, String lastName, Date modifiedAt,
+                               Collection<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            if (studentRepository.patchStudent(id, firstName, lastName, modifiedAt) == 0) {
+                throw new StudentNotFoundException(id);
+            }
+            return;
+        }
+        // An empty list, when no listed tag is a student version, matches nothing
+        if (expectedVersions.isEmpty()
+                || studentRepository.patchStudentIfVersion(id, expectedVersions, firstName, lastName, modifiedAt) == 0) {
+            // Only a failed update tells a missing student from a changed one
+            if (!studentRepository.existsById(id)) {
+                throw new StudentNotFoundException(id);
+            }
+            throw new PreconditionFailedException("Student with ID: " + id + " does not have version "
+                    + expectedVersions);
+        }
+    }
+
+    /**
+     * Parses and validates an element of the address array, a complete address.
+     *
+     * @param index the index of the element in the array
+     * @param value the element
+     * @return the address, with ID 0 for a new address
+     */
+    private AddressDTO address(int index, JsonNode value) {
+        if (!value.isObject()) {
+            throw new InvalidPatchException("Address [" + index + "] must be an object");
+        }
+        checkMembers(value, ADDRESS_MEMBERS, "address");
+        var id = value.get(ID);
+        if (id != null && !id.isNull() && (!id.canConvertToExactIntegral() || !id.canConvertToInt() || id.intValue() < 1)) {
+            throw new InvalidPatchException("Member [id] of address [" + index + "] must be a positive integer");
+        }
+        var address = new AddressDTO(id == null || id.isNull() ? 0 : id.intValue(), textMember(value, "area", AddressDTO.class),
+                textMember(value, "city", AddressDTO.class), textMember(value, "zipcode", AddressDTO.class), null, null);
+        var violations = validator.validate(address);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return address;
+    }
+
+    /**
+     * Reads and validates a string member of the patch.
+     *
+     * @param node the patch object
+     * @param name the member name, also the validated property of the given type
+     * @param type the DTO type declaring the constraints of the member
+     * @return the new value, or null if the member is absent
+     */
+    private String textMember(JsonNode node, String name, Class<?> type) {
+        var value = node.get(name);
+        if (value == null) {
+            return null;
+        }
+        if (value.isNull()) {
+            throw new InvalidPatchException("Member [" + name + "] is required and cannot be removed");
+        }
+        if (!value.isTextual()) {
+            throw new InvalidPatchException("Member [" + name + "] must be a string");
+        }
+        var violations = validator.validateValue(type, name, value.textValue());
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return value.textValue();
+    }
+
+    /**
+     * Rejects members of a patch object that cannot be patched.
+     *
+     * @param node    the patch object
+     * @param allowed the members that can be patched
+     * @param target  the name of the patched object, for error messages
+     */
+    private static void checkMembers(JsonNode node, Set<String> allowed, String target) {
+        node.fieldNames().forEachRemaining(name -> {
+            if (!allowed.contains(name)) {
+                throw new InvalidPatchException("Member [" + name + "] of the " + target + " cannot be patched");
+            }
+        });
+    }
+
+    /**
+     * Creates the exception for addresses not belonging to the student.
+     *
+     * @param studentId  the student ID
+     * @param addressIds the address ID or IDs
+     * @return the exception
+     */
+    private static EntityNotFoundException addressNotFound(int studentId, Object addressIds) {
+        return new EntityNotFoundException("Address not found with ID: " + addressIds + " for student ID: " + studentId);
+    }
+}
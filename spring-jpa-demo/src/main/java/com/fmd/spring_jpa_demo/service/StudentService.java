@@ -1,8 +1,24 @@
 package com.fmd.spring_jpa_demo.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fmd.spring_jpa_demo.dto.BulkCreateResponse;
+import com.fmd.spring_jpa_demo.dto.BulkImportResponse;
+import com.fmd.spring_jpa_demo.dto.CursorPage;
+import com.fmd.spring_jpa_demo.dto.ExportFormat;
+import com.fmd.spring_jpa_demo.dto.KeysetPageRequest;
 import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
+import com.fmd.spring_jpa_demo.dto.StudentVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
 
 /**
  * Service interface for managing Student entities and related operations.
@@ -19,12 +35,60 @@ public interface StudentService {
     StudentDTO saveStudent(StudentDTO studentDTO);
 
     /**
-     * Retrieves all students with pagination.
+     * Saves new students in bulk, reporting the outcome of each of them.
+     *
+     * @param studentDTOs the student data transfer objects
+     * @return the number of students created and failed, and the outcome of each student
+     */
+    BulkCreateResponse saveStudents(List<StudentDTO> studentDTOs);
+
+    /**
+     * Retrieves the versions of a page of students, without loading the students or their addresses.
+     *
+     * @param pageRequest the page request
+     * @return a page of student versions
+     */
+    Page<StudentVersion> getStudentVersions(PageRequest pageRequest);
+
+    /**
+     * Retrieves the students of a page of student versions.
+     *
+     * @param versions the page of student versions
+     * @return the page of student DTOs, in the order of the versions
+     */
+    Page<StudentDTO> getStudents(Page<StudentVersion> versions);
+
+    /**
+     * Retrieves students with pagination, without counting the total number of students.
      *
      * @param pageRequest the page request
-     * @return a page of student DTOs
+     * @return a slice of student DTOs
+     */
+    Slice<StudentDTO> getStudentSlice(PageRequest pageRequest);
+
+    /**
+     * Returns the approximate number of students, from a periodically refreshed count.
+     *
+     * @return the approximate number of students, empty until the students have been counted
+     */
+    OptionalLong getApproximateStudentCount();
+
+    /**
+     * Retrieves students with keyset (cursor) pagination.
+     *
+     * @param pageRequest the keyset page request
+     * @return a page of student DTOs with the cursor of the next page
+     */
+    CursorPage<StudentDTO> getStudentsByKeyset(KeysetPageRequest pageRequest);
+
+    /**
+     * Searches students by name and address prefixes, with keyset (cursor) pagination.
+     *
+     * @param criteria    the search criteria, all given criteria must match
+     * @param pageRequest the keyset page request
+     * @return a page of matching student DTOs with the cursor of the next page
      */
-    Page<StudentDTO> getAllStudent(PageRequest pageRequest);
+    CursorPage<StudentDTO> searchStudents(StudentSearchCriteria criteria, KeysetPageRequest pageRequest);
 
     /**
      * Retrieves a student by ID.
@@ -34,14 +98,33 @@ public interface StudentService {
      */
     StudentDTO getStudentById(int id);
 
+    /**
+     * Retrieves the version of a student, without loading it or its addresses.
+     *
+     * @param id the student ID
+     * @return the student version
+     */
+    StudentVersion getStudentVersion(int id);
+
     /**
      * Updates an existing student.
      *
      * @param id the student ID
      * @param studentDTO the student data transfer object
+     * @param expectedVersions the versions the student must have, or null for any version
      * @return the updated student as DTO
      */
-    StudentDTO updateStudent(int id, StudentDTO studentDTO);
+    StudentDTO updateStudent(int id, StudentDTO studentDTO, Collection<Long> expectedVersions);
+
+    /**
+     * Partially updates an existing student with a JSON Merge Patch document.
+     *
+     * @param id               the student ID
+     * @param patch            the merge patch document
+     * @param expectedVersions the versions the student must have, or null for any version
+     * @return the patched student as DTO
+     */
+    StudentDTO patchStudent(int id, JsonNode patch, Collection<Long> expectedVersions);
 
     /**
      * Deletes a student by ID.
@@ -49,5 +132,35 @@ public interface StudentService {
      * @param id the student ID
      */
     void deleteStudent(int id);
-}
 
+    /**
+     * Deletes students by ID in bulk, ignoring the IDs of missing students.
+     *
+     * @param ids the student IDs
+     * @return the IDs of the students actually deleted
+     */
+    List<Integer> deleteStudents(List<Integer> ids);
+
+    /**
+     * Writes all students with their addresses to the given stream, with memory use independent of their number.
+     *
+     * @param format       the export format
+     * @param outputStream the stream to write to, flushed but not closed
+     * @return the number of students written
+     * @throws IOException if writing fails
+     */
+    long exportStudents(ExportFormat format, OutputStream outputStream) throws IOException;
+
+    /**
+     * Imports new students from an NDJSON document, one student per line, with memory use independent of its size.
+     *
+     * @param input     the stream to read the document from
+     * @param skip      the number of leading lines to skip, typically the committed lines of an interrupted import
+     * @param maxErrors the number of failed lines after which the import stops, or null for the configured default
+     * @param importId  the ID of the import chosen by the client, to resume it from its recorded progress, or null
+     * @return the outcome of the import
+     * @throws IOException if reading the document fails
+     */
+    BulkImportResponse importStudents(InputStream input, int skip, Integer maxErrors, String importId)
+            throws IOException;
+}
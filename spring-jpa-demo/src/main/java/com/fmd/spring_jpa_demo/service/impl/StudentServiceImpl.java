@@ -1,15 +1,55 @@
 package com.fmd.spring_jpa_demo.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fmd.spring_jpa_demo.cache.StudentCache;
+import com.fmd.spring_jpa_demo.cache.StudentCacheInvalidation;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.BulkCreateResponse;
+import com.fmd.spring_jpa_demo.dto.BulkImportResponse;
+import com.fmd.spring_jpa_demo.dto.CursorPage;
+import com.fmd.spring_jpa_demo.dto.ExportFormat;
+import com.fmd.spring_jpa_demo.dto.KeysetCursor;
+import com.fmd.spring_jpa_demo.dto.KeysetPageRequest;
 import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
+import com.fmd.spring_jpa_demo.dto.StudentVersion;
 import com.fmd.spring_jpa_demo.dto.mapper.StudentMapper;
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.exception.InvalidPageRequestException;
 import com.fmd.spring_jpa_demo.exception.StudentNotFoundException;
+import com.fmd.spring_jpa_demo.repository.StudentKeysetRepository.StudentKey;
 import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import com.fmd.spring_jpa_demo.repository.StudentSpecifications;
+import com.fmd.spring_jpa_demo.service.StudentBulkWriter;
+import com.fmd.spring_jpa_demo.service.StudentCountCache;
+import com.fmd.spring_jpa_demo.service.StudentExporter;
+import com.fmd.spring_jpa_demo.service.StudentImporter;
+import com.fmd.spring_jpa_demo.service.StudentPatcher;
 import com.fmd.spring_jpa_demo.service.StudentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Student entities and related operations.
@@ -21,6 +61,13 @@ public class StudentServiceImpl implements StudentService {
 
     private final StudentRepository studentRepository;
     private final StudentMapper studentMapper;
+    private final StudentCountCache studentCountCache;
+    private final StudentBulkWriter studentBulkWriter;
+    private final StudentPatcher studentPatcher;
+    private final StudentExporter studentExporter;
+    private final StudentImporter studentImporter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<StudentCache> studentCacheProvider;
 
     /**
      * Saves a new student.
@@ -38,75 +85,356 @@ public class StudentServiceImpl implements StudentService {
     }
 
     /**
-     * Retrieves all students with pagination.
+     * Saves new students in bulk, reporting the outcome of each of them.
+     *
+     * <p>The students are inserted in chunks, each committed in its own transaction with batched inserts, so a
+     * failing student does not prevent the others from being created.</p>
+     *
+     * @param studentDTOs the student data transfer objects
+     * @return the number of students created and failed, and the outcome of each student
+     */
+    public BulkCreateResponse saveStudents(List<StudentDTO> studentDTOs) {
+        log.info("Saving {} students in bulk", studentDTOs.size());
+        var response = BulkCreateResponse.of(studentBulkWriter.createAll(studentDTOs));
+        log.info("Bulk save created {} students, {} failed", response.created(), response.failed());
+        return response;
+    }
+
+    /**
+     * Retrieves the versions of a page of students, without loading the students or their addresses.
+     *
+     * <p>Costs the page query and the total count, both answered from the indexes. Together with
+     * {@link #getStudents(Page)} a page is loaded in a constant number of queries whatever its size.</p>
+     *
+     * @param pageRequest the page request
+     * @return a page of student versions
+     */
+    public Page<StudentVersion> getStudentVersions(PageRequest pageRequest) {
+        log.debug("Fetching student versions with page request: {}", pageRequest);
+        return studentRepository.findPageOfVersions(pageRequest);
+    }
+
+    /**
+     * Retrieves the students of a page of student versions, with their addresses in a single join query instead
+     * of one address query per student.
+     *
+     * @param versions the page of student versions
+     * @return the page of student DTOs, in the order of the versions, without students deleted in the meantime
+     */
+    public Page<StudentDTO> getStudents(Page<StudentVersion> versions) {
+        var content = findStudentsWithAddresses(versions.map(StudentVersion::id).getContent());
+        // The total no longer counts the students deleted since the versions were read
+        var missing = versions.getNumberOfElements() - content.size();
+        return new PageImpl<>(content, versions.getPageable(), versions.getTotalElements() - missing);
+    }
+
+    /**
+     * Retrieves students with pagination, without counting the total number of students.
+     *
+     * <p>Only one more ID than the page size is fetched to tell whether a next slice exists, then the students
+     * of the slice with their addresses.</p>
      *
      * @param pageRequest the page request
-     * @return a page of student DTOs
+     * @return a slice of student DTOs
      */
-    public Page<StudentDTO> getAllStudent(PageRequest pageRequest) {
-        log.info("Fetching all students with page request: {}", pageRequest);
-        return studentRepository.findAll(pageRequest)
-                .map(studentMapper::toDTO);
+    public Slice<StudentDTO> getStudentSlice(PageRequest pageRequest) {
+        log.info("Fetching student slice with page request: {}", pageRequest);
+        var idSlice = studentRepository.findSliceOfIds(pageRequest);
+        var content = findStudentsWithAddresses(idSlice.getContent());
+        return new SliceImpl<>(content, idSlice.getPageable(), idSlice.hasNext());
+    }
+
+    /**
+     * Returns the approximate number of students, from a periodically refreshed count.
+     *
+     * @return the approximate number of students, empty until the students have been counted
+     */
+    public OptionalLong getApproximateStudentCount() {
+        return studentCountCache.getApproximateCount();
+    }
+
+    /**
+     * Retrieves students with keyset (cursor) pagination.
+     *
+     * <p>The page is located by seeking past the sort key and ID of the previous page's last row, so its cost
+     * does not depend on its depth. One more key than the page size is fetched to tell whether a next page exists.</p>
+     *
+     * @param pageRequest the keyset page request
+     * @return a page of student DTOs with the cursor of the next page
+     */
+    public CursorPage<StudentDTO> getStudentsByKeyset(KeysetPageRequest pageRequest) {
+        log.info("Fetching students with keyset page request: {}", pageRequest);
+        return findPageByKeyset(pageRequest, null, null);
+    }
+
+    /**
+     * Searches students by name and address prefixes, with keyset (cursor) pagination.
+     *
+     * <p>The matching keys are read with a single query seeking on the sort index, then the students of the page
+     * are loaded with their addresses in a single query.</p>
+     *
+     * @param criteria    the search criteria
+     * @param pageRequest the keyset page request
+     * @return a page of matching student DTOs with the cursor of the next page
+     */
+    public CursorPage<StudentDTO> searchStudents(StudentSearchCriteria criteria, KeysetPageRequest pageRequest) {
+        log.info("Searching students matching {} with keyset page request: {}", criteria, pageRequest);
+        return findPageByKeyset(pageRequest, StudentSpecifications.matching(criteria), criteria.fingerprint());
+    }
+
+    /**
+     * Retrieves a keyset paginated page of students.
+     *
+     * @param pageRequest   the keyset page request
+     * @param specification the specification the students must match, null for all students
+     * @param criteria      the fingerprint of the search criteria of the specification, null for all students
+     * @return a page of student DTOs with the cursor of the next page
+     */
+    private CursorPage<StudentDTO> findPageByKeyset(KeysetPageRequest pageRequest, Specification<Student> specification,
+                                                    String criteria) {
+        var after = pageRequest.cursor() == null ? null : KeysetCursor.decode(pageRequest.cursor());
+        if (after != null && (!after.sortBy().equals(pageRequest.sortBy()) || after.direction() != pageRequest.direction())) {
+            throw new InvalidPageRequestException("Cursor was issued for sort by [" + after.sortBy()
+                    + "] with direction [" + after.direction() + "]");
+        }
+        if (after != null && !Objects.equals(after.criteria(), criteria)) {
+            throw new InvalidPageRequestException("Cursor was issued for different search criteria");
+        }
+
+        var afterKey = after == null ? null : after.key();
+        var afterId = after == null ? 0 : after.id();
+        var keys = specification == null
+                ? studentRepository.findKeysAfter(pageRequest.sortBy(), pageRequest.direction(),
+                        afterKey, afterId, pageRequest.pageSize() + 1)
+                : studentRepository.findKeysAfter(specification, pageRequest.sortBy(), pageRequest.direction(),
+                        afterKey, afterId, pageRequest.pageSize() + 1);
+        boolean hasNext = keys.size() > pageRequest.pageSize();
+        if (hasNext) {
+            keys = keys.subList(0, pageRequest.pageSize());
+        }
+
+        var content = findStudentsWithAddresses(keys.stream().map(StudentKey::id).toList());
+        // The cursor continues after the last key read, even if that student was deleted in the meantime
+        String nextCursor = null;
+        if (hasNext) {
+            var last = keys.get(keys.size() - 1);
+            nextCursor = new KeysetCursor(pageRequest.sortBy(), pageRequest.direction(), last.sortKey(), last.id(),
+                    criteria).encode();
+        }
+        return new CursorPage<>(content, content.size(), hasNext, nextCursor);
+    }
+
+    /**
+     * Loads the students with the given IDs together with their addresses, in a single query.
+     *
+     * <p>The students are read as projection rows straight into DTOs, without creating managed entities.
+     * The IDs were read by a previous statement, and even in one transaction a student deleted in between is
+     * missing from the rows, so the result is built from the students actually found.</p>
+     *
+     * @param ids the student IDs
+     * @return the student DTOs in the order of the IDs, without the students that no longer exist
+     */
+    private List<StudentDTO> findStudentsWithAddresses(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        var studentsById = studentMapper.fromRows(studentRepository.findRowsByIdIn(ids));
+        log.debug("Fetched {} students for {} IDs", studentsById.size(), ids.size());
+        return ids.stream()
+                .map(studentsById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     /**
      * Retrieves a student by ID.
      *
+     * <p>With the second-level cache enabled the student is read through the cache, otherwise as projection rows.</p>
+     *
      * @param id the student ID
      * @return an optional student DTO
      */
     public StudentDTO getStudentById(int id) {
         log.info("Fetching student by ID: {}", id);
-        var student = studentRepository.findById(id)
-                .orElseThrow(() -> new StudentNotFoundException(id));
+        if (studentCacheProvider.getIfAvailable() != null) {
+            // Read the student and its addresses as entities, served from the second-level cache when present
+            var cachedStudent = studentRepository.findById(id)
+                    .orElseThrow(() -> new StudentNotFoundException(id));
+            log.info("Student found for ID: {}", id);
+            return studentMapper.toDTO(cachedStudent);
+        }
+        // Read the student and its addresses as projection rows, without creating managed entities
+        var student = studentMapper.fromRows(studentRepository.findRowsById(id)).get(id);
+        if (student == null) {
+            throw new StudentNotFoundException(id);
+        }
         log.info("Student found for ID: {}", id);
-        return studentMapper.toDTO(student);
+        return student;
+    }
+
+    /**
+     * Retrieves the version of a student, without loading it or its addresses.
+     *
+     * @param id the student ID
+     * @return the student version
+     */
+    public StudentVersion getStudentVersion(int id) {
+        log.debug("Fetching student version by ID: {}", id);
+        return studentRepository.findVersionById(id)
+                .orElseThrow(() -> new StudentNotFoundException(id));
     }
 
     /**
      * Updates an existing student.
      *
-     * @param id         the student ID
-     * @param studentDTO the student data transfer object
+     * <p>With expected versions the student and its addresses are updated with targeted statements, the student
+     * one being conditional on its version, see {@link StudentPatcher}. Otherwise the student is loaded, changed
+     * and saved, Hibernate then rejects the update if the student changed in between.</p>
+     *
+     * @param id               the student ID
+     * @param studentDTO       the student data transfer object
+     * @param expectedVersions the versions the student must have, or null for any version
      * @return the updated student as DTO
      */
-    public StudentDTO updateStudent(int id, StudentDTO studentDTO) {
+    public StudentDTO updateStudent(int id, StudentDTO studentDTO, Collection<Long> expectedVersions) {
         log.info("Updating student with ID: {}", id);
+        if (expectedVersions != null) {
+            var updatedAddresses = studentPatcher.update(id, studentDTO, expectedVersions);
+            log.info("Student conditionally updated with ID: {}", id);
+            invalidateCache(new StudentCacheInvalidation(Set.of(id), updatedAddresses));
+            return getStudentById(id);
+        }
         var student = studentRepository.findById(id)
                 .orElseThrow(() -> new StudentNotFoundException(id));
         log.debug("Student from DB: {}", student);
 
         student.setFirstName(studentDTO.firstName());
         student.setLastName(studentDTO.lastName());
+        // Always touch the student, so its version is incremented on changes of its addresses too
+        student.setModifiedAt(new Date());
 
-        student.getAddressList().forEach(address ->
-                studentDTO.addressDTOList().stream()
-                        .filter(addressDTO -> address.getId() == addressDTO.id())
-                        .findFirst()
-                        .ifPresent(addressDTO -> {
-                            log.debug("Updating address with ID: {} for student ID: {}", address.getId(), id);
-                            address.setArea(addressDTO.area());
-                            address.setCity(addressDTO.city());
-                            address.setZipcode(addressDTO.zipcode());
-                        })
-        );
+        // Index the given addresses by ID once, instead of searching them for every address of the student
+        var addressDTOsById = studentDTO.addressDTOList().stream()
+                .collect(Collectors.toMap(AddressDTO::id, Function.identity(), (first, second) -> first));
+        student.getAddressList().forEach(address -> {
+            var addressDTO = addressDTOsById.get(address.getId());
+            if (addressDTO != null) {
+                log.debug("Updating address with ID: {} for student ID: {}", address.getId(), id);
+                address.setArea(addressDTO.area());
+                address.setCity(addressDTO.city());
+                address.setZipcode(addressDTO.zipcode());
+            }
+        });
 
         log.info("Student after update: {}", student);
         var updatedStudent = studentRepository.save(student);
         log.info("Student updated and saved with ID: {}", updatedStudent.getId());
+        invalidateCache(new StudentCacheInvalidation(Set.of(id),
+                student.getAddressList().stream().map(Address::getId).collect(Collectors.toSet())));
         return studentMapper.toDTO(updatedStudent);
     }
 
+    /**
+     * Partially updates an existing student with a JSON Merge Patch document.
+     *
+     * <p>The changes are applied with targeted statements without loading the student, see {@link StudentPatcher},
+     * then the patched student is read back as projection rows.</p>
+     *
+     * @param id               the student ID
+     * @param patch            the merge patch document
+     * @param expectedVersions the versions the student must have, or null for any version
+     * @return the patched student as DTO
+     */
+    public StudentDTO patchStudent(int id, JsonNode patch, Collection<Long> expectedVersions) {
+        log.info("Patching student with ID: {}", id);
+        var changedAddresses = studentPatcher.patch(id, patch, expectedVersions);
+        log.info("Student patched with ID: {}", id);
+        invalidateCache(new StudentCacheInvalidation(Set.of(id), changedAddresses));
+        return getStudentById(id);
+    }
+
     /**
      * Deletes a student by ID.
      *
+     * <p>The addresses and the student are removed with one delete statement each, without loading them.</p>
+     *
      * @param id the student ID
      */
     public void deleteStudent(int id) {
         log.info("Deleting student with ID: {}", id);
-        var student = studentRepository.findById(id)
-                .orElseThrow(() -> new StudentNotFoundException(id));
-        studentRepository.delete(student);
+        var ids = List.of(id);
+        int deleted = transactionTemplate.execute(status -> {
+            studentRepository.deleteAddressesByStudentIdIn(ids);
+            return studentRepository.deleteByIdIn(ids);
+        });
+        if (deleted == 0) {
+            throw new StudentNotFoundException(id);
+        }
         log.info("Student deleted with ID: {}", id);
+        invalidateCache(StudentCacheInvalidation.ofStudents(Set.of(id)));
+    }
+
+    /**
+     * Deletes students by ID in bulk, ignoring the IDs of missing students.
+     *
+     * @param ids the student IDs
+     * @return the IDs of the students actually deleted
+     */
+    public List<Integer> deleteStudents(List<Integer> ids) {
+        log.info("Deleting {} students in bulk", ids.size());
+        var deleted = studentBulkWriter.deleteAll(ids);
+        log.info("Bulk delete removed {} students", deleted.size());
+        if (!deleted.isEmpty()) {
+            invalidateCache(StudentCacheInvalidation.ofStudents(Set.copyOf(deleted)));
+        }
+        return deleted;
+    }
+
+    /**
+     * Writes all students with their addresses to the given stream, ordered by ID.
+     *
+     * <p>The students are streamed from a database cursor, so memory use does not depend on their number.</p>
+     *
+     * @param format       the export format
+     * @param outputStream the stream to write to, flushed but not closed
+     * @return the number of students written
+     * @throws IOException if writing fails
+     */
+    public long exportStudents(ExportFormat format, OutputStream outputStream) throws IOException {
+        log.info("Exporting students as {}", format);
+        var count = studentExporter.export(format, outputStream);
+        log.info("Exported {} students", count);
+        return count;
+    }
+
+    /**
+     * Imports new students from an NDJSON document, one student per line.
+     *
+     * <p>The document is read incrementally and the students are committed in chunks, so memory use does not
+     * depend on its size.</p>
+     *
+     * @param input     the stream to read the document from
+     * @param skip      the number of leading lines to skip
+     * @param maxErrors the number of failed lines after which the import stops, or null for the configured default
+     * @param importId  the ID of the import chosen by the client, or null
+     * @return the outcome of the import
+     * @throws IOException if reading the document fails
+     */
+    public BulkImportResponse importStudents(InputStream input, int skip, Integer maxErrors, String importId)
+            throws IOException {
+        log.info("Importing students [{}], skipping {} lines", importId, skip);
+        var response = studentImporter.importAll(input, skip, maxErrors, importId);
+        log.info("Import read {} lines, created {} students, {} failed, committed through line {}",
+                response.lines(), response.created(), response.failed(), response.committedLines());
+        return response;
+    }
+
+    /**
+     * Tells the other replicas that students changed, when the second-level cache is enabled.
+     *
+     * @param invalidation the changed students and addresses
+     */
+    private void invalidateCache(StudentCacheInvalidation invalidation) {
+        studentCacheProvider.ifAvailable(studentCache -> studentCache.invalidate(invalidation));
     }
 }
@@ -0,0 +1,120 @@
+package com.fmd.spring_jpa_demo.util;
+
+import com.fmd.spring_jpa_demo.dto.StudentVersion;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ETag;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Utility class computing strong entity tags of student responses from their versions.
+ * <p>
+ * A tag changes whenever the response would: a student tag is its version, a page tag is derived from the page
+ * position, the total and the identity and version of every student of the page.
+ * </p>
+ *
+ * @author Shailesh Halor
+ */
+@UtilityClass
+public class ETagUtil {
+
+    /**
+     * Computes the entity tag of a single student.
+     *
+     * @param version the version of the student
+     * @return the quoted strong entity tag
+     */
+    public static String studentETag(StudentVersion version) {
+        return studentETag(version.version());
+    }
+
+    /**
+     * Computes the entity tag of a single student.
+     *
+     * @param version the version of the student
+     * @return the quoted strong entity tag
+     */
+    public static String studentETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parses the student versions listed in an {@code If-Match} header. Weak tags never match, as required for
+     * {@code If-Match}, and tags which are not student versions are ignored. An empty header lists no tag, so it
+     * matches nothing.
+     *
+     * @param ifMatch the header value, null if absent
+     * @return the listed versions, possibly empty so that nothing matches, or null if the header is absent or
+     * {@code *}, so that any version matches
+     */
+    public static List<Long> parseVersions(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        if (!StringUtils.hasText(ifMatch)) {
+            return List.of();
+        }
+        var eTags = ETag.parse(ifMatch);
+        if (eTags.stream().anyMatch(ETag::isWildcard)) {
+            return null;
+        }
+        return eTags.stream()
+                .filter(eTag -> !eTag.weak())
+                .map(eTag -> parseVersion(eTag.tag()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Parses an entity tag as student version.
+     *
+     * @param tag the unquoted tag
+     * @return the version, or null if the tag is not a version
+     */
+    private static Long parseVersion(String tag) {
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the entity tag of a page of students.
+     *
+     * @param versions the versions of the students of the page
+     * @return the quoted strong entity tag
+     */
+    public static String pageETag(Page<StudentVersion> versions) {
+        var content = new StringBuilder()
+                .append(versions.getNumber()).append(':')
+                .append(versions.getSize()).append(':')
+                .append(versions.getSort()).append(':')
+                .append(versions.getTotalElements());
+        versions.forEach(version -> content.append(';').append(version.id()).append('-').append(version.version()));
+        return "\"" + HexFormat.of().formatHex(sha256(content.toString())) + "\"";
+    }
+
+    /**
+     * Hashes a string with SHA-256.
+     *
+     * @param value the string
+     * @return the digest
+     */
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
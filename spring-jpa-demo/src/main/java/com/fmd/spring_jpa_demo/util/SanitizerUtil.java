@@ -1,17 +1,26 @@
 package com.fmd.spring_jpa_demo.util;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.StringUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * Utility class for sanitizing log messages and all string fields in a JSON string using Jackson.
  * <p>
- * Provides methods to sanitize strings and recursively sanitize all string fields in JSON objects/arrays.
+ * Provides methods to sanitize strings and to sanitize all string values of a JSON document by
+ * streaming its tokens from a {@link JsonParser} to a {@link JsonGenerator}, without building a tree.
  * </p>
  *
  * @author Shailesh Halor
@@ -19,72 +28,244 @@ import org.springframework.util.StringUtils;
 @Slf4j
 @UtilityClass
 public class SanitizerUtil {
+
+    /**
+     * Shared, thread-safe factory for the streaming parsers and generators.
+     */
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     /**
      * Sanitizes the input string by removing control characters such as CR, LF,
      * and other non-printable characters.
      *
+     * <p>Removes exactly the characters matched by the {@code \p{Cntrl}} regex, i.e. {@code U+0000-U+001F}
+     * and {@code U+007F}. The common case of an already clean string is detected by a single scan and
+     * returns the same instance without allocating.</p>
+     *
      * @param input the string to sanitize
-     * @return a sanitized version of the input string
+     * @return a sanitized version of the input string, the input itself if it contains no control characters
      */
     public static String sanitize(String input) {
         // Use Spring's StringUtils to check for null or empty
         if (!StringUtils.hasText(input)) return input;
-        // Remove all control characters (including CR, LF, tab, form feed, vertical tab, etc.)
-        return input.replaceAll("\\p{Cntrl}", "");
+        int first = indexOfControlCharacter(input);
+        if (first < 0) {
+            return input;
+        }
+        // Remove all control characters (including CR, LF, tab, form feed, vertical tab, etc.),
+        // copying the runs of characters between them in bulk
+        var sanitized = new StringBuilder(input.length() - 1);
+        sanitized.append(input, 0, first);
+        int start = first + 1;
+        for (int i = start; i < input.length(); i++) {
+            if (isControlCharacter(input.charAt(i))) {
+                sanitized.append(input, start, i);
+                start = i + 1;
+            }
+        }
+        return sanitized.append(input, start, input.length()).toString();
     }
 
     /**
-     * Sanitizes all string fields in the given JSON string using Jackson.
+     * Returns the index of the first control character in the given string.
      *
-     * <p>Recursively traverses the JSON structure and sanitizes all string values.</p>
+     * @param input the string to scan
+     * @return the index of the first control character, -1 if there is none
+     */
+    private static int indexOfControlCharacter(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (isControlCharacter(input.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the given character is a POSIX control character, as matched by {@code \p{Cntrl}}.
+     *
+     * @param c the character to check
+     * @return true for {@code U+0000-U+001F} and {@code U+007F}
+     */
+    private static boolean isControlCharacter(char c) {
+        return c < 0x20 || c == 0x7F;
+    }
+
+    /**
+     * Sanitizes all string fields in the given JSON string using Jackson.
      *
      * @param json the original JSON string
      * @return a sanitized JSON string
+     * @see #sanitizeJson(byte[])
      */
     public static String sanitizeJson(String json) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            Object node = mapper.readTree(json);
-            log.trace("Original JSON for sanitization: {}", json);
-            sanitizeJsonNode(node, mapper);
-            String sanitizedJson = mapper.writeValueAsString(node);
-            log.trace("Sanitized JSON: {}", sanitizedJson);
-            return sanitizedJson;
+        var sanitized = sanitizeJson(json.getBytes(UTF_8));
+        return new String(sanitized, UTF_8);
+    }
+
+    /**
+     * Sanitizes all string values in the given JSON document.
+     *
+     * <p>A control character can only reach a string value through an escape sequence or as a raw DEL,
+     * since raw C0 control characters are rejected by the parser. Documents containing neither are returned
+     * as is without being parsed. Otherwise the tokens are streamed into a single output buffer, rewriting
+     * the string values. If parsing fails the original document is returned unchanged.</p>
+     *
+     * @param json the original JSON document as UTF-8 bytes
+     * @return the sanitized JSON document, or the original array if nothing needed sanitizing
+     */
+    public static byte[] sanitizeJson(byte[] json) {
+        if (!mayContainControlCharacters(json, 0, json.length)) {
+            log.trace("JSON contains no escape sequences or control characters. Skipping sanitization.");
+            return json;
+        }
+        var output = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+            sanitizeJson(parser, generator);
         } catch (Exception e) {
             log.trace("Failed to parse JSON for sanitization. Returning original JSON. Error: {}", e.getMessage());
             // If parsing fails, fallback to original JSON
             return json;
         }
+        if (log.isTraceEnabled()) {
+            log.trace("Sanitized JSON: {}", output.toString(UTF_8));
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Sanitizes all string values of the JSON document read from the input stream into the output stream.
+     *
+     * <p>Only the parser and generator buffers are held in memory, whatever the size of the document.
+     * Both streams are closed when done.</p>
+     *
+     * @param input  the stream to read the original JSON document from
+     * @param output the stream to write the sanitized JSON document to
+     * @throws IOException if the document is not valid JSON or an I/O error occurs, the output is then incomplete
+     */
+    public static void sanitizeJson(InputStream input, OutputStream output) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(input);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(output)) {
+            sanitizeJson(parser, generator);
+        }
+    }
+
+    /**
+     * Sanitizes all string values in the given JSON document into a buffer of tokens.
+     *
+     * <p>This is the single parse of the document: the returned tokens can be bound directly to the target
+     * type without parsing the body again. Sanitization semantics are the same as {@link #sanitizeJson(byte[])}.</p>
+     *
+     * @param json the original JSON document as UTF-8 bytes
+     * @return the sanitized tokens, or null if nothing needed sanitizing or the document is not valid JSON,
+     * in which case the original document is to be used unchanged
+     */
+    public static TokenBuffer sanitizeJsonToTokens(byte[] json) {
+        if (!mayContainControlCharacters(json, 0, json.length)) {
+            log.trace("JSON contains no escape sequences or control characters. Skipping sanitization.");
+            return null;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            var tokens = new TokenBuffer(parser);
+            sanitizeJson(parser, tokens);
+            return tokens;
+        } catch (Exception e) {
+            log.trace("Failed to parse JSON for sanitization. Returning original JSON. Error: {}", e.getMessage());
+            // If parsing fails, fallback to original JSON
+            return null;
+        }
+    }
+
+    /**
+     * Creates a generator writing JSON to the given output stream.
+     *
+     * @param output the output stream to write to
+     * @return the JSON generator
+     * @throws IOException if the generator cannot be created
+     */
+    public static JsonGenerator createGenerator(OutputStream output) throws IOException {
+        return JSON_FACTORY.createGenerator(output);
+    }
+
+    /**
+     * Creates a non-blocking parser fed with byte chunks through its {@link com.fasterxml.jackson.core.async.ByteArrayFeeder}.
+     *
+     * @return the non-blocking JSON parser
+     * @throws IOException if the parser cannot be created
+     */
+    public static JsonParser createNonBlockingParser() throws IOException {
+        return JSON_FACTORY.createNonBlockingByteArrayParser();
+    }
+
+    /**
+     * Copies the first JSON value from the parser to the generator, sanitizing all string values
+     * nested in objects and arrays on the way.
+     *
+     * <p>Field names and scalar root values are copied unchanged, any tokens following the first value are ignored.</p>
+     *
+     * @param parser    the parser positioned before the value to copy
+     * @param generator the generator to write the sanitized value to
+     * @throws IOException if the input is not valid JSON or writing fails
+     */
+    public static void sanitizeJson(JsonParser parser, JsonGenerator generator) throws IOException {
+        var token = parser.nextToken();
+        if (token == null) {
+            throw new IOException("No JSON content to sanitize");
+        }
+        int depth = 0;
+        do {
+            depth = copySanitizedToken(parser, generator, token, depth);
+        } while (depth > 0 && (token = parser.nextToken()) != null);
+        if (depth > 0) {
+            throw new IOException("Unexpected end of JSON content");
+        }
     }
 
     /**
-     * Recursively sanitizes all string fields in a JSON node (ObjectNode or ArrayNode).
+     * Copies the current token from the parser to the generator, sanitizing it if it is a nested string value.
      *
-     * <p>This method is used internally to traverse and sanitize all string values in the JSON tree.</p>
+     * <p>Floating-point numbers are copied as their original text rather than through a {@code double}, so they
+     * keep their precision and bind the same whether the generator writes JSON text or buffers tokens.</p>
      *
-     * @param node   the root JSON node to sanitize (ObjectNode or ArrayNode)
-     * @param mapper the Jackson ObjectMapper used to create sanitized text nodes
+     * @param parser    the parser positioned on the token
+     * @param generator the generator to write the token to
+     * @param token     the current token
+     * @param depth     the nesting depth before the token, 0 at the root
+     * @return the nesting depth after the token
+     * @throws IOException if writing fails
      */
-    public static void sanitizeJsonNode(Object node, ObjectMapper mapper) {
-        if (node instanceof ObjectNode objectNode) {
-            objectNode.fields().forEachRemaining(entry -> {
-                JsonNode child = entry.getValue();
-                if (child.isTextual()) {
-                    objectNode.replace(entry.getKey(), mapper.getNodeFactory().textNode(sanitize(child.asText())));
-                } else {
-                    sanitizeJsonNode(child, mapper);
-                }
-            });
-        } else if (node instanceof ArrayNode arrayNode) {
-            for (int i = 0; i < arrayNode.size(); i++) {
-                JsonNode child = arrayNode.get(i);
-                if (child.isTextual()) {
-                    arrayNode.set(i, mapper.getNodeFactory().textNode(sanitize(child.asText())));
-                } else {
-                    sanitizeJsonNode(child, mapper);
-                }
+    public static int copySanitizedToken(JsonParser parser, JsonGenerator generator, JsonToken token, int depth)
+            throws IOException {
+        if (token == JsonToken.VALUE_STRING && depth > 0) {
+            generator.writeString(sanitize(parser.getText()));
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            generator.writeNumber(parser.getText());
+        } else {
+            generator.copyCurrentEvent(parser);
+        }
+        if (token.isStructStart()) {
+            return depth + 1;
+        }
+        return token.isStructEnd() ? depth - 1 : depth;
+    }
+
+    /**
+     * Checks whether the given UTF-8 JSON bytes contain an escape sequence or a DEL character,
+     * the only ways a valid JSON string value can carry a control character.
+     *
+     * @param json   the JSON document, or a part of it, as UTF-8 bytes
+     * @param offset the index of the first byte to check
+     * @param length the number of bytes to check
+     * @return true if the document may contain string values that need sanitizing
+     */
+    public static boolean mayContainControlCharacters(byte[] json, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            byte b = json[i];
+            if (b == '\\' || b == 0x7F) {
+                return true;
             }
         }
+        return false;
     }
 }
-
@@ -0,0 +1,205 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.entity.Address;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of student reads and writes with the second-level cache enabled.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "com.fmd.spring-jpa-demo.cache.second-level.enabled=true",
+        "com.fmd.spring-jpa-demo.cache.second-level.invalidation.secret=" + SecondLevelCacheConfigTest.SECRET
+})
+@ActiveProfiles("test")
+class SecondLevelCacheConfigTest {
+
+    static final String SECRET = "test-secret";
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.application.name}")
+    private String serviceId;
+
+    @Value("${server.servlet.context-path}")
+    private String contextPath;
+
+    private Integer studentId;
+
+    @AfterEach
+    void tearDown() {
+        if (studentId != null) {
+            studentService.deleteStudent(studentId);
+        }
+    }
+
+    @Test
+    void patchAddingAnAddressEvictsTheCachedAddressCollection() throws Exception {
+        studentId = studentService.saveStudent(StudentDTO.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .addressDTOList(List.of(address("Center", "Paris", "75001")))
+                .build()).id();
+        // Caches the student and its address collection
+        var addresses = studentService.getStudentById(studentId).addressDTOList();
+        assertThat(addresses).hasSize(1);
+
+        var patched = studentService.patchStudent(studentId, objectMapper.readTree("""
+                {"address": [
+                  {"id": %d, "area": "Center", "city": "Paris", "zipcode": "75001"},
+                  {"area": "Old Town", "city": "Lyon", "zipcode": "69001"}
+                ]}""".formatted(addresses.getFirst().id())), null);
+
+        assertThat(patched.addressDTOList()).extracting(AddressDTO::city).containsExactlyInAnyOrder("Paris", "Lyon");
+        assertThat(studentService.getStudentById(studentId).addressDTOList()).hasSize(2);
+    }
+
+    @Test
+    void patchRemovingAnAddressEvictsTheCachedAddressCollection() throws Exception {
+        var student = studentService.saveStudent(StudentDTO.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .addressDTOList(List.of(address("Center", "Paris", "75001"), address("Port", "Nice", "06000")))
+                .build());
+        studentId = student.id();
+        var addresses = studentService.getStudentById(studentId).addressDTOList();
+        var removedId = addresses.getFirst().id();
+
+        studentService.patchStudent(studentId, objectMapper.readTree("{\"address\": "
+                + objectMapper.writeValueAsString(addresses.subList(1, 2)) + "}"), null);
+
+        assertThat(studentService.getStudentById(studentId).addressDTOList()).extracting(AddressDTO::id)
+                .hasSize(1)
+                .doesNotContain(removedId);
+    }
+
+    @Test
+    void patchEvictsOnlyThePatchedStudent() throws Exception {
+        var cache = cacheWithStudent();
+        var patchedId = studentService.saveStudent(StudentDTO.builder()
+                .firstName("John")
+                .lastName("Roe")
+                .addressDTOList(List.of(address("Port", "Nice", "06000"), address("Center", "Lyon", "69001")))
+                .build()).id();
+        try {
+            var addresses = studentService.getStudentById(patchedId).addressDTOList();
+            var unrelatedAddressId = studentService.getStudentById(studentId).addressDTOList().getFirst().id();
+
+            // Replaces the first address, removes the second one and renames the student
+            var patched = studentService.patchStudent(patchedId, objectMapper.readTree("""
+                    {"lastName": "Poe", "address": [
+                      {"id": %d, "area": "Harbour", "city": "Nice", "zipcode": "06300"}
+                    ]}""".formatted(addresses.getFirst().id())), null);
+
+            assertThat(patched.lastName()).isEqualTo("Poe");
+            assertThat(patched.addressDTOList()).extracting(AddressDTO::area).containsExactly("Harbour");
+            assertThat(cache.containsEntity(Student.class, studentId)).isTrue();
+            assertThat(cache.containsCollection(Student.ADDRESSES_ROLE, studentId)).isTrue();
+            assertThat(cache.containsEntity(Address.class, unrelatedAddressId)).isTrue();
+        } finally {
+            studentService.deleteStudent(patchedId);
+        }
+        assertThat(cache.containsEntity(Student.class, patchedId)).isFalse();
+        assertThat(cache.containsEntity(Student.class, studentId)).isTrue();
+    }
+
+    @Test
+    void invalidationBroadcastByAReplicaEvictsTheStudent() {
+        var cache = cacheWithStudent();
+
+        broadcaster(SECRET).broadcast(StudentCacheInvalidation.ofStudents(Set.of(studentId)));
+
+        assertThat(cache.containsEntity(Student.class, studentId)).isFalse();
+        assertThat(cache.containsCollection(Student.ADDRESSES_ROLE, studentId)).isFalse();
+    }
+
+    @Test
+    void invalidationWithAWrongSecretIsRejected() {
+        var cache = cacheWithStudent();
+
+        broadcaster("wrong-secret").broadcast(StudentCacheInvalidation.ofStudents(Set.of(studentId)));
+
+        assertThat(cache.containsEntity(Student.class, studentId)).isTrue();
+    }
+
+    /**
+     * Creates a student and reads it, so it is cached.
+     *
+     * @return the second-level cache
+     */
+    private Cache cacheWithStudent() {
+        studentId = studentService.saveStudent(StudentDTO.builder()
+                .firstName("Jane")
+                .lastName("Roe")
+                .addressDTOList(List.of(address("Center", "Paris", "75001")))
+                .build()).id();
+        studentService.getStudentById(studentId);
+        var cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Student.class, studentId)).isTrue();
+        return cache;
+    }
+
+    /**
+     * Creates a broadcaster seeing this application as another replica, sending on the calling thread.
+     *
+     * @param secret the secret sent with invalidations
+     * @return the broadcaster
+     */
+    private DiscoveryCacheInvalidationBroadcaster broadcaster(String secret) {
+        var replica = new DefaultServiceInstance("replica-1", serviceId, "localhost", port, false);
+        var discoveryClient = new DiscoveryClient() {
+            @Override
+            public String description() {
+                return "Test replicas";
+            }
+
+            @Override
+            public List<ServiceInstance> getInstances(String id) {
+                return id.equals(serviceId) ? List.of(replica) : List.of();
+            }
+
+            @Override
+            public List<String> getServices() {
+                return List.of(serviceId);
+            }
+        };
+        return new DiscoveryCacheInvalidationBroadcaster(discoveryClient, null, Runnable::run, serviceId, contextPath,
+                secret, Duration.ofSeconds(5));
+    }
+
+    private static AddressDTO address(String area, String city, String zipcode) {
+        return AddressDTO.builder().area(area).city(city).zipcode(zipcode).build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.fmd.spring_jpa_demo.cache;
+
+import com.fmd.spring_jpa_demo.entity.Student;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the second-level cache stays off unless enabled, although its region factory is on the classpath.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheDisabledTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void secondLevelCacheIsDisabledByDefault() {
+        var sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        assertThat(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()).isFalse();
+        assertThat(sessionFactory.getCache().getRegion(Student.CACHE_REGION)).isNull();
+    }
+}
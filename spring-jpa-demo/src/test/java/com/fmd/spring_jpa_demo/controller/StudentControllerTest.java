@@ -0,0 +1,368 @@
+package com.fmd.spring_jpa_demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import com.fmd.spring_jpa_demo.util.ETagUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.containsString;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the conditional requests of {@link StudentController}: 304 Not Modified for unchanged students and pages,
+ * and 412 Precondition Failed for updates whose {@code If-Match} does not match the student. Also tests the
+ * streamed export, its compression and its async timeout.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StudentControllerTest {
+
+    private static final String AUTHORIZATION = "Bearer test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Integer> studentIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        studentIds.add(save("Jane").id());
+        studentIds.add(save("John").id());
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(studentIds);
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() throws Exception {
+        var eTag = getStudent(studentIds.getFirst()).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isEqualTo("\"0\"");
+
+        mockMvc.perform(request(get("/api/v1/student/{id}", studentIds.getFirst()))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void answersAWeakIfNoneMatchWithNotModified() throws Exception {
+        // If-None-Match uses the weak comparison
+        for (var ifNoneMatch : List.of("W/\"0\"", "\"5\", W/\"0\"")) {
+            mockMvc.perform(request(get("/api/v1/student/{id}", studentIds.getFirst()))
+                            .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                    .andExpect(status().isNotModified());
+        }
+    }
+
+    @Test
+    void appliesAnUpdateWithAWildcardIfMatchWhateverTheVersion() throws Exception {
+        var id = studentIds.getFirst();
+        update(id, "Janet");
+
+        mockMvc.perform(updateRequest(id, "Jenny").header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+    }
+
+    @Test
+    void answersAStaleIfNoneMatchWithTheStudent() throws Exception {
+        var id = studentIds.getFirst();
+        var eTag = getStudent(id).getResponse().getHeader(HttpHeaders.ETAG);
+        update(id, "Janet");
+
+        var result = mockMvc.perform(request(get("/api/v1/student/{id}", id))
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo("\"1\"");
+        assertThat(objectMapper.readValue(result.getResponse().getContentAsString(), StudentDTO.class).firstName())
+                .isEqualTo("Janet");
+    }
+
+    @Test
+    void answersIfModifiedSinceWithNotModifiedUntilTheStudentChanges() throws Exception {
+        var id = studentIds.getFirst();
+        var lastModified = getStudent(id).getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(lastModified).isNotNull();
+
+        mockMvc.perform(request(get("/api/v1/student/{id}", id)).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+        var before = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(Instant.parse("2000-01-01T00:00:00Z").atOffset(ZoneOffset.UTC));
+        mockMvc.perform(request(get("/api/v1/student/{id}", id)).header(HttpHeaders.IF_MODIFIED_SINCE, before))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void answersAMatchingPageIfNoneMatchWithNotModified() throws Exception {
+        var eTag = getPage().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).matches("\"[0-9a-f]{64}\"");
+
+        mockMvc.perform(request(pageRequest()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void changesThePageTagWhenAStudentOfThePageIsUpdated() throws Exception {
+        var eTag = getPage().getResponse().getHeader(HttpHeaders.ETAG);
+        update(studentIds.getLast(), "Johnny");
+
+        var result = mockMvc.perform(request(pageRequest()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+        assertThat(result.getResponse().getContentAsString()).contains("Johnny");
+    }
+
+    @Test
+    void changesThePageTagWhenAStudentOfThePageIsDeleted() throws Exception {
+        var eTag = getPage().getResponse().getHeader(HttpHeaders.ETAG);
+        studentService.deleteStudent(studentIds.removeLast());
+
+        var result = mockMvc.perform(request(pageRequest()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+    }
+
+    @Test
+    void appliesAnUpdateWithAMatchingIfMatch() throws Exception {
+        var id = studentIds.getFirst();
+
+        mockMvc.perform(updateRequest(id, "Janet").header(HttpHeaders.IF_MATCH, "\"7\", \"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    void rejectsAnUpdateWithAStaleIfMatchChangingNothing() throws Exception {
+        var id = studentIds.getFirst();
+        update(id, "Janet");
+        var before = studentService.getStudentById(id);
+        var address = before.addressDTOList().getFirst();
+        var body = StudentDTO.builder()
+                .firstName("Jenny")
+                .lastName("Roe")
+                .addressDTOList(List.of(AddressDTO.builder().id(address.id()).area("North").city("Lyon")
+                        .zipcode("69001").build()))
+                .build();
+
+        mockMvc.perform(request(put("/api/v1/student/{id}", id))
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        assertUnchanged(id, before);
+    }
+
+    @Test
+    void rejectsAPatchWithAStaleIfMatchChangingNothing() throws Exception {
+        var id = studentIds.getFirst();
+        update(id, "Janet");
+        var before = studentService.getStudentById(id);
+
+        mockMvc.perform(patchRequest(id).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        assertUnchanged(id, before);
+    }
+
+    @Test
+    void rejectsAnIfMatchWithoutStrongVersion() throws Exception {
+        var id = studentIds.getFirst();
+        var before = studentService.getStudentById(id);
+
+        // The current version is 0, but a weak tag never matches and an empty header lists no tag
+        for (var ifMatch : List.of("W/\"0\"", "", "\"abc\"")) {
+            mockMvc.perform(updateRequest(id, "Jenny").header(HttpHeaders.IF_MATCH, ifMatch))
+                    .andExpect(status().isPreconditionFailed());
+            mockMvc.perform(patchRequest(id).header(HttpHeaders.IF_MATCH, ifMatch))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        assertUnchanged(id, before);
+    }
+
+    @Test
+    void streamsTheExportGzipCompressedWithItsOwnAsyncTimeout() throws Exception {
+        var result = mockMvc.perform(request(get("/api/v1/student/export"))
+                        .param("format", "CSV")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // The configured export timeout, not the container default
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        var response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("students.csv")))
+                .andReturn().getResponse();
+        String csv;
+        try (var input = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            csv = new String(input.readAllBytes(), UTF_8);
+        }
+        assertThat(csv).startsWith("id,firstName,lastName,")
+                .contains("\r\n" + studentIds.getFirst() + ",Jane,Doe,")
+                .contains("\r\n" + studentIds.getLast() + ",John,Doe,");
+    }
+
+    @Test
+    void streamsTheExportUncompressedWhenGzipIsNotAccepted() throws Exception {
+        var result = mockMvc.perform(request(get("/api/v1/student/export"))
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        var response = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+        assertThat(response.getContentAsString(UTF_8))
+                .contains("\"id\":" + studentIds.getFirst() + ",\"firstName\":\"Jane\"");
+    }
+
+    @Test
+    void answersAnIfMatchOnAnUnknownStudentWithNotFound() throws Exception {
+        var body = StudentDTO.builder()
+                .firstName("Jenny")
+                .lastName("Roe")
+                .addressDTOList(List.of(AddressDTO.builder().area("North").city("Lyon").zipcode("69001").build()))
+                .build();
+
+        for (var ifMatch : List.of("\"0\"", "W/\"0\"", "")) {
+            mockMvc.perform(request(put("/api/v1/student/{id}", Integer.MAX_VALUE))
+                            .header(HttpHeaders.IF_MATCH, ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(body)))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(patchRequest(Integer.MAX_VALUE).header(HttpHeaders.IF_MATCH, ifMatch))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    private MvcResult getStudent(int id) throws Exception {
+        return mockMvc.perform(request(get("/api/v1/student/{id}", id)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private MvcResult getPage() throws Exception {
+        return mockMvc.perform(request(pageRequest()))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    /**
+     * Requests the first page of the students by descending ID, holding the students of the test.
+     */
+    private static MockHttpServletRequestBuilder pageRequest() {
+        return get("/api/v1/student")
+                .param("offset", "0")
+                .param("pageSize", "2")
+                .param("sortBy", "id")
+                .param("direction", "DESC");
+    }
+
+    private void update(int id, String firstName) throws Exception {
+        mockMvc.perform(updateRequest(id, firstName)).andExpect(status().isOk());
+    }
+
+    /**
+     * Creates the request renaming a student, keeping its last name and addresses.
+     */
+    private MockHttpServletRequestBuilder updateRequest(int id, String firstName) throws Exception {
+        var student = studentService.getStudentById(id);
+        return request(put("/api/v1/student/{id}", id))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(StudentDTO.builder()
+                        .firstName(firstName)
+                        .lastName(student.lastName())
+                        .addressDTOList(student.addressDTOList())
+                        .build()));
+    }
+
+    /**
+     * Creates the request renaming a student and adding it an address.
+     */
+    private static MockHttpServletRequestBuilder patchRequest(int id) {
+        return request(patch("/api/v1/student/{id}", id))
+                .contentType("application/merge-patch+json")
+                .content("""
+                        {"firstName": "Jenny", "address": [
+                          {"area": "North", "city": "Lyon", "zipcode": "69001"}
+                        ]}""");
+    }
+
+    /**
+     * Asserts that a student still has the given state and version.
+     */
+    private void assertUnchanged(int id, StudentDTO before) throws Exception {
+        var after = studentService.getStudentById(id);
+        assertThat(after).usingRecursiveComparison().isEqualTo(before);
+        assertThat(getStudent(id).getResponse().getHeader(HttpHeaders.ETAG))
+                .isEqualTo(ETagUtil.studentETag(before.version()));
+    }
+
+    private StudentDTO save(String firstName) {
+        return studentService.saveStudent(StudentDTO.builder()
+                .firstName(firstName)
+                .lastName("Doe")
+                .addressDTOList(List.of(AddressDTO.builder().area("Center").city("Paris").zipcode("75001").build()))
+                .build());
+    }
+
+    private static MockHttpServletRequestBuilder request(MockHttpServletRequestBuilder builder) {
+        return builder.header(HttpHeaders.AUTHORIZATION, AUTHORIZATION);
+    }
+}
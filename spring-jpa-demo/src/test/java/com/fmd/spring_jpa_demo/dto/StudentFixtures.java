@@ -0,0 +1,37 @@
+package com.fmd.spring_jpa_demo.dto;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Student fixtures shared by the tests and benchmarks creating many students.
+ */
+public final class StudentFixtures {
+
+    private StudentFixtures() {
+    }
+
+    /**
+     * Builds new students with distinct first names, each with its own addresses of distinct zipcodes.
+     *
+     * @param count               the number of students
+     * @param firstNamePrefix     the prefix of the first names, followed by the index of the student
+     * @param addressesPerStudent the number of addresses of each student
+     * @return the students, without IDs
+     */
+    public static List<StudentDTO> students(int count, String firstNamePrefix, int addressesPerStudent) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> StudentDTO.builder()
+                        .firstName(firstNamePrefix + i)
+                        .lastName("Student")
+                        .addressDTOList(IntStream.range(0, addressesPerStudent)
+                                .mapToObj(j -> AddressDTO.builder()
+                                        .area("Area " + j)
+                                        .city("City" + j)
+                                        .zipcode("Zip" + i + "-" + j)
+                                        .build())
+                                .toList())
+                        .build())
+                .toList();
+    }
+}
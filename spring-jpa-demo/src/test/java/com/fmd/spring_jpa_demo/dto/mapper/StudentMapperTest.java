@@ -0,0 +1,106 @@
+package com.fmd.spring_jpa_demo.dto.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the projection read path of {@link StudentMapper#fromRows} produces the same JSON as mapping the
+ * managed entities with {@link StudentMapper#toDTO(Student)}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentMapperTest {
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(createdIds);
+        createdIds.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 5})
+    void projectionAndEntityPathsProduceTheSameJson(int addresses) throws Exception {
+        int id = saveStudent(addresses);
+
+        String entityJson = objectMapper.writeValueAsString(readOnlyTransactionTemplate.execute(status ->
+                studentMapper.toDTO(studentRepository.findById(id).orElseThrow())));
+        String projectionJson = objectMapper.writeValueAsString(readOnlyTransactionTemplate.execute(status ->
+                studentMapper.fromRows(studentRepository.findRowsById(id)).get(id)));
+
+        assertThat(projectionJson).isEqualTo(entityJson);
+        assertThat(objectMapper.readTree(projectionJson).get("address")).hasSize(addresses);
+    }
+
+    /**
+     * Saves a student with the given number of addresses. A student without address is saved through the
+     * repository, as the service requires at least one.
+     */
+    private int saveStudent(int addresses) {
+        int id;
+        if (addresses == 0) {
+            id = studentRepository.save(Student.builder()
+                    .firstName("Projected")
+                    .lastName("Student")
+                    .addressList(new ArrayList<>())
+                    .build()).getId();
+        } else {
+            id = studentService.saveStudent(StudentDTO.builder()
+                    .firstName("Projected")
+                    .lastName("Student")
+                    .addressDTOList(IntStream.range(0, addresses)
+                            .mapToObj(i -> AddressDTO.builder()
+                                    .area("Area " + i)
+                                    .city("City" + i)
+                                    .zipcode("Zip" + i)
+                                    .build())
+                            .toList())
+                    .build()).id();
+        }
+        createdIds.add(id);
+        return id;
+    }
+}
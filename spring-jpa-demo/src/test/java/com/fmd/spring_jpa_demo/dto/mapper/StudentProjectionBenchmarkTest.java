@@ -0,0 +1,149 @@
+package com.fmd.spring_jpa_demo.dto.mapper;
+
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentFixtures;
+import com.fmd.spring_jpa_demo.entity.Student;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the projection read path against the managed entity path, run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Both paths read a page of students with their addresses in a single query, the entity path with a fetch join
+ * mapped by {@link StudentMapper#toDTO(List)}, the projection path with rows assembled by
+ * {@link StudentMapper#fromRows}. The heap allocated by each read is measured on the current thread, along with
+ * its latency.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentProjectionBenchmarkTest {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int ADDRESSES_PER_STUDENT = 3;
+    private static final int WARMUP_RUNS = 500;
+    private static final int MEASURED_RUNS = 200;
+
+    /**
+     * Minimum ratio of the heap allocated per read between the entity and the projection paths, about 1.6 measured.
+     */
+    private static final double MIN_ALLOCATION_RATIO = 1.3;
+
+    /**
+     * Minimum ratio of the median latency between the entity and the projection paths, 2 to 3 measured.
+     */
+    private static final double MIN_LATENCY_RATIO = 1.3;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void projectionAllocatesLessAndIsFasterThanTheEntityPath() {
+        createStudents();
+        var readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        Supplier<List<StudentDTO>> entityPath = () -> {
+            List<Student> students = readOnlyTransactionTemplate.execute(status -> entityManager
+                    .createQuery("select distinct s from Student s left join fetch s.addressList where s.id in :ids",
+                            Student.class)
+                    .setParameter("ids", createdIds)
+                    .getResultList());
+            return studentMapper.toDTO(students);
+        };
+        Supplier<Collection<StudentDTO>> projectionPath = () -> readOnlyTransactionTemplate.execute(status ->
+                studentMapper.fromRows(studentRepository.findRowsByIdIn(createdIds)).values());
+        assertThat(projectionPath.get()).hasSize(PAGE_SIZE);
+        assertThat(entityPath.get()).hasSize(PAGE_SIZE);
+
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            entityPath.get();
+            projectionPath.get();
+        }
+        var entity = measure(entityPath);
+        var projection = measure(projectionPath);
+
+        double allocationRatio = (double) entity.bytes() / projection.bytes();
+        double latencyRatio = (double) entity.medianNanos() / projection.medianNanos();
+        log.info("Read {} students with {} addresses each: entity path {} us and {} KB, projection path {} us and "
+                        + "{} KB, {} times less heap, {} times faster", PAGE_SIZE, ADDRESSES_PER_STUDENT,
+                entity.medianNanos() / 1_000, entity.bytes() / 1_024, projection.medianNanos() / 1_000,
+                projection.bytes() / 1_024, String.format("%.1f", allocationRatio),
+                String.format("%.1f", latencyRatio));
+        assertThat(allocationRatio).as("allocation ratio").isGreaterThanOrEqualTo(MIN_ALLOCATION_RATIO);
+        assertThat(latencyRatio).as("latency ratio").isGreaterThanOrEqualTo(MIN_LATENCY_RATIO);
+    }
+
+    /**
+     * Measures the median latency and the mean heap allocated by the current thread per read.
+     *
+     * @param read the read to measure
+     * @return the measurement
+     */
+    private static Measurement measure(Supplier<?> read) {
+        var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] nanos = new long[MEASURED_RUNS];
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int run = 0; run < MEASURED_RUNS; run++) {
+            long start = System.nanoTime();
+            read.get();
+            nanos[run] = System.nanoTime() - start;
+        }
+        long allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Measurement(nanos[MEASURED_RUNS / 2], allocated / MEASURED_RUNS);
+    }
+
+    private void createStudents() {
+        var students = StudentFixtures.students(PAGE_SIZE, "Projected", ADDRESSES_PER_STUDENT);
+        studentService.saveStudents(students).items().forEach(item -> createdIds.add(item.id()));
+    }
+
+    /**
+     * Median latency and mean heap allocation of a read.
+     *
+     * @param medianNanos the median latency in nanoseconds
+     * @param bytes       the mean number of bytes allocated
+     */
+    private record Measurement(long medianNanos, long bytes) {
+    }
+}
@@ -0,0 +1,195 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fmd.spring_jpa_demo.util.SanitizerUtil;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link NonBlockingSanitizedRequestWrapper} with bodies below and above the in-memory threshold.
+ */
+class NonBlockingSanitizedRequestWrapperTest {
+
+    private static final long IN_MEMORY_THRESHOLD = 1024;
+
+    private static final long MAX_SIZE = 64 * 1024;
+
+    /**
+     * JSON array of students whose names carry escaped control characters, about 60 bytes per student.
+     */
+    private static byte[] body(int students) {
+        return IntStream.range(0, students)
+                .mapToObj(i -> "{\"firstName\":\"First\\u0007" + i + "\",\"lastName\":\"Last\\t" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(UTF_8);
+    }
+
+    @Test
+    void sanitizesSmallBodyInMemory() throws IOException {
+        var body = body(2);
+        var before = temporaryFiles();
+        try (var wrapper = wrap(new MockHttpServletRequest(), body)) {
+            assertThat(wrapper.getInputStream().readAllBytes()).isEqualTo(SanitizerUtil.sanitizeJson(body));
+            assertThat(temporaryFiles()).containsExactlyInAnyOrder(before);
+        }
+    }
+
+    @Test
+    void spillsLargeBodyToDiskAndDeletesItOnClose() throws IOException {
+        var body = body(200);
+        var before = temporaryFiles();
+        var wrapper = wrap(new MockHttpServletRequest(), body);
+
+        var sanitized = wrapper.getInputStream().readAllBytes();
+
+        assertThat(sanitized).isEqualTo(SanitizerUtil.sanitizeJson(body));
+        assertThat(wrapper.getContentLengthLong()).isEqualTo(sanitized.length);
+        assertThat(temporaryFiles()).hasSizeGreaterThan(before.length);
+        wrapper.close();
+        assertThat(temporaryFiles()).containsExactlyInAnyOrder(before);
+    }
+
+    @Test
+    void passesLargeMalformedBodyThroughUnchanged() throws IOException {
+        var body = Arrays.copyOf(body(200), body(200).length - 1);
+        try (var wrapper = wrap(new MockHttpServletRequest(), body)) {
+            assertThat(wrapper.getInputStream().readAllBytes()).isEqualTo(body);
+        }
+    }
+
+    @Test
+    void rejectsBodyLargerThanTheMaximumSize() {
+        var body = body(2000);
+        try (var wrapper = wrap(new MockHttpServletRequest(), body)) {
+            assertThatThrownBy(() -> wrapper.getInputStream().readAllBytes())
+                    .isInstanceOf(RequestBodyTooLargeException.class);
+        }
+    }
+
+    @Test
+    void sanitizesLargeBodyFedThroughReadListener() throws IOException {
+        var body = body(200);
+        var source = new ChunkedInputStream(body, 100);
+        var request = new MockHttpServletRequest() {
+            @Override
+            public ServletInputStream getInputStream() {
+                return source;
+            }
+        };
+        var received = new ByteArrayOutputStream();
+        try (var wrapper = new NonBlockingSanitizedRequestWrapper(request, IN_MEMORY_THRESHOLD, MAX_SIZE)) {
+            var inputStream = wrapper.getInputStream();
+            inputStream.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    var chunk = new byte[512];
+                    int read;
+                    while (inputStream.isReady() && (read = inputStream.read(chunk)) != -1) {
+                        received.write(chunk, 0, read);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            // The container signals each chunk as it arrives
+            while (!source.isFinished()) {
+                source.arrive();
+            }
+        }
+        assertThat(received.toByteArray()).isEqualTo(SanitizerUtil.sanitizeJson(body));
+    }
+
+    private static NonBlockingSanitizedRequestWrapper wrap(MockHttpServletRequest request, byte[] body) {
+        request.setContent(body);
+        request.setContentType("application/json");
+        return new NonBlockingSanitizedRequestWrapper(request, IN_MEMORY_THRESHOLD, MAX_SIZE);
+    }
+
+    private static Path[] temporaryFiles() throws IOException {
+        try (var files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("sanitized-body-"))
+                    .toArray(Path[]::new);
+        }
+    }
+
+    /**
+     * Non-blocking servlet input stream whose chunks arrive one at a time, as signalled by the container.
+     */
+    private static final class ChunkedInputStream extends ServletInputStream {
+
+        private final InputStream body;
+        private final int chunkSize;
+        private ReadListener readListener;
+        private int ready;
+
+        private ChunkedInputStream(byte[] body, int chunkSize) {
+            this.body = new ByteArrayInputStream(body);
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Makes the next chunk readable and notifies the listener, or signals the end of the body.
+         */
+        private void arrive() throws IOException {
+            if (body.available() == 0) {
+                readListener.onAllDataRead();
+                ready = -1;
+                return;
+            }
+            ready = Math.min(chunkSize, body.available());
+            readListener.onDataAvailable();
+        }
+
+        @Override
+        public int read() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (ready <= 0) {
+                throw new IllegalStateException("Read while not ready");
+            }
+            int read = body.read(b, off, Math.min(len, ready));
+            ready -= read;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return ready == -1;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready > 0;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.readListener = readListener;
+        }
+    }
+}
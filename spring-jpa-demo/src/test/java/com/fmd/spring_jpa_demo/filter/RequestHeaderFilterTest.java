@@ -0,0 +1,189 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.logging.RequestContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link RequestHeaderFilter}: the 400 response of the header validation it replaced, the headers logged
+ * into MDC or the request context for the duration of the request only, and empty header lists.
+ */
+class RequestHeaderFilterTest {
+
+    private static final String REQUEST_ID = "X-Request-ID";
+    private static final String TENANT = "X-Tenant";
+    private static final String AUTHORIZATION = "Authorization";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * MDC and request context seen by the filter chain, null until it is called.
+     */
+    private Map<String, String> chainMdc;
+    private RequestContext chainContext;
+
+    private final FilterChain chain = (request, response) -> {
+        var mdc = MDC.getCopyOfContextMap();
+        chainMdc = mdc == null ? Map.of() : mdc;
+        chainContext = RequestContext.current();
+    };
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+    }
+
+    @Test
+    void respondsWithTheApiErrorListingTheMissingHeadersInTheirConfiguredOrder() throws Exception {
+        var filter = filter(List.of(), List.of(TENANT, AUTHORIZATION, REQUEST_ID), "mdc");
+        var request = request();
+        request.addHeader(AUTHORIZATION, "Bearer token");
+        request.addHeader(REQUEST_ID, " ");
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chainMdc).isNull();
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        var body = body(response);
+        assertThat(body.get("status").asInt()).isEqualTo(400);
+        assertThat(body.get("error").asText()).isEqualTo("Bad Request");
+        // Same message as the previous validation filter, blank headers count as missing
+        assertThat(body.get("message").asText()).isEqualTo("Missing mandatory headers: X-Tenant, X-Request-ID");
+        assertThat(body.get("path").asText()).isEqualTo("/api/v1/student");
+        assertThat(body.get("timestamp").asText()).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}");
+    }
+
+    @Test
+    void logsAHeaderThatIsAlsoMandatory() throws Exception {
+        var filter = filter(List.of(REQUEST_ID, TENANT), List.of(REQUEST_ID), "mdc");
+        var request = request();
+        request.addHeader(REQUEST_ID, "request-1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chainMdc).containsExactly(Map.entry(REQUEST_ID, "request-1"));
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(body(response).get("message").asText()).isEqualTo("Missing mandatory headers: X-Request-ID");
+    }
+
+    @Test
+    void clearsOnlyTheLoggedHeadersFromMdcAfterSuccessAndError() throws Exception {
+        var filter = filter(List.of(REQUEST_ID), List.of(AUTHORIZATION), "mdc");
+        MDC.put("unrelated", "kept");
+        var request = request();
+        request.addHeader(REQUEST_ID, "request-1");
+        request.addHeader(AUTHORIZATION, "Bearer token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chainMdc).containsEntry(REQUEST_ID, "request-1");
+        assertThat(MDC.getCopyOfContextMap()).containsExactly(Map.entry("unrelated", "kept"));
+
+        // The header is logged, then the request fails validation
+        Map<String, String> mdcWhileFailing = new HashMap<>();
+        var failing = request();
+        failing.addHeader(REQUEST_ID, "request-2");
+        var response = new MockHttpServletResponse() {
+            @Override
+            public void setStatus(int status) {
+                mdcWhileFailing.putAll(MDC.getCopyOfContextMap());
+                super.setStatus(status);
+            }
+        };
+        filter.doFilter(failing, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(mdcWhileFailing).containsEntry(REQUEST_ID, "request-2");
+        assertThat(MDC.getCopyOfContextMap()).containsExactly(Map.entry("unrelated", "kept"));
+    }
+
+    @Test
+    void bindsTheLoggedHeadersInTheRequestContextInScopedMode() throws Exception {
+        var filter = filter(List.of(REQUEST_ID, TENANT), List.of(AUTHORIZATION), "scoped");
+        var request = request();
+        request.addHeader(REQUEST_ID, "request-1");
+        request.addHeader(AUTHORIZATION, "Bearer token");
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chainContext.headers()).containsExactly(Map.entry(REQUEST_ID, "request-1"));
+        assertThat(chainMdc).isEmpty();
+        assertThat(RequestContext.current()).isNull();
+
+        List<RequestContext> contextWhileFailing = new ArrayList<>();
+        var failing = request();
+        failing.addHeader(TENANT, "tenant-1");
+        var response = new MockHttpServletResponse() {
+            @Override
+            public void setStatus(int status) {
+                contextWhileFailing.add(RequestContext.current());
+                super.setStatus(status);
+            }
+        };
+        filter.doFilter(failing, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(contextWhileFailing.getFirst().headers()).containsExactly(Map.entry(TENANT, "tenant-1"));
+        assertThat(RequestContext.current()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", ", ,"})
+    void passesRequestsThroughWithoutConfiguredHeaders(String headers) throws Exception {
+        // Split as Spring binds the comma-separated property, the previous logging filter failed on such lists
+        var configured = List.of(headers.split(",", -1));
+        var filter = filter(configured, configured, "mdc");
+        var response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, chain);
+
+        assertThat(chainMdc).isEmpty();
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void passesRequestsThroughWithNoHeaderList() throws Exception {
+        var filter = new RequestHeaderFilter(true, null, true, null, "mdc");
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertThat(chainMdc).isEmpty();
+    }
+
+    /**
+     * Creates a filter logging and validating the given headers.
+     */
+    private static RequestHeaderFilter filter(List<String> logged, List<String> mandatory, String context) {
+        return new RequestHeaderFilter(true, logged, true, mandatory, context);
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v1/student");
+    }
+
+    private JsonNode body(MockHttpServletResponse response) throws Exception {
+        return objectMapper.readTree(response.getContentAsString());
+    }
+}
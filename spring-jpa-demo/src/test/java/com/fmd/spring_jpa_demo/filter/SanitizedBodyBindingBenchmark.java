@@ -0,0 +1,141 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.fmd.spring_jpa_demo.filter.SanitizedJsonHttpMessageConverterTest.bind;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * JMH comparison of the request body sanitization modes, from the raw body to the bound students, with bodies
+ * whose string values need sanitizing or not. Run by {@link SanitizedBodyBindingBenchmarkTest}.
+ * <p>
+ * The default mode parses a body needing sanitization twice: once to sanitize it into JSON bytes and once to
+ * bind them. Parse-once mode binds the sanitized tokens instead. A clean body is parsed once in both modes.
+ * <p>
+ * The body is read in bulk like a servlet container does, the input stream of {@link MockHttpServletRequest}
+ * reading one byte at a time would cost more than both parses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SanitizedBodyBindingBenchmark {
+
+    private static final long IN_MEMORY_THRESHOLD = 256 * 1024;
+
+    private static final long MAX_SIZE = 10 * 1024 * 1024;
+
+    private static final Type STUDENTS = new ParameterizedTypeReference<List<StudentDTO>>() {
+    }.getType();
+
+    /**
+     * Number of students in the body.
+     */
+    @Param({"1", "100"})
+    public int students;
+
+    /**
+     * Whether the string values of the body carry control characters.
+     */
+    @Param({"true", "false"})
+    public boolean dirty;
+
+    private byte[] body;
+    private List<GenericHttpMessageConverter<Object>> defaultConverters;
+    private List<GenericHttpMessageConverter<Object>> parseOnceConverters;
+
+    @Setup
+    public void setUp() {
+        var objectMapper = new ObjectMapper();
+        var defaultConverter = new MappingJackson2HttpMessageConverter(objectMapper);
+        defaultConverters = List.of(defaultConverter);
+        parseOnceConverters = List.of(new SanitizedJsonHttpMessageConverter(objectMapper), defaultConverter);
+        var separator = dirty ? "\\t" : " ";
+        body = IntStream.range(0, students)
+                .mapToObj(i -> "{\"firstName\":\"First" + separator + i + "\",\"lastName\":\"Last" + separator + i
+                        + "\",\"address\":[{\"area\":\"North" + separator + "Side\",\"city\":\"Paris\","
+                        + "\"zipcode\":\"750" + i % 100 + "\"},{\"area\":\"South\",\"city\":\"Lyon\","
+                        + "\"zipcode\":\"690" + i % 100 + "\"}]}")
+                .collect(Collectors.joining(",", "[", "]"))
+                .getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public Object defaultMode() throws IOException {
+        return bind(new SanitizedRequestWrapper(request(body), false, IN_MEMORY_THRESHOLD, MAX_SIZE), STUDENTS,
+                defaultConverters);
+    }
+
+    @Benchmark
+    public Object parseOnce() throws IOException {
+        return bind(new SanitizedRequestWrapper(request(body), true, IN_MEMORY_THRESHOLD, MAX_SIZE), STUDENTS,
+                parseOnceConverters);
+    }
+
+    /**
+     * Creates a request whose input stream reads the body in bulk.
+     */
+    private static MockHttpServletRequest request(byte[] body) {
+        var request = new MockHttpServletRequest("POST", "/student") {
+            private final ServletInputStream inputStream = new ServletInputStream() {
+                private final ByteArrayInputStream content = new ByteArrayInputStream(body);
+
+                @Override
+                public int read() {
+                    return content.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return content.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return content.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+
+            @Override
+            public ServletInputStream getInputStream() {
+                return inputStream;
+            }
+        };
+        request.setContent(body);
+        request.setContentType(APPLICATION_JSON.toString());
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.fmd.spring_jpa_demo.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * Tests that parse-once mode, binding the tokens of {@link SanitizedRequestWrapper} with
+ * {@link SanitizedJsonHttpMessageConverter}, gives the same result as the default mode, binding the sanitized body
+ * with the regular converter.
+ */
+class SanitizedJsonHttpMessageConverterTest {
+
+    private static final long IN_MEMORY_THRESHOLD = 256 * 1024;
+
+    private static final long MAX_SIZE = 1024 * 1024;
+
+    private static final Type STUDENTS = new ParameterizedTypeReference<List<StudentDTO>>() {
+    }.getType();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final MappingJackson2HttpMessageConverter defaultConverter =
+            new MappingJackson2HttpMessageConverter(objectMapper);
+
+    private final List<GenericHttpMessageConverter<Object>> parseOnceConverters =
+            List.of(new SanitizedJsonHttpMessageConverter(objectMapper), defaultConverter);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"address\":[{\"area\":\"North\",\"city\":\"Paris\","
+                    + "\"zipcode\":\"75001\"}],\"version\":3}]",
+            "[{\"firstName\":\"Ja\\u0007ne\\r\\n\",\"lastName\":\"D\u007Foe\",\"address\":[{\"area\":\"No\\trth\","
+                    + "\"city\":\"Paris\\u0000\",\"zipcode\":\"75\\\\001\"}],\"createdAt\":\"2020-01-01T00:00:00Z\"}]",
+            "[{\"firstName\":\"\\ud83d\\ude00\\u001f\\u007f\",\"lastName\":\"\\u0085\\u00a0\"}]",
+            "[{\"firstName\":\"\\t\"}] [{\"lastName\":\"trailing\"}]"
+    })
+    void bindsStudentsAsTheDefaultMode(String json) throws IOException {
+        var body = json.getBytes(UTF_8);
+
+        var expected = bind(new SanitizedRequestWrapper(request(body), false, IN_MEMORY_THRESHOLD, MAX_SIZE),
+                STUDENTS, List.of(defaultConverter));
+        var actual = bind(new SanitizedRequestWrapper(request(body), true, IN_MEMORY_THRESHOLD, MAX_SIZE),
+                STUDENTS, parseOnceConverters);
+
+        assertThat(objectMapper.writeValueAsString(actual)).isEqualTo(objectMapper.writeValueAsString(expected));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"a\":[1,-2.5,true,false,null,\"x\\ny\"],\"b\":{\"c\":\"\\u001f\",\"d\\u0007\":[[\"\\b\"]]}}",
+            "{\"big\":123456789012345678901234567890,\"precise\":0.1000000000000000055511151231257827,"
+                    + "\"exp\":1.5e300,\"s\":\"\\u007F\"}",
+            "\"root \\t string\"",
+            "[\"\\r\\n\", \"\\u2028\", {}, []]",
+            "{\"clean\":\"value\",\"n\":1}"
+    })
+    void sanitizesBodiesAsTheDefaultMode(String json) throws IOException {
+        var body = json.getBytes(UTF_8);
+        var defaultRequest = new SanitizedRequestWrapper(request(body), false, IN_MEMORY_THRESHOLD, MAX_SIZE);
+        var parseOnceRequest = new SanitizedRequestWrapper(request(body), true, IN_MEMORY_THRESHOLD, MAX_SIZE);
+
+        assertThat(parseOnceRequest.getInputStream().readAllBytes())
+                .asString(UTF_8)
+                .isEqualTo(new String(defaultRequest.getInputStream().readAllBytes(), UTF_8));
+        assertThat(bind(parseOnceRequest, JsonNode.class, parseOnceConverters))
+                .isEqualTo(bind(defaultRequest, JsonNode.class, List.of(defaultConverter)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void keepsFloatingPointNumbersAsWritten(boolean parseOnce) throws IOException {
+        var body = "{\"s\":\"a\\tb\",\"precise\":0.1000000000000000055511151231257827,\"exp\":1.5e300}".getBytes(UTF_8);
+
+        var request = new SanitizedRequestWrapper(request(body), parseOnce, IN_MEMORY_THRESHOLD, MAX_SIZE);
+
+        assertThat(request.getInputStream().readAllBytes()).asString(UTF_8)
+                .isEqualTo("{\"s\":\"ab\",\"precise\":0.1000000000000000055511151231257827,\"exp\":1.5e300}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"firstName\":\"Ja\\u0007ne\"",
+            "{\"firstName\":\"\\q\"}",
+            "not json \\u0007",
+            "{\"firstName\":\"\u007F\",}",
+            "{\"firstName\":"
+    })
+    void passesMalformedBodiesThroughUnchangedAsTheDefaultMode(String json) throws IOException {
+        var body = json.getBytes(UTF_8);
+        var defaultRequest = new SanitizedRequestWrapper(request(body), false, IN_MEMORY_THRESHOLD, MAX_SIZE);
+        var parseOnceRequest = new SanitizedRequestWrapper(request(body), true, IN_MEMORY_THRESHOLD, MAX_SIZE);
+
+        assertThat(parseOnceRequest.getInputStream().readAllBytes()).isEqualTo(body);
+        assertThat(defaultRequest.getInputStream().readAllBytes()).isEqualTo(body);
+        assertThatThrownBy(() -> bind(parseOnceRequest, JsonNode.class, parseOnceConverters))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+        assertThatThrownBy(() -> bind(defaultRequest, JsonNode.class, List.of(defaultConverter)))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    /**
+     * Binds the body of a request like Spring MVC, with the first converter able to read it.
+     */
+    static Object bind(SanitizedRequestWrapper request, Type type,
+                       List<? extends GenericHttpMessageConverter<Object>> converters) throws IOException {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            for (var converter : converters) {
+                if (converter.canRead(type, null, APPLICATION_JSON)) {
+                    return converter.read(type, null, new ServletServerHttpRequest(request));
+                }
+            }
+            throw new IllegalStateException("No converter for " + type);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    static MockHttpServletRequest request(byte[] body) {
+        var request = new MockHttpServletRequest("POST", "/student");
+        request.setContent(body);
+        request.setContentType(APPLICATION_JSON.toString());
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.SpringJpaDemoApplication;
+import jakarta.servlet.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * JMH measurement of the latency of a student request with the logging aspect absent, the default, and with the
+ * aspect registered but switched off. Run by {@link LoggingAspectBenchmarkTest}.
+ * <p>
+ * Each setting starts the application with the test profile, creates a student and then requests it through the
+ * filters of the application, MVC, the controller and the service, advised by the aspect when it is registered.
+ * Requests are dispatched in process with {@link MockMvc}, the socket round trips would dwarf the advice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoggingAspectBenchmark {
+
+    private static final String STUDENT = "{\"firstName\":\"Jane\",\"lastName\":\"Doe\","
+            + "\"address\":[{\"area\":\"North\",\"city\":\"Paris\",\"zipcode\":\"75001\"}]}";
+
+    /**
+     * Whether the logging aspect is {@code absent} or registered but switched {@code off}.
+     */
+    @Param({"absent", "off"})
+    public String aspect;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private RequestBuilder getStudent;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Command line arguments, unlike default properties, take precedence over the application configuration
+        context = new SpringApplicationBuilder(SpringJpaDemoApplication.class)
+                .profiles("test")
+                // The request log lines, piped through JMH, would take longer than the requests themselves
+                .run("--server.port=0", "--logging.level.com.fmd.spring_jpa_demo=WARN",
+                        "--com.fmd.spring-jpa-demo.logging.aspect.enabled=" + "off".equals(aspect),
+                        "--com.fmd.spring-jpa-demo.logging.aspect.active=false");
+        var filters = context.getBeansOfType(Filter.class).values().stream()
+                .sorted(AnnotationAwareOrderComparator.INSTANCE)
+                .toArray(Filter[]::new);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).addFilters(filters).build();
+        var saved = mockMvc.perform(post("/api/v1/student")
+                        .header("Authorization", "Bearer benchmark")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(STUDENT))
+                .andReturn().getResponse().getContentAsString();
+        var id = new ObjectMapper().readTree(saved).get("id").asInt();
+        getStudent = get("/api/v1/student/{id}", id).header("Authorization", "Bearer benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getStudent() throws Exception {
+        var response = mockMvc.perform(getStudent).andReturn().getResponse();
+        if (response.getStatus() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.getStatus());
+        }
+        return response.getContentAsString();
+    }
+}
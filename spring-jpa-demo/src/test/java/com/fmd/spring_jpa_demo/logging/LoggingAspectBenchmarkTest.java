@@ -0,0 +1,56 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link LoggingAspectBenchmark} JMH comparison with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Switched off, the logging advice costs a volatile read per advised call, which must not show in the request
+ * latency next to the aspect being absent.
+ */
+@Slf4j
+@Tag("benchmark")
+class LoggingAspectBenchmarkTest {
+
+    /**
+     * Maximum ratio of the request latency with the aspect switched off to the latency without it, both about 200 us
+     * measured.
+     */
+    private static final double MAX_OVERHEAD = 1.15;
+
+    @Test
+    void switchedOffAspectDoesNotSlowDownRequests() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(LoggingAspectBenchmark.class.getName())
+                .forks(1)
+                // Requests only reach their steady latency once the filters, MVC, JPA and Jackson are compiled
+                .warmupIterations(40)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(10)
+                .measurementTime(TimeValue.seconds(2))
+                .build();
+
+        Map<String, Double> latencies = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            latencies.put(result.getParams().getParam("aspect"), result.getPrimaryResult().getScore());
+        }
+
+        double absent = latencies.get("absent");
+        double off = latencies.get("off");
+        log.info("Student request latency: {} us with the logging aspect absent, {} us with it switched off",
+                String.format("%.1f", absent), String.format("%.1f", off));
+        assertThat(off / absent).as("latency ratio of the switched off aspect").isLessThanOrEqualTo(MAX_OVERHEAD);
+    }
+}
@@ -0,0 +1,82 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.Advisor;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link LoggingAspectConfig} registers the logging advice when TRACE is enabled for it, unless overridden
+ * by the enabled property.
+ */
+class LoggingAspectConditionTest {
+
+    private final LoggingSystem loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(LoggingAspectConfig.class);
+
+    @AfterEach
+    void tearDown() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), null);
+    }
+
+    @Test
+    void registersTheAdviceWhenTraceIsEnabled() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), LogLevel.TRACE);
+
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(LoggingAspect.class).hasSingleBean(LoggingAspectEndpoint.class);
+            assertThat(context.getBean(Advisor.class).getAdvice()).isSameAs(context.getBean(LoggingAspect.class));
+        });
+    }
+
+    @Test
+    void registersNothingWhenTraceIsDisabled() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), LogLevel.DEBUG);
+
+        contextRunner.run(context -> assertThat(context)
+                .doesNotHaveBean(LoggingAspectConfig.class)
+                .doesNotHaveBean(Advisor.class));
+    }
+
+    @Test
+    void disabledPropertyOverridesTrace() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), LogLevel.TRACE);
+
+        contextRunner.withPropertyValues("com.fmd.spring-jpa-demo.logging.aspect.enabled=false")
+                .run(context -> assertThat(context)
+                        .doesNotHaveBean(LoggingAspectConfig.class)
+                        .doesNotHaveBean(Advisor.class));
+    }
+
+    @Test
+    void enabledPropertyRegistersTheAdviceWithoutTrace() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), LogLevel.INFO);
+
+        contextRunner.withPropertyValues("com.fmd.spring-jpa-demo.logging.aspect.enabled=true",
+                        "com.fmd.spring-jpa-demo.logging.aspect.active=false")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(LoggingAspect.class);
+                    assertThat(context.getBean(LoggingAspect.class).isActive()).isFalse();
+                });
+    }
+
+    @Test
+    void timingAloneRegistersOnlyTheTimingAdvice() {
+        loggingSystem.setLogLevel(LoggingAspect.class.getName(), LogLevel.INFO);
+
+        contextRunner.withPropertyValues("com.fmd.spring-jpa-demo.logging.aspect.timing.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(TimingAspect.class).doesNotHaveBean(LoggingAspect.class);
+                    assertThat(context.getBean(Advisor.class).getAdvice()).isSameAs(context.getBean(TimingAspect.class));
+                });
+    }
+}
@@ -0,0 +1,82 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that the logging advice is registered when TRACE is configured for it, and that it only proxies the beans
+ * outside the packages excluded by default.
+ */
+@SpringBootTest(properties = "logging.level.com.fmd.spring_jpa_demo.logging.LoggingAspect=TRACE")
+@ActiveProfiles("test")
+class LoggingAspectConfigTest {
+
+    private static final String APPLICATION_PACKAGE = "com.fmd.spring_jpa_demo.";
+
+    private static final List<String> EXCLUDED_PACKAGES =
+            Arrays.asList(LoggingAspectConfig.DEFAULT_EXCLUDED_PACKAGES.split(","));
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void advisesTheBeansOutsideTheExcludedPackages() {
+        var advised = applicationBeans().entrySet().stream()
+                .collect(Collectors.partitioningBy(bean -> isAdvisedByLoggingAspect(bean.getValue()),
+                        Collectors.mapping(bean -> AopUtils.getTargetClass(bean.getValue()).getName(),
+                                Collectors.toSet())));
+
+        assertThat(advised.get(true)).contains(
+                "com.fmd.spring_jpa_demo.controller.StudentController",
+                "com.fmd.spring_jpa_demo.service.impl.StudentServiceImpl",
+                "com.fmd.spring_jpa_demo.service.StudentCountCache",
+                "com.fmd.spring_jpa_demo.exception.GlobalExceptionHandler");
+        assertThat(advised.get(true)).noneMatch(LoggingAspectConfigTest::isExcluded);
+        assertThat(advised.get(false)).contains(
+                "com.fmd.spring_jpa_demo.filter.RequestBodySanitizationFilter",
+                "com.fmd.spring_jpa_demo.filter.RequestHeaderFilter",
+                "com.fmd.spring_jpa_demo.dto.mapper.StudentMapperImpl",
+                "com.fmd.spring_jpa_demo.dto.mapper.AddressMapperImpl",
+                "com.fmd.spring_jpa_demo.security.CustomAuthenticationEntryPoint");
+    }
+
+    @Test
+    void excludesHotPathPackagesByDefault() {
+        assertThat(context.getBean(LoggingAspectEndpoint.class).state().get("pointcut").toString())
+                .contains(EXCLUDED_PACKAGES.stream().map(p -> "!within(" + p + "..*)").toList());
+    }
+
+    /**
+     * Returns the beans whose classes belong to the application, by name.
+     */
+    private Map<String, Object> applicationBeans() {
+        return Arrays.stream(context.getBeanDefinitionNames())
+                .filter(name -> {
+                    var type = context.getType(name);
+                    return type != null && type.getName().startsWith(APPLICATION_PACKAGE);
+                })
+                .collect(Collectors.toMap(Function.identity(), context::getBean));
+    }
+
+    private static boolean isAdvisedByLoggingAspect(Object bean) {
+        return bean instanceof Advised advised && Arrays.stream(advised.getAdvisors())
+                .anyMatch(advisor -> advisor.getAdvice() instanceof LoggingAspect);
+    }
+
+    private static boolean isExcluded(String className) {
+        return EXCLUDED_PACKAGES.stream().anyMatch(p -> className.startsWith(p + "."));
+    }
+}
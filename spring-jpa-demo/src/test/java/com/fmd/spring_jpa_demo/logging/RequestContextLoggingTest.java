@@ -0,0 +1,89 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests of the scoped request context mode: the context reaching the tasks of the application executor, and the
+ * structured log lines of a request carrying its headers, including those written by its async processing.
+ */
+@SpringBootTest(properties = "request.header.logging.context=scoped")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class RequestContextLoggingTest {
+
+    private static final String REQUEST_ID = "X-Request-ID";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void propagatesTheContextToTheTasksOfTheApplicationExecutor() throws Exception {
+        var context = new RequestContext(Map.of(REQUEST_ID, "request-1"), "jane");
+
+        try (var ignored = RequestContext.open(context)) {
+            assertThat(applicationTaskExecutor.submit(RequestContext::current).get()).isSameAs(context);
+        }
+        assertThat(applicationTaskExecutor.submit(RequestContext::current).get()).isNull();
+    }
+
+    @Test
+    void logsTheRequestHeadersFromTheRequestAndItsAsyncProcessing(CapturedOutput output) throws Exception {
+        var result = mockMvc.perform(get("/api/v1/student/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer test")
+                        .header(REQUEST_ID, "request-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        var handled = logLine(output, "Export students as NDJSON");
+        var exported = logLine(output, "Exported ");
+        assertThat(handled.path(REQUEST_ID).asText()).isEqualTo("request-1");
+        assertThat(exported.path(REQUEST_ID).asText()).isEqualTo("request-1");
+        // Written by the async processing, after the request thread has left the filter
+        assertThat(exported.path("process.thread.name").asText())
+                .isNotEqualTo(handled.path("process.thread.name").asText());
+    }
+
+    /**
+     * Returns the last structured log line whose message starts with the given text.
+     */
+    private JsonNode logLine(CapturedOutput output, String message) throws Exception {
+        JsonNode found = null;
+        for (String line : output.getOut().lines().filter(line -> line.startsWith("{")).toList()) {
+            var json = objectMapper.readTree(line);
+            if (json.path("message").asText().startsWith(message)) {
+                found = json;
+            }
+        }
+        assertThat(found).as("log line '%s'", message).isNotNull();
+        return found;
+    }
+}
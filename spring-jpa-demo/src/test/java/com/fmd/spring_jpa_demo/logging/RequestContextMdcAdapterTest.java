@@ -0,0 +1,126 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that log events carry the fields of the {@link RequestContext} bound when they were logged, through
+ * {@link RequestContextMdcAdapter}, with a logger context of their own.
+ */
+class RequestContextMdcAdapterTest {
+
+    private static final String REQUEST_ID = "X-Request-ID";
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final LogbackMDCAdapter mdcAdapter = new LogbackMDCAdapter();
+
+    /**
+     * MDC of the events as written by a synchronous appender.
+     */
+    private final List<Map<String, String>> written = new CopyOnWriteArrayList<>();
+    private final AppenderBase<ILoggingEvent> appender = new AppenderBase<>() {
+        @Override
+        protected void append(ILoggingEvent event) {
+            written.add(event.getMDCPropertyMap());
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.setMDCAdapter(mdcAdapter);
+        loggerContext.start();
+        appender.setContext(loggerContext);
+        appender.start();
+        RequestContextMdcAdapter.install(loggerContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mdcAdapter.clear();
+        loggerContext.stop();
+    }
+
+    @Test
+    void addsTheContextFieldsToTheMdcEntriesOfTheEvent() {
+        var logger = loggerContext.getLogger("test");
+        logger.addAppender(appender);
+        loggerContext.getMDCAdapter().put("traceId", "trace-1");
+
+        try (var ignored = RequestContext.open(context("request-1").withSubject("jane"))) {
+            logger.info("Within the request");
+        }
+        logger.info("After the request");
+
+        assertThat(written).containsExactly(
+                Map.of("traceId", "trace-1", REQUEST_ID, "request-1", RequestContextMdcAdapter.SUBJECT, "jane"),
+                Map.of("traceId", "trace-1"));
+        // MDC itself is left unchanged
+        assertThat(mdcAdapter.getCopyOfContextMap()).containsExactly(Map.entry("traceId", "trace-1"));
+    }
+
+    @Test
+    void keepsTheFieldsOfTheLoggingRequestWhenTheEventIsWrittenLater() {
+        // Written by the async appender's worker thread, once both requests have ended
+        var released = new CountDownLatch(1);
+        var delayed = new AppenderBase<ILoggingEvent>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                written.add(event.getMDCPropertyMap());
+            }
+        };
+        delayed.setContext(loggerContext);
+        delayed.start();
+        var asyncAppender = new AsyncAppender();
+        asyncAppender.setContext(loggerContext);
+        asyncAppender.addAppender(delayed);
+        asyncAppender.start();
+        var logger = loggerContext.getLogger("async");
+        logger.addAppender(asyncAppender);
+
+        try (var ignored = RequestContext.open(context("request-1"))) {
+            logger.info("First request");
+        }
+        try (var ignored = RequestContext.open(context("request-2"))) {
+            logger.info("Second request");
+        }
+        released.countDown();
+        asyncAppender.stop();
+
+        assertThat(asyncAppender.getNumberOfElementsInQueue()).isZero();
+        assertThat(written).containsExactly(Map.of(REQUEST_ID, "request-1"), Map.of(REQUEST_ID, "request-2"));
+    }
+
+    @Test
+    void isInstalledOnceAndRestoresThePreviousAdapter() {
+        var installed = loggerContext.getMDCAdapter();
+        assertThat(installed).isInstanceOf(RequestContextMdcAdapter.class);
+
+        RequestContextMdcAdapter.install(loggerContext);
+        assertThat(loggerContext.getMDCAdapter()).isSameAs(installed);
+
+        RequestContextMdcAdapter.uninstall(loggerContext);
+        assertThat(loggerContext.getMDCAdapter()).isSameAs(mdcAdapter);
+    }
+
+    private static RequestContext context(String requestId) {
+        return new RequestContext(Map.of(REQUEST_ID, requestId), null);
+    }
+}
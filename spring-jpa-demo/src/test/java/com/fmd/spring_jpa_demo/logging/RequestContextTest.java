@@ -0,0 +1,100 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the bindings of {@link RequestContext}: scopes binding and restoring, and tasks running with the context
+ * of the thread that wrapped them.
+ */
+class RequestContextTest {
+
+    private final RequestContext outer = new RequestContext(Map.of("X-Request-ID", "request-1"), null);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void bindsTheContextUntilTheScopeIsClosed() {
+        assertThat(RequestContext.current()).isNull();
+
+        try (var ignored = RequestContext.open(outer)) {
+            assertThat(RequestContext.current()).isSameAs(outer);
+        }
+
+        assertThat(RequestContext.current()).isNull();
+    }
+
+    @Test
+    void restoresTheOuterBindingWhenANestedScopeIsClosed() {
+        var inner = outer.withSubject("jane");
+
+        try (var ignored = RequestContext.open(outer)) {
+            try (var nested = RequestContext.open(inner)) {
+                assertThat(RequestContext.current()).isSameAs(inner);
+            }
+            assertThat(RequestContext.current()).isSameAs(outer);
+
+            // A scope without context hides the outer binding for its duration only
+            try (var nested = RequestContext.open(null)) {
+                assertThat(RequestContext.current()).isNull();
+            }
+            assertThat(RequestContext.current()).isSameAs(outer);
+        }
+        assertThat(RequestContext.current()).isNull();
+    }
+
+    @Test
+    void cannotBeMutatedThroughItsHeaders() {
+        var headers = new HashMap<>(Map.of("X-Request-ID", "request-1"));
+        var context = new RequestContext(headers, null);
+        headers.put("X-Tenant", "tenant-1");
+
+        assertThat(context.headers()).containsExactly(Map.entry("X-Request-ID", "request-1"));
+        var authenticated = context.withSubject("jane");
+        assertThat(authenticated.headers()).isEqualTo(context.headers());
+        assertThat(authenticated.subject()).isEqualTo("jane");
+        assertThat(context.subject()).isNull();
+    }
+
+    @Test
+    void runsAWrappedTaskWithTheContextBoundWhenItWasWrapped() throws Exception {
+        Runnable runnable;
+        Callable<RequestContext> callable;
+        try (var ignored = RequestContext.open(outer)) {
+            AtomicReference<RequestContext> seen = new AtomicReference<>();
+            runnable = RequestContext.wrap(() -> seen.set(RequestContext.current()));
+            callable = RequestContext.wrap(RequestContext::current);
+
+            executor.submit(runnable).get();
+            assertThat(seen).hasValue(outer);
+        }
+
+        assertThat(executor.submit(callable).get()).isSameAs(outer);
+        // The binding does not outlive the task on the worker thread
+        assertThat(executor.submit(RequestContext::current).get()).isNull();
+    }
+
+    @Test
+    void leavesTheTaskUnwrappedWithoutContext() {
+        Runnable runnable = () -> {
+        };
+        Callable<String> callable = () -> "done";
+
+        assertThat(RequestContext.wrap(runnable)).isSameAs(runnable);
+        assertThat(RequestContext.wrap(callable)).isSameAs(callable);
+    }
+}
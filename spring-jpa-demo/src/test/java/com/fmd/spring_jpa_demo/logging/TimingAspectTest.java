@@ -0,0 +1,59 @@
+package com.fmd.spring_jpa_demo.logging;
+
+import com.fmd.spring_jpa_demo.service.StudentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link TimingAspect} registers the timers of the advised methods on startup, before their first call.
+ */
+@SpringBootTest(properties = "com.fmd.spring-jpa-demo.logging.aspect.timing.enabled=true")
+@ActiveProfiles("test")
+class TimingAspectTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Test
+    void preallocatesTheTimersOfTheAdvisedMethods() {
+        var success = timer("StudentServiceImpl", "getStudentSlice", "success");
+        var error = timer("StudentServiceImpl", "getStudentSlice", "error");
+        assertThat(success).isNotNull();
+        assertThat(error).isNotNull();
+        assertThat(timer("StudentController", "getStudentSlice", "success")).isNotNull();
+        assertThat(success.count()).isZero();
+
+        studentService.getStudentSlice(PageRequest.of(0, 1));
+
+        assertThat(timer("StudentServiceImpl", "getStudentSlice", "success")).isSameAs(success);
+        assertThat(success.count()).isEqualTo(1);
+        assertThat(error.count()).isZero();
+    }
+
+    @Test
+    void timesTheMappersButNotTheFilters() {
+        // Generated methods are declared by the implementation, default ones by the mapper interface
+        assertThat(timer("StudentMapperImpl", "toEntity", "success")).isNotNull();
+        assertThat(timer("StudentMapper", "fromRows", "success")).isNotNull();
+        assertThat(meterRegistry.find("method.invocations").timers())
+                .noneMatch(timer -> timer.getId().getTag("class").endsWith("Filter"));
+    }
+
+    private Timer timer(String className, String methodName, String outcome) {
+        return meterRegistry.find("method.invocations")
+                .tag("class", className)
+                .tag("method", methodName)
+                .tag("outcome", outcome)
+                .timer();
+    }
+}
@@ -0,0 +1,68 @@
+package com.fmd.spring_jpa_demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * JMH measurement of the {@link JwtSignatureVerifier} throughput on a single thread, that is per core, for each
+ * supported algorithm. Run by {@link JwtSignatureVerifierBenchmarkTest}.
+ * <p>
+ * The baseline verifies the same signature with a bare {@link Signature} already holding the decoded signing
+ * input and signature, the cost of the cryptography alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtSignatureVerifierBenchmark {
+
+    @Param({"RS256", "ES256"})
+    public String algorithm;
+
+    private JwtSignatureVerifier verifier;
+    private String authHeader;
+    private Signature signature;
+    private PublicKey key;
+    private byte[] signingInput;
+    private byte[] signatureBytes;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        var keyStore = JwtSignatureVerifierTest.loadKeyStore();
+        verifier = new JwtSignatureVerifier(keyStore, new SimpleMeterRegistry());
+        var token = "RS256".equals(algorithm) ? JwtSignatureVerifierTest.RS256_TOKEN
+                : JwtSignatureVerifierTest.ES256_TOKEN;
+        authHeader = "Bearer " + token;
+
+        signature = Signature.getInstance("RS256".equals(algorithm) ? "SHA256withRSA" : "SHA256withECDSAinP1363Format");
+        key = keyStore.getKey("RS256".equals(algorithm) ? "rsa-key" : "ec-key");
+        signingInput = token.substring(0, token.lastIndexOf('.')).getBytes(US_ASCII);
+        signatureBytes = Base64.getUrlDecoder().decode(token.substring(token.lastIndexOf('.') + 1));
+    }
+
+    @Benchmark
+    public void verify() {
+        verifier.verify(authHeader);
+    }
+
+    @Benchmark
+    public boolean baseline() throws GeneralSecurityException {
+        signature.initVerify(key);
+        signature.update(signingInput);
+        return signature.verify(signatureBytes);
+    }
+}
@@ -0,0 +1,61 @@
+package com.fmd.spring_jpa_demo.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link JwtSignatureVerifierBenchmark} JMH measurement with {@code mvn test -Pbenchmark}.
+ * <p>
+ * The throughput per core is bound by the cryptography of each algorithm, so the verifier is compared with a bare
+ * {@link java.security.Signature} verification: parsing the header, looking up the key and reusing the pooled
+ * {@code Signature} must keep it close to that baseline.
+ */
+@Slf4j
+@Tag("benchmark")
+class JwtSignatureVerifierBenchmarkTest {
+
+    /**
+     * Minimum ratio of the verifier throughput to the bare signature verification, 0.9 to 1.15 measured.
+     */
+    private static final double MIN_BASELINE_RATIO = 0.8;
+
+    @Test
+    void verifiesCloseToTheBareSignatureThroughput() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(JwtSignatureVerifierBenchmark.class.getName())
+                .forks(1)
+                .threads(1)
+                // ECDSA runs a few hundred times per second on a slow core, enough warmup to compile it
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .build();
+
+        Map<String, Double> throughputs = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            throughputs.put(result.getPrimaryResult().getLabel() + " " + result.getParams().getParam("algorithm"),
+                    result.getPrimaryResult().getScore());
+        }
+
+        for (String algorithm : new String[]{"RS256", "ES256"}) {
+            double verify = throughputs.get("verify " + algorithm);
+            double baseline = throughputs.get("baseline " + algorithm);
+            log.info("{} signature verification: {} tokens per second and core, {} for the bare signature",
+                    algorithm, String.format("%.0f", verify), String.format("%.0f", baseline));
+            assertThat(verify / baseline).as("%s ratio to the baseline", algorithm)
+                    .isGreaterThanOrEqualTo(MIN_BASELINE_RATIO);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.fmd.spring_jpa_demo.security;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.security.GeneralSecurityException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link JwtSignatureVerifier} with known-answer RS256 and ES256 vectors.
+ * <p>
+ * The tokens were signed with OpenSSL by the private keys of the RSA-2048 {@code rsa-key} and the P-256
+ * {@code ec-key} of {@code jwks-test.json}, over the payload {@code {"sub":"alice","exp":4102444800}}.
+ */
+class JwtSignatureVerifierTest {
+
+    static final String JWKS_LOCATION = "classpath:jwks-test.json";
+
+    static final String RS256_TOKEN = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6InJzYS1rZXkifQ"
+            + ".eyJzdWIiOiJhbGljZSIsImV4cCI6NDEwMjQ0NDgwMH0"
+            + ".IJqwoZlaG24MMcS2d5lGenLpHnVTm2oEx3uL7ruaqbHQjbQBNVCrYadtG627kxkTcKIiDgvV95ARK4jpblnGz-dIS7QJ7xUsoYNFV"
+            + "AcyvaJjZ4nOQwpRdjCLXGzDarvLyQhLZI7_y69ZnfY6ielxLR_xAwVWzZKmhS5glZELkHuB0w70uW2sOBqirUXg3WEf_MBYVpZj7dGE"
+            + "NSQsVktySvuBYPFSrim3iBVplJdNx6OLQTskTzInhWTniC8iKf7AFCMVHgciuSxKeluUM_5yjDn-EkRBlkG0B4E-Bh_0_s7cpviDQK8"
+            + "z1nJrFYZEi-EgpE83GRt6NmxA1Y5-Oy6dAg";
+
+    static final String ES256_TOKEN = "eyJhbGciOiJFUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6ImVjLWtleSJ9"
+            + ".eyJzdWIiOiJhbGljZSIsImV4cCI6NDEwMjQ0NDgwMH0"
+            + ".P2cja8K64_I6uuRf46IqtuoKf3S2RrXUTF7ubYodF0SsYQA2gvFHMscrS7YZpu7MuOdcNsX1JSt6L6kcXO8DTQ";
+
+    /**
+     * RS256 token signed by {@code rsa-key} whose header names {@code ec-key}.
+     */
+    private static final String RS256_TOKEN_WITH_EC_KID =
+            "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6ImVjLWtleSJ9"
+            + ".eyJzdWIiOiJhbGljZSIsImV4cCI6NDEwMjQ0NDgwMH0"
+            + ".ehWUWnPewLeNmrFK1HfhOEZ9-zP4naMTi4gRBvZ15b0tBeWQKsVoGStj15iPGXwuoiltfLO8klvbBMxYUaVD5r4eQFSh6RPRi6rEb6e"
+            + "4yB1Ert5O0rUUC_T2_08-ZkS6oj5u_17L4NVxBJtoZHigvDudICb9g6ogzN9w12BLGnOwKHWqZbdLTRvblVO60yYIYk2KdsXrF0R_hK"
+            + "mUFBbWEeGyWUbtJ5Kztl2ezURxJJsnOT0YGLyG1E222YR4-Y-3xCm9WpvEOoWoA2tHbPQvosr3v0jGvsVOoCrVFZs2dZeBBJs6u1cI9"
+            + "LOqEOUlb5UrIWfKaAk62sdwCcRGebW_hg";
+
+    /**
+     * ES256 token signed by {@code ec-key} whose header names {@code rsa-key}.
+     */
+    private static final String ES256_TOKEN_WITH_RSA_KID =
+            "eyJhbGciOiJFUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6InJzYS1rZXkifQ"
+            + ".eyJzdWIiOiJhbGljZSIsImV4cCI6NDEwMjQ0NDgwMH0"
+            + ".-NSXQiBfK91wNxk3zK1hQ0A67WGCa9C8Mem-9s40BMnMr9m0bDIEBN2e0jX8nb1CJWyiXCCJTwpZNHbWIDu3-Q";
+
+    /**
+     * RS256 token signed by {@code rsa-key} whose header names a key missing from the key set.
+     */
+    private static final String RS256_TOKEN_WITH_UNKNOWN_KID =
+            "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCIsImtpZCI6InVua25vd24ta2V5In0"
+            + ".eyJzdWIiOiJhbGljZSIsImV4cCI6NDEwMjQ0NDgwMH0"
+            + ".BAexilkRlv2hLtP23vuS3fXOC_NRQxbQoR_v-JyUJh0-8T4_QzTgYQLUrzUoYAcI0ZhalZEN3aO62LBwF7mJG05QTXJIA7kotqmhDS1"
+            + "EOUpfyo1dUUFSe_H5AiG0mS_61ifnQ8l8Bh_sc_8iT7_HpgR9ddjy4hqrfDyOuvx2JQMZa4xOfEIT1lEfPcIsy15ChbA9RS1-qwjbhYX"
+            + "XDrjKZp1Kp8uP0EL2ZkDvlCc-bIbSNrPeE_eAjCZRajNSkJXdmP8Hnr7PoTbfRQRVPuEwzaQYYN4OlXzihOmYsOUYy8TGheuPBHBM21f"
+            + "sZYegBl_a66zcBh7cWMkKjzarApoPNA";
+
+    /**
+     * Payload {@code {"sub":"mallory","exp":4102444800}}, to substitute for the signed one.
+     */
+    private static final String FORGED_PAYLOAD = "eyJzdWIiOiJtYWxsb3J5IiwiZXhwIjo0MTAyNDQ0ODAwfQ";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JwtSignatureVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws GeneralSecurityException {
+        verifier = new JwtSignatureVerifier(loadKeyStore(), meterRegistry);
+    }
+
+    static JwtKeyStore loadKeyStore() throws GeneralSecurityException {
+        var keyStore = new JwtKeyStore(new DefaultResourceLoader(), JWKS_LOCATION);
+        keyStore.refresh();
+        return keyStore;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {RS256_TOKEN, ES256_TOKEN})
+    void acceptsKnownAnswerSignatures(String token) {
+        verifier.verify("Bearer " + token);
+
+        assertThat(meterRegistry.get("jwt.signature.verification").tag("outcome", "valid").timers())
+                .extracting(Timer::count)
+                .containsExactlyInAnyOrder(0L, 1L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {RS256_TOKEN, ES256_TOKEN})
+    void rejectsTamperedSignatures(String token) {
+        int middle = token.lastIndexOf('.') + (token.length() - token.lastIndexOf('.')) / 2;
+        var tampered = token.substring(0, middle) + (token.charAt(middle) == 'A' ? 'B' : 'A')
+                + token.substring(middle + 1);
+
+        assertThatThrownBy(() -> verifier.verify("Bearer " + tampered))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("JWT token signature is invalid");
+        assertThat(meterRegistry.get("jwt.signature.verification").tag("outcome", "invalid").timers())
+                .extracting(Timer::count)
+                .containsExactlyInAnyOrder(0L, 1L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {RS256_TOKEN, ES256_TOKEN})
+    void rejectsForgedPayloads(String token) {
+        var parts = token.split("\\.");
+        var forged = parts[0] + "." + FORGED_PAYLOAD + "." + parts[2];
+
+        assertThatThrownBy(() -> verifier.verify("Bearer " + forged))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("JWT token signature is invalid");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {RS256_TOKEN_WITH_EC_KID, ES256_TOKEN_WITH_RSA_KID})
+    void rejectsSignaturesCheckedAgainstTheKeyOfAnotherKid(String token) {
+        assertThatThrownBy(() -> verifier.verify("Bearer " + token))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("JWT token signature is invalid");
+    }
+
+    @Test
+    void rejectsUnknownKid() {
+        assertThatThrownBy(() -> verifier.verify("Bearer " + RS256_TOKEN_WITH_UNKNOWN_KID))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("No verification key found for kid: unknown-key");
+    }
+}
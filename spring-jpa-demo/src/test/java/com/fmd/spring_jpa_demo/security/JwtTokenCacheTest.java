@@ -0,0 +1,87 @@
+package com.fmd.spring_jpa_demo.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the bounds and expiry of {@link JwtTokenCache}.
+ */
+class JwtTokenCacheTest {
+
+    private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void servesCachedAuthentication() {
+        var cache = new JwtTokenCache(true, 10, Duration.ofMinutes(5), meterRegistry);
+        var user = user("alice");
+
+        cache.put("Bearer a", payload(Instant.now().plusSeconds(60)), user, AUTHORITIES);
+
+        assertThat(cache.get("Bearer a").user()).isSameAs(user);
+        assertThat(cache.get("Bearer b")).isNull();
+        assertThat(meterRegistry.get("jwt.token.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("jwt.token.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsBeyondTheMaximumSizeAndCountsEvictions() {
+        var cache = new JwtTokenCache(true, 100, Duration.ofMinutes(5), meterRegistry);
+        var expiration = Instant.now().plusSeconds(60);
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put("Bearer " + i, payload(expiration), user("user" + i), AUTHORITIES);
+        }
+
+        assertThat(meterRegistry.get("jwt.token.cache.size").gauge().value()).isEqualTo(100);
+        assertThat(meterRegistry.get("jwt.token.cache.evictions").counter().count()).isEqualTo(900);
+    }
+
+    @Test
+    void neverServesAnEntryPastTheTokenExpiration() throws InterruptedException {
+        var cache = new JwtTokenCache(true, 10, Duration.ofMinutes(5), meterRegistry);
+
+        cache.put("Bearer expired", payload(Instant.now().minusSeconds(1)), user("expired"), AUTHORITIES);
+        cache.put("Bearer expiring", payload(Instant.now().plusMillis(50)), user("expiring"), AUTHORITIES);
+        Thread.sleep(100);
+
+        assertThat(cache.get("Bearer expired")).isNull();
+        assertThat(cache.get("Bearer expiring")).isNull();
+    }
+
+    @Test
+    void neverServesAnEntryPastTheTtl() throws InterruptedException {
+        var cache = new JwtTokenCache(true, 10, Duration.ofMillis(50), meterRegistry);
+
+        cache.put("Bearer a", payload(Instant.now().plusSeconds(60)), user("alice"), AUTHORITIES);
+        Thread.sleep(100);
+
+        assertThat(cache.get("Bearer a")).isNull();
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        var cache = new JwtTokenCache(false, 10, Duration.ofMinutes(5), meterRegistry);
+
+        cache.put("Bearer a", payload(Instant.now().plusSeconds(60)), user("alice"), AUTHORITIES);
+
+        assertThat(cache.get("Bearer a")).isNull();
+    }
+
+    private static JwtPayload payload(Instant expiration) {
+        return JwtPayload.builder().subject("subject").expiration(expiration).build();
+    }
+
+    private static User user(String name) {
+        return new User(name, "", AUTHORITIES);
+    }
+}
@@ -0,0 +1,54 @@
+package com.fmd.spring_jpa_demo.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of the JWT payload decoding of {@link JwtUtil} with the previous implementation, run by
+ * {@link JwtUtilBenchmarkTest} with the GC profiler to report the allocation per token.
+ * <p>
+ * The previous implementation split the token with a regex, decoded the payload into a new string and parsed it with
+ * a new {@link ObjectMapper} per call. It is kept here as the baseline, without the claim validation both share.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtUtilBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtilTest.token(JwtUtilTest.payload("jane.doe@example.com", "Jane Doe"));
+    }
+
+    @Benchmark
+    public JwtPayload splitAndNewMapper() throws IOException {
+        var parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new JwtParseException("JWT token does not have 3 parts");
+        }
+        var payloadPart = new String(Base64.getUrlDecoder().decode(parts[1]));
+        var mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        return mapper.readValue(payloadPart, JwtPayload.class);
+    }
+
+    @Benchmark
+    public JwtPayload streaming() {
+        return JwtUtil.validateAndExtractPayload(token);
+    }
+}
@@ -0,0 +1,66 @@
+package com.fmd.spring_jpa_demo.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link JwtUtilBenchmark} JMH comparison with {@code mvn test -Pbenchmark}, reporting the throughput and
+ * the bytes allocated per token of the previous and the streaming payload decoding.
+ */
+@Slf4j
+@Tag("benchmark")
+class JwtUtilBenchmarkTest {
+
+    /**
+     * Minimum throughput gain of the streaming decoding, building a mapper per call dominates the previous one.
+     * About 5,000 and 1,000,000 tokens per second measured.
+     */
+    private static final double MIN_THROUGHPUT_GAIN = 5.0;
+
+    /**
+     * Minimum reduction of the bytes allocated per token, about 69,000 and 1,250 bytes measured.
+     */
+    private static final double MIN_ALLOCATION_REDUCTION = 5.0;
+
+    @Test
+    void streamingDecodingAllocatesLessAndRunsFaster() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(JwtUtilBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .build();
+
+        Map<String, Double> throughputs = new HashMap<>();
+        Map<String, Double> allocations = new HashMap<>();
+        for (RunResult result : new Runner(options).run()) {
+            var label = result.getPrimaryResult().getLabel();
+            throughputs.put(label, result.getPrimaryResult().getScore());
+            allocations.put(label, result.getSecondaryResults().get("gc.alloc.rate.norm").getScore());
+        }
+
+        for (String label : new String[]{"splitAndNewMapper", "streaming"}) {
+            log.info("JWT payload decoding {}: {} tokens per second, {} bytes allocated per token", label,
+                    String.format("%.0f", throughputs.get(label)), String.format("%.0f", allocations.get(label)));
+        }
+        assertThat(throughputs.get("streaming") / throughputs.get("splitAndNewMapper"))
+                .as("throughput gain").isGreaterThanOrEqualTo(MIN_THROUGHPUT_GAIN);
+        assertThat(allocations.get("splitAndNewMapper") / allocations.get("streaming"))
+                .as("allocation reduction").isGreaterThanOrEqualTo(MIN_ALLOCATION_REDUCTION);
+    }
+}
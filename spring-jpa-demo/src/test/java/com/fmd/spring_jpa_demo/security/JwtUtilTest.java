@@ -0,0 +1,169 @@
+package com.fmd.spring_jpa_demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of the JWT payload decoding of {@link JwtUtil}: Base64url decoding into the reused per-thread buffer and the
+ * structural rules of the token.
+ */
+class JwtUtilTest {
+
+    private static final String HEADER = encode("{\"alg\":\"RS256\",\"typ\":\"JWT\"}");
+
+    private static final String SIGNATURE = "c2lnbmF0dXJl";
+
+    /**
+     * Expiration far in the future, in seconds since epoch.
+     */
+    private static final long EXPIRATION = 4_102_444_800L;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Jane", "Jan", "Ja"})
+    void decodesPaddingFreePayloads(String name) {
+        var token = token(payload("jane", name));
+        assertThat(token.substring(token.indexOf('.') + 1, token.lastIndexOf('.'))).doesNotContain("=");
+
+        var payload = JwtUtil.validateAndExtractPayload(token);
+
+        assertThat(payload.subject()).isEqualTo("jane");
+        assertThat(payload.name()).isEqualTo(name);
+        assertThat(payload.expiration()).isEqualTo(Instant.ofEpochSecond(EXPIRATION));
+        assertThat(payload.roles()).containsExactly("USER");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"Jane", "Jan", "Ja"})
+    void decodesPaddedPayloads(String name) {
+        var payload = payload("jane", name);
+        var token = "Bearer " + HEADER + "." + Base64.getUrlEncoder().encodeToString(payload.getBytes(UTF_8))
+                + "." + SIGNATURE;
+
+        assertThat(JwtUtil.validateAndExtractPayload(token).name()).isEqualTo(name);
+    }
+
+    @Test
+    void decodesUrlSafeCharacters() {
+        // ">>>" and "???" encode to "Pj4-" and "Pz8_" in the URL-safe alphabet, "Pj4+" and "Pz8/" otherwise
+        var name = ">>>???\u00e9\u4e2d";
+        var token = token(payload("jane", name));
+        assertThat(token.substring(token.indexOf('.') + 1, token.lastIndexOf('.'))).contains("-", "_");
+
+        assertThat(JwtUtil.validateAndExtractPayload(token).name()).isEqualTo(name);
+    }
+
+    @Test
+    void decodesPayloadsLongerThanTheReusedBuffer() {
+        var longName = "x".repeat(10_000);
+
+        assertThat(JwtUtil.validateAndExtractPayload(token(payload("jane", longName))).name()).isEqualTo(longName);
+        // The grown buffer still holds the long payload, only the decoded length must be read
+        assertThat(JwtUtil.validateAndExtractPayload(token(payload("joe", "Joe"))))
+                .extracting(JwtPayload::subject, JwtPayload::name)
+                .containsExactly("joe", "Joe");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"+", "/", "*", "\u00e9", " "})
+    void rejectsInvalidBase64Characters(String character) {
+        var payload = encode(payload("jane", "Jane"));
+        var token = "Bearer " + HEADER + "." + payload.substring(0, 8) + character + payload.substring(9)
+                + "." + SIGNATURE;
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasMessage("Failed to parse JWT payload")
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsAnInvalidBase64Length() {
+        // One character beyond a group of four carries only 6 bits, less than a byte
+        var token = "Bearer " + HEADER + ".eyJhY." + SIGNATURE;
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasRootCauseMessage("Invalid Base64url length");
+    }
+
+    @Test
+    void rejectsAMissingSignature() {
+        var token = "Bearer " + HEADER + "." + encode(payload("jane", "Jane"));
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasMessage("JWT token does not have 3 parts");
+    }
+
+    @Test
+    void rejectsAnEmptySignature() {
+        var token = "Bearer " + HEADER + "." + encode(payload("jane", "Jane")) + ".";
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasMessage("JWT token does not have 3 parts");
+    }
+
+    @Test
+    void rejectsFourSegments() {
+        var token = token(payload("jane", "Jane")) + "." + SIGNATURE;
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasMessage("JWT token does not have 3 parts");
+    }
+
+    @Test
+    void rejectsTokensWithoutTheBearerPrefix() {
+        var token = token(payload("jane", "Jane")).substring("Bearer ".length());
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token))
+                .isInstanceOf(JwtParseException.class)
+                .hasMessageStartingWith("JWT token does not start with 'Bearer '");
+    }
+
+    @Test
+    void rejectsExpiredTokens() {
+        var payload = "{\"sub\":\"jane\",\"exp\":1000}";
+
+        assertThatThrownBy(() -> JwtUtil.validateAndExtractPayload(token(payload)))
+                .isInstanceOf(JwtValidationException.class)
+                .hasMessage("JWT token has expired");
+    }
+
+    @Test
+    void decodesSegmentsIntoExactlySizedArrays() {
+        var segment = encode("ab");
+
+        assertThat(JwtUtil.decodeSegment("x" + segment + "x", 1, segment.length() + 1))
+                .isEqualTo("ab".getBytes(UTF_8));
+    }
+
+    /**
+     * Builds a payload with the given subject and name, expiring far in the future.
+     */
+    static String payload(String subject, String name) {
+        return "{\"iss\":\"issuer\",\"sub\":\"" + subject + "\",\"name\":\"" + name + "\",\"iat\":1700000000,"
+                + "\"exp\":" + EXPIRATION + ",\"roles\":" + List.of("\"USER\"") + "}";
+    }
+
+    /**
+     * Builds an Authorization header value carrying the given payload, with an unpadded Base64url encoding.
+     */
+    static String token(String payload) {
+        return "Bearer " + HEADER + "." + encode(payload) + "." + SIGNATURE;
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(UTF_8));
+    }
+}
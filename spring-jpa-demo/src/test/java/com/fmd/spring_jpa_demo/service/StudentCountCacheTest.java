@@ -0,0 +1,60 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that {@link StudentCountCache} serves no count until a refresh has succeeded, and never counts the students
+ * on the request path.
+ */
+class StudentCountCacheTest {
+
+    private final StudentRepository studentRepository = mock(StudentRepository.class);
+
+    private final StudentCountCache studentCountCache = new StudentCountCache(studentRepository);
+
+    @Test
+    void servesNoCountWithoutCountingBeforeTheFirstRefresh() {
+        assertThat(studentCountCache.getApproximateCount()).isEmpty();
+        assertThat(studentCountCache.getApproximateCount()).isEmpty();
+        verifyNoInteractions(studentRepository);
+    }
+
+    @Test
+    void servesNoCountWhileCountingFails() {
+        when(studentRepository.count()).thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        studentCountCache.refresh();
+
+        assertThat(studentCountCache.getApproximateCount()).isEmpty();
+        assertThat(studentCountCache.getApproximateCount()).isEmpty();
+        // Only the scheduled refresh counted
+        verify(studentRepository, times(1)).count();
+    }
+
+    @Test
+    void servesTheLastCountOnceObtained() {
+        when(studentRepository.count())
+                .thenThrow(new DataAccessResourceFailureException("Database down"))
+                .thenReturn(42L)
+                .thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        studentCountCache.refresh();
+        assertThat(studentCountCache.getApproximateCount()).isEmpty();
+
+        studentCountCache.refresh();
+        assertThat(studentCountCache.getApproximateCount()).hasValue(42);
+
+        studentCountCache.refresh();
+        assertThat(studentCountCache.getApproximateCount()).hasValue(42);
+        verify(studentRepository, times(3)).count();
+    }
+}
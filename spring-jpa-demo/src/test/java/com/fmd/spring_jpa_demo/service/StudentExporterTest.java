@@ -0,0 +1,104 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.ExportFormat;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the CSV export of {@link StudentExporter}: RFC 4180 quoting and line separators, and students without
+ * addresses.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentExporterTest {
+
+    private static final String CSV_HEADER = "id,firstName,lastName,createdAt,modifiedAt,version,"
+            + "addressId,area,city,zipcode,addressCreatedAt,addressModifiedAt";
+
+    @Autowired
+    private StudentExporter studentExporter;
+
+    @Autowired
+    private StudentService studentService;
+
+    private final List<Integer> studentIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(studentIds);
+    }
+
+    @Test
+    void quotesTheFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        var student = save("Jane", "Doe, \"Jr\"\nII", List.of(address("Center", "Paris, 1st"), address("Left bank",
+                "Paris")));
+
+        var csv = exportCsv();
+
+        assertThat(csv).startsWith(CSV_HEADER + "\r\n").endsWith("\r\n");
+        var records = records(csv, student.id());
+        assertThat(records).hasSize(2);
+        // Quotes are doubled, and the line break within the quoted field does not end the record
+        assertThat(records).allSatisfy(record ->
+                assertThat(record).startsWith(student.id() + ",Jane,\"Doe, \"\"Jr\"\"\nII\","));
+        assertThat(records.getFirst()).contains(",Center,\"Paris, 1st\",75001,");
+        assertThat(records.getLast()).contains(",Left bank,Paris,75001,");
+    }
+
+    @Test
+    void writesAStudentWithoutAddressesWithEmptyAddressColumns() throws IOException {
+        var student = save("John", "Doe", List.of());
+
+        var records = records(exportCsv(), student.id());
+
+        assertThat(records).hasSize(1);
+        assertThat(records.getFirst()).startsWith(student.id() + ",John,Doe,").endsWith(",0,,,,,,");
+        // Twelve columns, as in the header
+        assertThat(records.getFirst().split(",", -1)).hasSize(12);
+    }
+
+    private String exportCsv() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        studentExporter.export(ExportFormat.CSV, outputStream);
+        return outputStream.toString(UTF_8);
+    }
+
+    /**
+     * Returns the records of a student, without their line separator.
+     */
+    private static List<String> records(String csv, int studentId) {
+        List<String> records = new ArrayList<>();
+        var start = "\r\n" + studentId + ",";
+        for (int from = csv.indexOf(start); from >= 0; from = csv.indexOf(start, from + 2)) {
+            records.add(csv.substring(from + 2, csv.indexOf("\r\n", from + 2)));
+        }
+        return records;
+    }
+
+    private StudentDTO save(String firstName, String lastName, List<AddressDTO> addresses) {
+        var student = studentService.saveStudent(StudentDTO.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .addressDTOList(addresses)
+                .build());
+        studentIds.add(student.id());
+        return student;
+    }
+
+    private static AddressDTO address(String area, String city) {
+        return AddressDTO.builder().area(area).city(city).zipcode("75001").build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fmd.spring_jpa_demo.dto.BulkItemResult;
+import com.fmd.spring_jpa_demo.exception.InvalidImportRequestException;
+import com.fmd.spring_jpa_demo.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link StudentImporter} against the in-memory database, with small chunks.
+ */
+@SpringBootTest(properties = "com.fmd.spring-jpa-demo.student.bulk.chunk-size=5")
+@ActiveProfiles("test")
+class StudentImporterTest {
+
+    @Autowired
+    private StudentImporter studentImporter;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    void resumesAnIdentifiedImportAfterABrokenUploadWithoutDuplicates() throws IOException {
+        var document = document(12);
+        long before = studentRepository.count();
+
+        // The upload breaks within the second chunk, only the first one is committed
+        assertThatThrownBy(() -> studentImporter.importAll(breakingAfter(document, lineOffset(document, 8)), 0, null,
+                "broken-upload")).isInstanceOf(IOException.class);
+        assertThat(studentRepository.count() - before).isEqualTo(5);
+
+        var response = studentImporter.importAll(stream(document), 0, null, "broken-upload");
+
+        assertThat(response.created()).isEqualTo(7);
+        assertThat(response.committedLines()).isEqualTo(12);
+        assertThat(response.completed()).isTrue();
+        assertThat(studentRepository.count() - before).isEqualTo(12);
+    }
+
+    @Test
+    void doesNotRepeatACompletedImport() throws IOException {
+        var document = document(3);
+        studentImporter.importAll(stream(document), 0, null, "completed-import");
+        long before = studentRepository.count();
+
+        var response = studentImporter.importAll(stream(document), 0, null, "completed-import");
+
+        assertThat(response.created()).isZero();
+        assertThat(response.committedLines()).isEqualTo(3);
+        assertThat(response.completed()).isTrue();
+        assertThat(studentRepository.count()).isEqualTo(before);
+    }
+
+    @Test
+    void recordsTheFailedLinesAfterTheLastChunkAsCommitted() throws IOException {
+        var document = document(5) + "{\"firstName\": \"\"}\nnot json\n";
+
+        assertThatThrownBy(() -> studentImporter.importAll(breakingAfter(document, document.length() - 1), 0, null,
+                "trailing-failures")).isInstanceOf(IOException.class);
+        var response = studentImporter.importAll(stream(document), 0, null, "trailing-failures");
+
+        assertThat(response.created()).isZero();
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.committedLines()).isEqualTo(7);
+    }
+
+    @Test
+    void countsAllFailedLinesButReportsOnlyTheFirstOnes() throws IOException {
+        var document = "not json\n".repeat(250);
+
+        var response = studentImporter.importAll(stream(document), 0, Integer.MAX_VALUE, null);
+
+        assertThat(response.failed()).isEqualTo(250);
+        assertThat(response.completed()).isTrue();
+        assertThat(response.errors()).hasSize(100)
+                .extracting(BulkItemResult::index)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, 100).boxed().toList());
+    }
+
+    @Test
+    void rejectsSkippedLinesWithAnImportId() {
+        assertThatThrownBy(() -> studentImporter.importAll(stream(document(1)), 1, null, "with-skip"))
+                .isInstanceOf(InvalidImportRequestException.class);
+    }
+
+    @Test
+    void rejectsAnInvalidImportId() {
+        assertThatThrownBy(() -> studentImporter.importAll(stream(document(1)), 0, null, "../etc"))
+                .isInstanceOf(InvalidImportRequestException.class);
+    }
+
+    /**
+     * Builds an NDJSON document of valid students.
+     *
+     * @param count the number of students
+     * @return the document
+     */
+    private static String document(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> "{\"firstName\": \"Import" + i + "\", \"lastName\": \"Student\", \"address\": "
+                        + "[{\"area\": \"Center\", \"city\": \"Paris\", \"zipcode\": \"75001\"}]}")
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    /**
+     * Finds the offset of the end of a line of a document.
+     *
+     * @param document the document
+     * @param line     the line number
+     * @return the offset just after the newline of the line
+     */
+    private static int lineOffset(String document, int line) {
+        int offset = 0;
+        for (int i = 0; i < line; i++) {
+            offset = document.indexOf('\n', offset) + 1;
+        }
+        return offset;
+    }
+
+    private static InputStream stream(String document) {
+        return new ByteArrayInputStream(document.getBytes(UTF_8));
+    }
+
+    /**
+     * Streams a document one byte at a time, failing like a broken upload after the given number of bytes.
+     *
+     * @param document the document
+     * @param length   the number of bytes read before failing
+     * @return the stream
+     */
+    private static InputStream breakingAfter(String document, int length) {
+        return new FilterInputStream(stream(document)) {
+            private int read;
+
+            @Override
+            public int read(byte[] buffer, int offset, int count) throws IOException {
+                if (read == length) {
+                    throw new IOException("Connection reset");
+                }
+                int bytes = super.read(buffer, offset, Math.min(count, length - read));
+                read += Math.max(bytes, 0);
+                return bytes;
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.fmd.spring_jpa_demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.exception.InvalidPatchException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Tests of the JSON Merge Patch semantics of {@link StudentPatcher}, through {@link StudentService#patchStudent}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentPatcherTest {
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(createdIds);
+        createdIds.clear();
+    }
+
+    @Test
+    void addressArrayReplacesTheAddressesKeepingListedIds() throws JsonProcessingException {
+        var student = saveStudent(address("Paris", "75001"), address("Lyon", "69001"));
+        var kept = student.addressDTOList().get(0);
+
+        var patched = studentService.patchStudent(student.id(), json("""
+                {"lastName": "Patched", "address": [
+                  {"id": %d, "area": "North", "city": "Paris", "zipcode": "75002", "createdAt": "2020-01-01T00:00:00Z"},
+                  {"area": "South", "city": "Nice", "zipcode": "06000"}
+                ]}""".formatted(kept.id())), null);
+
+        assertThat(patched.lastName()).isEqualTo("Patched");
+        assertThat(patched.addressDTOList())
+                .extracting(AddressDTO::area, AddressDTO::city, AddressDTO::zipcode)
+                .containsExactlyInAnyOrder(tuple("North", "Paris", "75002"), tuple("South", "Nice", "06000"));
+        assertThat(patched.addressDTOList()).extracting(AddressDTO::id)
+                .contains(kept.id())
+                .doesNotContain(student.addressDTOList().get(1).id());
+        assertThat(patched.version()).isGreaterThan(student.version());
+    }
+
+    @Test
+    void addressesReadBackAreAValidPatch() throws JsonProcessingException {
+        var student = saveStudent(address("Paris", "75001"));
+
+        var patched = studentService.patchStudent(student.id(),
+                json("{\"address\": " + objectMapper.writeValueAsString(student.addressDTOList()) + "}"), null);
+
+        assertThat(patched.addressDTOList()).extracting(AddressDTO::id)
+                .containsExactly(student.addressDTOList().get(0).id());
+    }
+
+    @Test
+    void absentAddressMemberKeepsTheAddresses() throws JsonProcessingException {
+        var student = saveStudent(address("Paris", "75001"), address("Lyon", "69001"));
+
+        var patched = studentService.patchStudent(student.id(), json("{\"firstName\": \"Renamed\"}"), null);
+
+        assertThat(patched.firstName()).isEqualTo("Renamed");
+        assertThat(patched.addressDTOList()).isEqualTo(student.addressDTOList());
+    }
+
+    @Test
+    void rejectsInvalidAddressArrays() throws JsonProcessingException {
+        var student = saveStudent(address("Paris", "75001"));
+        var id = student.id();
+        var addressId = student.addressDTOList().get(0).id();
+
+        assertThatThrownBy(() -> studentService.patchStudent(id,
+                json("{\"address\": {\"" + addressId + "\": {\"city\": \"Lyon\"}}}"), null))
+                .isInstanceOf(InvalidPatchException.class);
+        assertThatThrownBy(() -> studentService.patchStudent(id, json("{\"address\": []}"), null))
+                .isInstanceOf(InvalidPatchException.class);
+        assertThatThrownBy(() -> studentService.patchStudent(id,
+                json("{\"address\": [{\"id\": " + addressId + ", \"city\": \"Lyon\"}]}"), null))
+                .isInstanceOf(ConstraintViolationException.class);
+        assertThatThrownBy(() -> studentService.patchStudent(id,
+                json("{\"address\": [{\"id\": 2147483647, \"area\": \"A\", \"city\": \"B\", \"zipcode\": \"C\"}]}"), null))
+                .isInstanceOf(EntityNotFoundException.class);
+        assertThat(studentService.getStudentById(id).addressDTOList()).isEqualTo(student.addressDTOList());
+    }
+
+    @Test
+    void conditionalAndUnconditionalUpdatesApplyTheSameBody() {
+        var conditional = saveStudent(address("Paris", "75001"), address("Lyon", "69001"));
+        var unconditional = saveStudent(address("Paris", "75001"), address("Lyon", "69001"));
+
+        var conditionallyUpdated = studentService.updateStudent(conditional.id(), replacement(conditional),
+                List.of(conditional.version()));
+        var unconditionallyUpdated = studentService.updateStudent(unconditional.id(), replacement(unconditional), null);
+
+        assertThat(conditionallyUpdated.lastName()).isEqualTo(unconditionallyUpdated.lastName()).isEqualTo("Replaced");
+        assertThat(conditionallyUpdated.addressDTOList())
+                .extracting(AddressDTO::area, AddressDTO::city, AddressDTO::zipcode)
+                .containsExactlyElementsOf(unconditionallyUpdated.addressDTOList().stream()
+                        .map(address -> tuple(address.area(), address.city(), address.zipcode()))
+                        .toList())
+                .containsExactly(tuple("North", "Paris", "75002"), tuple("Center", "Lyon", "69001"));
+    }
+
+    @Test
+    void updateBodyWithIncompleteAddressIsInvalid() {
+        var student = StudentDTO.builder()
+                .firstName("Patchable")
+                .lastName("Student")
+                .addressDTOList(List.of(AddressDTO.builder().id(1).area("Center").zipcode("75001").build()))
+                .build();
+
+        assertThat(validator.validate(student))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("addressDTOList[0].city");
+    }
+
+    /**
+     * Builds a full replacement of a student, changing its last name and its first address.
+     */
+    private static StudentDTO replacement(StudentDTO student) {
+        var first = student.addressDTOList().get(0);
+        return StudentDTO.builder()
+                .firstName(student.firstName())
+                .lastName("Replaced")
+                .addressDTOList(List.of(
+                        AddressDTO.builder().id(first.id()).area("North").city("Paris").zipcode("75002").build(),
+                        student.addressDTOList().get(1)))
+                .build();
+    }
+
+    private JsonNode json(String json) throws JsonProcessingException {
+        return objectMapper.readTree(json);
+    }
+
+    private StudentDTO saveStudent(AddressDTO... addresses) {
+        var student = studentService.saveStudent(StudentDTO.builder()
+                .firstName("Patchable")
+                .lastName("Student")
+                .addressDTOList(List.of(addresses))
+                .build());
+        createdIds.add(student.id());
+        return studentService.getStudentById(student.id());
+    }
+
+    private static AddressDTO address(String city, String zipcode) {
+        return AddressDTO.builder().area("Center").city(city).zipcode(zipcode).build();
+    }
+}
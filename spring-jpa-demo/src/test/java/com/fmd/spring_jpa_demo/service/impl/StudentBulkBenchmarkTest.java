@@ -0,0 +1,119 @@
+package com.fmd.spring_jpa_demo.service.impl;
+
+import com.fmd.spring_jpa_demo.dto.BulkItemResult;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentFixtures;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the bulk creation of students against creating them one by one, run with
+ * {@code mvn test -Pbenchmark}.
+ * <p>
+ * The gain of the bulk creation comes from fewer database round trips: JDBC batches, pooled IDs and one transaction
+ * per chunk. The round trips are counted with the Hibernate statistics, as the in-memory database has none of the
+ * network latency they cost against a remote database, and the throughput is measured as well.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentBulkBenchmarkTest {
+
+    private static final int STUDENTS = 5_000;
+    private static final int ADDRESSES_PER_STUDENT = 2;
+    private static final int WARMUP_STUDENTS = 1_000;
+
+    /**
+     * Minimum ratio of round trips per student between the single-item loop and the bulk creation.
+     */
+    private static final double MIN_ROUND_TRIP_RATIO = 20.0;
+
+    /**
+     * Minimum throughput ratio, against the in-memory database where round trips are almost free, about 6 measured.
+     */
+    private static final double MIN_THROUGHPUT_RATIO = 4.0;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (int from = 0; from < createdIds.size(); from += 1_000) {
+            studentService.deleteStudents(createdIds.subList(from, Math.min(from + 1_000, createdIds.size())));
+        }
+        createdIds.clear();
+    }
+
+    @Test
+    void bulkCreationNeedsTwentyTimesFewerRoundTripsThanTheSingleItemLoop() {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        createOneByOne(students(WARMUP_STUDENTS));
+        createInBulk(students(WARMUP_STUDENTS));
+
+        statistics.clear();
+        long start = System.nanoTime();
+        createOneByOne(students(STUDENTS));
+        long loopNanos = System.nanoTime() - start;
+        long loopRoundTrips = roundTrips(statistics);
+
+        statistics.clear();
+        start = System.nanoTime();
+        createInBulk(students(STUDENTS));
+        long bulkNanos = System.nanoTime() - start;
+        long bulkRoundTrips = roundTrips(statistics);
+
+        double roundTripRatio = (double) loopRoundTrips / bulkRoundTrips;
+        double throughputRatio = (double) loopNanos / bulkNanos;
+        log.info("Created {} students one by one in {} ms with {} round trips, in bulk in {} ms with {} round trips: "
+                        + "{} times fewer round trips, {} times the throughput", STUDENTS, loopNanos / 1_000_000,
+                loopRoundTrips, bulkNanos / 1_000_000, bulkRoundTrips, String.format("%.1f", roundTripRatio),
+                String.format("%.1f", throughputRatio));
+        assertThat(roundTripRatio).as("round trip ratio").isGreaterThanOrEqualTo(MIN_ROUND_TRIP_RATIO);
+        assertThat(throughputRatio).as("throughput ratio").isGreaterThanOrEqualTo(MIN_THROUGHPUT_RATIO);
+    }
+
+    /**
+     * Counts the database round trips: prepared statements, each executing a single statement or a JDBC batch,
+     * and transactions, each ending with a commit.
+     *
+     * @param statistics the Hibernate statistics
+     * @return the number of round trips
+     */
+    private static long roundTrips(Statistics statistics) {
+        return statistics.getPrepareStatementCount() + statistics.getTransactionCount();
+    }
+
+    private void createOneByOne(List<StudentDTO> students) {
+        students.forEach(student -> createdIds.add(studentService.saveStudent(student).id()));
+    }
+
+    private void createInBulk(List<StudentDTO> students) {
+        var response = studentService.saveStudents(students);
+        assertThat(response.failed()).isZero();
+        response.items().stream().map(BulkItemResult::id).forEach(createdIds::add);
+    }
+
+    private static List<StudentDTO> students(int count) {
+        return StudentFixtures.students(count, "Bulk", ADDRESSES_PER_STUDENT);
+    }
+}
@@ -0,0 +1,164 @@
+package com.fmd.spring_jpa_demo.service.impl;
+
+import com.fmd.spring_jpa_demo.dto.KeysetPageRequest;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of sparse student searches on growing tables, run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * The few matching students have the highest IDs, so a search walking the primary key in ID order and filtering
+ * row by row reads the whole table before finding them, and its latency grows linearly with the table. Searches
+ * driven by the indexes of their criteria must stay far below that.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentSearchBenchmarkTest {
+
+    private static final int[] TABLE_SIZES = {10_000, 40_000, 160_000};
+    private static final int MATCHES = 20;
+    private static final int FIRST_MATCH_ID = 2_000_000_000 - MATCHES;
+    private static final int FIRST_FILLER_ID = 1_000_000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 50;
+    private static final int BATCH_SIZE = 1_000;
+
+    /**
+     * Maximum latency growth allowed while the table grows 16 times, a linear scan grows about 16 times.
+     */
+    private static final double MAX_GROWTH = 4.0;
+
+    /**
+     * Latency below which measurements are considered noise, as the base of the growth.
+     */
+    private static final long NOISE_NANOS = 200_000;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deletes the inserted students from the database shared with the other tests, including after a failure.
+     */
+    @AfterEach
+    void tearDown() {
+        deleteStudents(FIRST_FILLER_ID, FIRST_FILLER_ID + TABLE_SIZES[TABLE_SIZES.length - 1] - 1);
+        deleteStudents(FIRST_MATCH_ID, FIRST_MATCH_ID + MATCHES - 1);
+    }
+
+    @Test
+    void sparseSearchLatencyGrowsSubLinearlyWithTheTable() {
+        Map<String, Supplier<List<StudentDTO>>> searches = new LinkedHashMap<>();
+        searches.put("city", () -> search(new StudentSearchCriteria(null, null, "Rareville", null)));
+        searches.put("zipcode", () -> search(new StudentSearchCriteria(null, null, null, "R-")));
+        searches.put("firstName", () -> search(new StudentSearchCriteria("Rare", null, null, null)));
+        searches.put("lastName and city", () -> search(new StudentSearchCriteria(null, "Rarely", "Rareville", null)));
+
+        insertStudents(FIRST_MATCH_ID, MATCHES, "Rare", "Rarely", "Rareville", "R-");
+        Map<String, long[]> latencies = new LinkedHashMap<>();
+        int size = 0;
+        for (int s = 0; s < TABLE_SIZES.length; s++) {
+            insertStudents(FIRST_FILLER_ID + size, TABLE_SIZES[s] - size, "Name", "Last", "City", "Z-");
+            size = TABLE_SIZES[s];
+            for (var search : searches.entrySet()) {
+                assertThat(search.getValue().get()).as(search.getKey()).hasSize(10)
+                        .allSatisfy(student -> assertThat(student.id()).isGreaterThanOrEqualTo(FIRST_MATCH_ID));
+                latencies.computeIfAbsent(search.getKey(), key -> new long[TABLE_SIZES.length])[s] =
+                        medianNanos(search.getValue());
+            }
+        }
+
+        latencies.forEach((search, nanos) -> log.info("Search by {} median latency on {} students: {} us", search,
+                Arrays.toString(TABLE_SIZES), Arrays.toString(Arrays.stream(nanos).map(n -> n / 1_000).toArray())));
+        latencies.forEach((search, nanos) -> assertThat((double) nanos[nanos.length - 1]
+                / Math.max(nanos[0], NOISE_NANOS))
+                .as("latency growth of the search by %s", search)
+                .isLessThan(MAX_GROWTH));
+    }
+
+    private List<StudentDTO> search(StudentSearchCriteria criteria) {
+        return studentService.searchStudents(criteria, new KeysetPageRequest(null, 10, "id", null)).content();
+    }
+
+    /**
+     * Measures the median latency of a search.
+     *
+     * @param search the search
+     * @return the median latency in nanoseconds
+     */
+    private static long medianNanos(Supplier<List<StudentDTO>> search) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            search.get();
+        }
+        var nanos = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            search.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * Inserts students with one address each through batched JDBC statements.
+     *
+     * @param firstId  the ID of the first student, addresses take the negated IDs
+     * @param count    the number of students
+     * @param first    the prefix of the first names
+     * @param last     the last name
+     * @param city     the city
+     * @param zipcode  the prefix of the zipcodes
+     */
+    private void insertStudents(int firstId, int count, String first, String last, String city, String zipcode) {
+        var now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < count; from += BATCH_SIZE) {
+            List<Object[]> students = new ArrayList<>();
+            List<Object[]> addresses = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BATCH_SIZE, count); i++) {
+                int id = firstId + i;
+                students.add(new Object[]{id, first + id, last, now, now});
+                addresses.add(new Object[]{-id, "Area", city, zipcode + id, id, now, now});
+            }
+            jdbcTemplate.batchUpdate("insert into student (id, first_name, last_name, created_at, modified_at, "
+                    + "version) values (?, ?, ?, ?, ?, 0)", students);
+            jdbcTemplate.batchUpdate("insert into address (id, area, city, zipcode, student_id, created_at, "
+                    + "modified_at, version) values (?, ?, ?, ?, ?, ?, ?, 0)", addresses);
+        }
+    }
+
+    /**
+     * Deletes a range of students inserted by {@link #insertStudents}, with their addresses.
+     *
+     * @param firstId the ID of the first student
+     * @param lastId  the ID of the last student
+     */
+    private void deleteStudents(int firstId, int lastId) {
+        jdbcTemplate.update("delete from address where student_id between ? and ?", firstId, lastId);
+        int deleted = jdbcTemplate.update("delete from student where id between ? and ?", firstId, lastId);
+        log.info("Deleted {} benchmark students", deleted);
+    }
+}
@@ -0,0 +1,163 @@
+package com.fmd.spring_jpa_demo.service.impl;
+
+import com.fmd.spring_jpa_demo.dto.AddressDTO;
+import com.fmd.spring_jpa_demo.dto.BulkItemResult;
+import com.fmd.spring_jpa_demo.dto.KeysetPageRequest;
+import com.fmd.spring_jpa_demo.dto.StudentDTO;
+import com.fmd.spring_jpa_demo.dto.StudentFixtures;
+import com.fmd.spring_jpa_demo.dto.StudentSearchCriteria;
+import com.fmd.spring_jpa_demo.exception.InvalidPageRequestException;
+import com.fmd.spring_jpa_demo.service.StudentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of the student listings of {@link StudentServiceImpl} against the in-memory database.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentServiceImplTest {
+
+    private static final int ADDRESSES_PER_STUDENT = 3;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Integer> createdIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        studentService.deleteStudents(createdIds);
+        createdIds.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 20, 100})
+    void loadsAPageWithItsAddressesInThreeStatements(int pageSize) {
+        createStudents(pageSize * 3);
+        // A middle page, so the total is counted rather than inferred from a short page
+        var pageRequest = PageRequest.of(1, pageSize, Sort.by("id"));
+
+        statistics.clear();
+        var page = studentService.getStudents(studentService.getStudentVersions(pageRequest));
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("page, count and rows statements")
+                .isEqualTo(3);
+        assertThat(page.getContent()).hasSize(pageSize)
+                .allSatisfy(student -> assertThat(student.addressDTOList()).hasSize(ADDRESSES_PER_STUDENT));
+        assertThat(page.getContent()).extracting(StudentDTO::id)
+                .containsExactlyElementsOf(createdIds.subList(pageSize, 2 * pageSize));
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(pageSize * 3L);
+    }
+
+    @Test
+    void dropsStudentsDeletedBetweenTheVersionAndRowQueries() {
+        createStudents(3);
+        var versions = studentService.getStudentVersions(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "id")));
+        var deletedId = createdIds.get(1);
+        studentService.deleteStudents(List.of(deletedId));
+
+        var page = studentService.getStudents(versions);
+
+        assertThat(page.getContent()).doesNotContainNull()
+                .extracting(StudentDTO::id)
+                .containsExactly(createdIds.get(2), createdIds.get(0));
+        assertThat(page.getTotalElements()).isEqualTo(versions.getTotalElements() - 1);
+    }
+
+    @Test
+    void searchReturnsEachMatchingStudentOnceAndMatchesCityAndZipcodeOnTheSameAddress() {
+        var both = saveStudent("Searchable", "Both", address("Lyon", "69001"), address("Lyon", "69002"));
+        var split = saveStudent("Searchable", "Split", address("Lyon", "13001"), address("Marseille", "69003"));
+        saveStudent("Other", "Both", address("Lyon", "69004"));
+
+        var page = studentService.searchStudents(new StudentSearchCriteria("Searchable", null, "Lyon", "690"),
+                new KeysetPageRequest(null, 10, "id", null));
+
+        assertThat(page.content()).extracting(StudentDTO::id).containsExactly(both);
+        assertThat(studentService.searchStudents(new StudentSearchCriteria("Searchable", null, null, null),
+                new KeysetPageRequest(null, 10, "lastName", Sort.Direction.DESC)).content())
+                .extracting(StudentDTO::id).containsExactly(split, both);
+    }
+
+    @Test
+    void searchCursorIsRejectedWithOtherCriteria() {
+        var first = saveStudent("Cursor", "First");
+        var second = saveStudent("Cursor", "Second");
+        saveStudent("Other", "Third");
+        var criteria = new StudentSearchCriteria("Cursor", null, null, null);
+
+        var page = studentService.searchStudents(criteria, new KeysetPageRequest(null, 1, "id", null));
+        var next = new KeysetPageRequest(page.nextCursor(), 1, "id", null);
+
+        assertThat(page.content()).extracting(StudentDTO::id).containsExactly(first);
+        assertThat(studentService.searchStudents(new StudentSearchCriteria("Cursor", "", null, null), next).content())
+                .extracting(StudentDTO::id).containsExactly(second);
+        assertThatThrownBy(() -> studentService.searchStudents(new StudentSearchCriteria("Other", null, null, null), next))
+                .isInstanceOf(InvalidPageRequestException.class);
+        assertThatThrownBy(() -> studentService.getStudentsByKeyset(next))
+                .isInstanceOf(InvalidPageRequestException.class);
+    }
+
+    /**
+     * Creates a student, recording its ID.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @param addresses the addresses
+     * @return the student ID
+     */
+    private int saveStudent(String firstName, String lastName, AddressDTO... addresses) {
+        var id = studentService.saveStudent(StudentDTO.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .addressDTOList(List.of(addresses))
+                .build()).id();
+        createdIds.add(id);
+        return id;
+    }
+
+    private static AddressDTO address(String city, String zipcode) {
+        return AddressDTO.builder().area("Center").city(city).zipcode(zipcode).build();
+    }
+
+    /**
+     * Creates students with addresses, recording their IDs in creation order.
+     *
+     * @param count the number of students
+     */
+    private void createStudents(int count) {
+        var students = StudentFixtures.students(count, "First", ADDRESSES_PER_STUDENT);
+        var response = studentService.saveStudents(students);
+        assertThat(response.failed()).isZero();
+        response.items().stream().map(BulkItemResult::id).forEach(createdIds::add);
+    }
+}
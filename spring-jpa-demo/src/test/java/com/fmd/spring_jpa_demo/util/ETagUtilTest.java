@@ -0,0 +1,92 @@
+package com.fmd.spring_jpa_demo.util;
+
+import com.fmd.spring_jpa_demo.dto.StudentVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the entity tags of {@link ETagUtil}: the student versions listed in {@code If-Match}, and the page tags
+ * changing whenever the page would.
+ */
+class ETagUtilTest {
+
+    private static final Date MODIFIED_AT = new Date(1_700_000_000_000L);
+
+    @Test
+    void formatsTheStudentVersionAsStrongTag() {
+        assertThat(ETagUtil.studentETag(new StudentVersion(1, 7, MODIFIED_AT))).isEqualTo("\"7\"");
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"*", "\"1\", *"})
+    void matchesAnyVersionWithoutHeaderOrWithWildcard(String ifMatch) {
+        assertThat(ETagUtil.parseVersions(ifMatch)).isNull();
+    }
+
+    @Test
+    void parsesTheListedStrongVersions() {
+        assertThat(ETagUtil.parseVersions("\"3\"")).containsExactly(3L);
+        assertThat(ETagUtil.parseVersions("\"3\", \"5\",\"8\"")).containsExactly(3L, 5L, 8L);
+    }
+
+    @Test
+    void ignoresWeakTagsAndTagsWhichAreNotVersions() {
+        assertThat(ETagUtil.parseVersions("W/\"3\", \"5\", \"abc\"")).containsExactly(5L);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", " ", "W/\"3\"", "\"abc\"", "\"\"", "W/\"3\", \"x\""})
+    void matchesNothingWithoutStrongVersion(String ifMatch) {
+        assertThat(ETagUtil.parseVersions(ifMatch)).isEmpty();
+    }
+
+    @Test
+    void computesTheSamePageTagForTheSamePage() {
+        var tag = ETagUtil.pageETag(page(0, 10, 3, version(1, 1), version(2, 1)));
+
+        assertThat(tag).matches("\"[0-9a-f]{64}\"");
+        assertThat(ETagUtil.pageETag(page(0, 10, 3, version(1, 1), version(2, 1)))).isEqualTo(tag);
+    }
+
+    @Test
+    void changesThePageTagWhenAStudentOfThePageChanges() {
+        var tag = ETagUtil.pageETag(page(0, 10, 3, version(1, 1), version(2, 1)));
+
+        // Updated, deleted and replaced students
+        assertThat(ETagUtil.pageETag(page(0, 10, 3, version(1, 1), version(2, 2)))).isNotEqualTo(tag);
+        assertThat(ETagUtil.pageETag(page(0, 10, 2, version(1, 1)))).isNotEqualTo(tag);
+        assertThat(ETagUtil.pageETag(page(0, 10, 3, version(1, 1), version(3, 1)))).isNotEqualTo(tag);
+    }
+
+    @Test
+    void changesThePageTagWithThePositionAndTheTotal() {
+        // Full pages, a partial page would have its total recomputed by PageImpl
+        var tag = ETagUtil.pageETag(page(0, 1, 3, version(1, 1)));
+
+        assertThat(ETagUtil.pageETag(page(1, 1, 3, version(1, 1)))).isNotEqualTo(tag);
+        assertThat(ETagUtil.pageETag(page(0, 2, 3, version(1, 1)))).isNotEqualTo(tag);
+        assertThat(ETagUtil.pageETag(page(0, 1, 4, version(1, 1)))).isNotEqualTo(tag);
+        assertThat(ETagUtil.pageETag(new PageImpl<>(List.of(version(1, 1)),
+                PageRequest.of(0, 1, Sort.by("lastName")), 3))).isNotEqualTo(tag);
+    }
+
+    private static StudentVersion version(int id, long version) {
+        return new StudentVersion(id, version, MODIFIED_AT);
+    }
+
+    private static Page<StudentVersion> page(int number, int size, long total, StudentVersion... versions) {
+        return new PageImpl<>(List.of(versions), PageRequest.of(number, size, Sort.by("id")), total);
+    }
+}
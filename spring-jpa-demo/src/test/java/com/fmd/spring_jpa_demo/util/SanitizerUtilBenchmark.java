@@ -0,0 +1,70 @@
+package com.fmd.spring_jpa_demo.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * JMH comparison of {@link SanitizerUtil#sanitize} with the {@code \p{Cntrl}} regex it replaced, across string
+ * lengths and densities of control characters. Run by {@link SanitizerUtilBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SanitizerUtilBenchmark {
+
+    private static final Pattern CONTROL_CHARACTERS = Pattern.compile("\\p{Cntrl}");
+
+    /**
+     * Number of characters of each string.
+     */
+    @Param({"16", "256", "4096"})
+    public int length;
+
+    /**
+     * Proportion of control characters, 0 for the common case of clean input.
+     */
+    @Param({"0", "0.001", "0.1"})
+    public double density;
+
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        var chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = random.nextDouble() < density ? (char) random.nextInt(0x20) : (char) ('a' + random.nextInt(26));
+        }
+        // Short strings would rarely get a control character at low densities
+        if (density > 0 && new String(chars).equals(SanitizerUtil.sanitize(new String(chars)))) {
+            chars[length / 2] = '\n';
+        }
+        input = new String(chars);
+    }
+
+    @Benchmark
+    public String regex() {
+        return CONTROL_CHARACTERS.matcher(input).replaceAll("");
+    }
+
+    @Benchmark
+    public String regexRecompiled() {
+        return input.replaceAll("\\p{Cntrl}", "");
+    }
+
+    @Benchmark
+    public String scan() {
+        return SanitizerUtil.sanitize(input);
+    }
+}
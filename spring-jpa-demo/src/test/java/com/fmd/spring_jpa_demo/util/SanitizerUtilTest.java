@@ -0,0 +1,99 @@
+package com.fmd.spring_jpa_demo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.util.StringUtils;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link SanitizerUtil#sanitize} removes exactly what the {@code \p{Cntrl}} regex removed.
+ */
+class SanitizerUtilTest {
+
+    private static final int RANDOM_STRINGS = 100_000;
+
+    /**
+     * Characters the random strings are drawn from: every control character and their neighbours, C1 controls
+     * and non-breaking space which the regex keeps, whitespace, and surrogates.
+     */
+    private static final char[] ALPHABET = alphabet();
+
+    /**
+     * The sanitization replaced by the scan, kept as the reference.
+     */
+    private static String regexSanitize(String input) {
+        if (!StringUtils.hasText(input)) return input;
+        return input.replaceAll("\\p{Cntrl}", "");
+    }
+
+    @Test
+    void matchesTheRegexOnRandomStrings() {
+        var random = new Random(42);
+        for (int i = 0; i < RANDOM_STRINGS; i++) {
+            var input = randomString(random, random.nextInt(64));
+            var expected = regexSanitize(input);
+
+            var sanitized = SanitizerUtil.sanitize(input);
+
+            assertThat(sanitized).as("sanitized %s", escape(input)).isEqualTo(expected);
+            if (expected.equals(input)) {
+                assertThat(sanitized).as("clean %s", escape(input)).isSameAs(input);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\u007F", "a\u007Fb", "\u0000", "\tx\n", "\r\n", "x\u001F", " ~"})
+    void matchesTheRegexAtTheControlCharacterBoundaries(String input) {
+        assertThat(SanitizerUtil.sanitize(input)).isEqualTo(regexSanitize(input));
+    }
+
+    @Test
+    void keepsSurrogatePairsAndLoneSurrogates() {
+        var input = "\uD83D\uDE00\tx\uD800\u0007\uDC00";
+
+        assertThat(SanitizerUtil.sanitize(input))
+                .isEqualTo("\uD83D\uDE00x\uD800\uDC00")
+                .isEqualTo(regexSanitize(input));
+    }
+
+    @Test
+    void returnsBlankAndCleanInputAsIs() {
+        var clean = "Jean-Luc \u00A0\u0085 Picard \uD83D\uDE80";
+        var blank = "\t\n ";
+
+        assertThat(SanitizerUtil.sanitize(clean)).isSameAs(clean);
+        assertThat(SanitizerUtil.sanitize(blank)).isSameAs(blank);
+        assertThat(SanitizerUtil.sanitize(null)).isNull();
+    }
+
+    private static String randomString(Random random, int length) {
+        var chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            // Mostly plain letters, as in real input
+            chars[i] = random.nextInt(4) == 0 ? ALPHABET[random.nextInt(ALPHABET.length)]
+                    : (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static char[] alphabet() {
+        var alphabet = new StringBuilder();
+        for (char c = 0x00; c <= 0x21; c++) {
+            alphabet.append(c);
+        }
+        alphabet.append("~\u007F\u0080\u0085\u009F\u00A0\u2028\u3000\uFEFF\uFFFF");
+        alphabet.append("\uD800\uDBFF\uDC00\uDFFF\uD83D\uDE00");
+        return alphabet.toString().toCharArray();
+    }
+
+    private static String escape(String input) {
+        var escaped = new StringBuilder();
+        input.chars().forEach(c -> escaped.append(c < 0x20 || c >= 0x7F ? "\\u%04X".formatted(c) : (char) c));
+        return escaped.toString();
+    }
+}